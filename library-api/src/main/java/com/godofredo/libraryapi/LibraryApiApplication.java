@@ -1,17 +1,56 @@
 package com.godofredo.libraryapi;
 
-import org.modelmapper.ModelMapper;
+import com.godofredo.libraryapi.api.mapper.BookMapper;
+import com.godofredo.libraryapi.api.mapper.LoanMapper;
+import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.service.cache.BookCacheInvalidationBus;
+import com.godofredo.libraryapi.service.cache.BookIsbnCache;
+import com.godofredo.libraryapi.service.cache.InProcessBookCacheInvalidationBus;
+import com.godofredo.libraryapi.service.cache.SingleFlight;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 
+import java.time.Duration;
+import java.util.Optional;
+
 @SpringBootApplication
 public class LibraryApiApplication {
 
 	@Bean
-	public ModelMapper modelMapper(){
-		return  new ModelMapper();
+	public BookMapper bookMapper(){
+		return new BookMapper();
 	}
+
+	@Bean
+	public LoanMapper loanMapper(){
+		return new LoanMapper();
+	}
+
+	@Bean
+	public BookIsbnCache bookIsbnCache(@Value("${library.books.isbn-cache.maximum-size:10000}") long maximumSize,
+									   @Value("${library.books.isbn-cache.expire-after-write:10m}") Duration expireAfterWrite){
+		return new BookIsbnCache(maximumSize, expireAfterWrite);
+	}
+
+	@Bean
+	public SingleFlight<Long, Optional<Book>> bookByIdFlight(){
+		return new SingleFlight<>("books.id");
+	}
+
+	@Bean
+	public SingleFlight<String, Optional<Book>> bookByIsbnFlight(){
+		return new SingleFlight<>("books.isbn");
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	public BookCacheInvalidationBus bookCacheInvalidationBus(){
+		return new InProcessBookCacheInvalidationBus();
+	}
+
 	public static void main(String[] args) {
 		SpringApplication.run(LibraryApiApplication.class, args);
 	}
@@ -1,36 +1,72 @@
 package com.godofredo.libraryapi.api;
 
 import com.godofredo.libraryapi.api.exception.ApiErrors;
+import com.godofredo.libraryapi.api.exception.InvalidRequestException;
+import com.godofredo.libraryapi.api.exception.RateLimitedException;
 import com.godofredo.libraryapi.exception.BusinessException;
+import com.godofredo.libraryapi.exception.ErrorCode;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.validation.BindingResult;
-import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.concurrent.RejectedExecutionException;
+
 @RestControllerAdvice
 public class ApplicationControllerAdvice {
 
+    public static final String ERRORS_METRIC = "library.errors";
 
-    @ExceptionHandler(MethodArgumentNotValidException.class)
+    @ExceptionHandler(InvalidRequestException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ApiErrors handleValidationExceptions(MethodArgumentNotValidException ex){
-        BindingResult bindingResult = ex.getBindingResult();
-        return new ApiErrors(bindingResult);
+    public ApiErrors handleInvalidRequestException(InvalidRequestException ex){
+        count(ex);
+        return ex.getErrors();
     }
 
     @ExceptionHandler(BusinessException.class)
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ApiErrors handleBusinessException(BusinessException ex){
-        return new ApiErrors(ex);
+    public ResponseEntity<ApiErrors> handleBusinessException(BusinessException ex){
+        count(ex);
+        HttpStatus status = ex.getCode() != null ? ex.getCode().getStatus() : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status).body(ApiErrors.of(ex));
     }
 
     @ExceptionHandler(ResponseStatusException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ResponseEntity handleResponseStatusException(ResponseStatusException ex){
+        count(ex);
         return new ResponseEntity(new ApiErrors(ex), ex.getStatus());
     }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ApiErrors handleOptimisticLockingFailureException(OptimisticLockingFailureException ex){
+        count(ex);
+        return ApiErrors.of(ErrorCode.CONCURRENT_MODIFICATION);
+    }
+
+    @ExceptionHandler(RateLimitedException.class)
+    public ResponseEntity<ApiErrors> handleRateLimitedException(RateLimitedException ex){
+        count(ex);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ApiErrors.of(ErrorCode.TOO_MANY_REQUESTS));
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ApiErrors> handleRejectedExecutionException(RejectedExecutionException ex){
+        count(ex);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ApiErrors("Server busy, retry later"));
+    }
+
+    private void count(Exception ex) {
+        Metrics.counter(ERRORS_METRIC, "exception", ex.getClass().getSimpleName()).increment();
+    }
 }
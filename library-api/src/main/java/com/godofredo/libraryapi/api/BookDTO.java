@@ -3,8 +3,6 @@ package com.godofredo.libraryapi.api;
 
 import lombok.*;
 
-import javax.validation.constraints.NotEmpty;
-
 @Data
 @Builder
 @NoArgsConstructor
@@ -12,10 +10,7 @@ import javax.validation.constraints.NotEmpty;
 public class BookDTO {
     private Long id;
 
-    @NotEmpty
     private String title;
-    @NotEmpty
     private String author;
-    @NotEmpty
     private String isbn;
 }
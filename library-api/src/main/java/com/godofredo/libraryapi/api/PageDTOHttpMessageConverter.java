@@ -0,0 +1,99 @@
+package com.godofredo.libraryapi.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.godofredo.libraryapi.api.dto.PageDTO;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Writes {@link PageDTO} responses as JSON, Smile or CBOR, as negotiated from the Accept header,
+ * with a Jackson writer built once per format and content type instead of resolved per response.
+ */
+@Component
+public class PageDTOHttpMessageConverter extends AbstractGenericHttpMessageConverter<PageDTO<?>> {
+
+    public static final MediaType APPLICATION_SMILE = MediaType.valueOf("application/x-jackson-smile");
+    public static final MediaType APPLICATION_CBOR = MediaType.valueOf("application/cbor");
+
+    private final Map<MediaType, ObjectMapper> mappers = new HashMap<>();
+    private final ConcurrentMap<MediaType, ConcurrentMap<Type, ObjectWriter>> writers = new ConcurrentHashMap<>();
+
+    public PageDTOHttpMessageConverter(ObjectMapper objectMapper, ObjectProvider<Jackson2ObjectMapperBuilder> builder) {
+        super(MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR);
+        mappers.put(MediaType.APPLICATION_JSON, objectMapper);
+        mappers.put(APPLICATION_SMILE, builder.getObject().factory(new SmileFactory()).build());
+        mappers.put(APPLICATION_CBOR, builder.getObject().factory(new CBORFactory()).build());
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return PageDTO.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected void writeInternal(PageDTO<?> page, Type type, HttpOutputMessage outputMessage) throws IOException {
+        MediaType format = format(outputMessage.getHeaders().getContentType());
+        Type pageType = type != null ? type : PageDTO.class;
+        ObjectWriter writer = writers
+                .computeIfAbsent(format, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(pageType, key -> writer(mappers.get(format), key));
+        writer.writeValue(outputMessage.getBody(), page);
+    }
+
+    @Override
+    public PageDTO<?> read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Pages are only written", inputMessage);
+    }
+
+    @Override
+    protected PageDTO<?> readInternal(Class<? extends PageDTO<?>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Pages are only written", inputMessage);
+    }
+
+    private static ObjectWriter writer(ObjectMapper mapper, Type pageType) {
+        ResolvableType resolved = ResolvableType.forType(pageType);
+        JavaType javaType = resolved.hasUnresolvableGenerics()
+                ? mapper.constructType(PageDTO.class)
+                : mapper.constructType(pageType);
+        return mapper.writerFor(javaType).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    private static MediaType format(MediaType contentType) {
+        if (contentType != null && contentType.isCompatibleWith(APPLICATION_SMILE)) {
+            return APPLICATION_SMILE;
+        }
+        if (contentType != null && contentType.isCompatibleWith(APPLICATION_CBOR)) {
+            return APPLICATION_CBOR;
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+}
@@ -0,0 +1,72 @@
+package com.godofredo.libraryapi.api.admission;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket per key, as the generic cell rate algorithm: the state of a key is a single
+ * theoretical arrival time updated by compare and set, so callers never block each other. A key
+ * lets {@code burst} requests through at once, then one more every {@code 1 / refillPerSecond}.
+ * <p>
+ * A key whose arrival time has passed has a full bucket and is the same as an absent one, so
+ * {@link #evictIdle()} can drop it. At most {@code maxKeys} keys have a bucket of their own, the keys
+ * arriving while the map is full share one overflow bucket until idle keys are evicted.
+ */
+public class RateLimiter {
+
+    private final long emissionNanos;
+    private final long burstNanos;
+    private final int maxKeys;
+    private final ConcurrentMap<String, AtomicLong> arrivals = new ConcurrentHashMap<>();
+    private final AtomicLong overflow = new AtomicLong(Long.MIN_VALUE / 2);
+
+    public RateLimiter(int burst, double refillPerSecond, int maxKeys) {
+        if (burst < 1 || refillPerSecond <= 0 || maxKeys < 1) {
+            throw new IllegalArgumentException("Burst, refill and max keys must be positive");
+        }
+        this.maxKeys = maxKeys;
+        this.emissionNanos = (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond);
+        this.burstNanos = emissionNanos * burst;
+    }
+
+    /**
+     * @return 0 when the request of the key is admitted, otherwise the nanoseconds until it would be
+     */
+    public long tryAcquire(String key) {
+        return tryAcquire(key, System.nanoTime());
+    }
+
+    long tryAcquire(String key, long now) {
+        AtomicLong arrival = arrivals.get(key);
+        if (arrival == null) {
+            arrival = arrivals.size() < maxKeys ? arrivals.computeIfAbsent(key, k -> new AtomicLong(now)) : overflow;
+        }
+        while (true) {
+            long current = arrival.get();
+            long next = Math.max(current, now) + emissionNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public int evictIdle() {
+        return evictIdle(System.nanoTime());
+    }
+
+    int evictIdle(long now) {
+        int before = arrivals.size();
+        arrivals.values().removeIf(arrival -> arrival.get() - now <= 0);
+        return before - arrivals.size();
+    }
+
+    public int size() {
+        return arrivals.size();
+    }
+}
@@ -0,0 +1,71 @@
+package com.godofredo.libraryapi.api.admission;
+
+import com.godofredo.libraryapi.api.exception.RateLimitedException;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission of the write requests: each client, by its address, goes through its {@link RateLimiter}
+ * bucket, then takes one of a fixed number of write permits so the writes never hold more database
+ * connections than there are permits. The address is the one of the connection, or the one a trusted
+ * proxy forwarded when {@code server.forward-headers-strategy} is set, never a header the client
+ * chooses freely.
+ * <p>
+ * The permit is held until the request completes, across the async dispatch when the handler
+ * runs on the async executor.
+ */
+public class WriteAdmissionInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = WriteAdmissionInterceptor.class.getName() + ".permit";
+
+    private final RateLimiter rateLimiter;
+    private final Semaphore writes;
+    private final long acquireTimeoutMillis;
+
+    public WriteAdmissionInterceptor(RateLimiter rateLimiter, int maxInFlight, long acquireTimeoutMillis) {
+        this.rateLimiter = rateLimiter;
+        this.writes = new Semaphore(maxInFlight);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws InterruptedException {
+        if (request.getDispatcherType() != DispatcherType.REQUEST || !isWrite(request)) {
+            return true;
+        }
+        long wait = rateLimiter.tryAcquire(request.getRemoteAddr());
+        if (wait > 0) {
+            throw new RateLimitedException(wait);
+        }
+        if (!writes.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            throw new RejectedExecutionException("Too many writes in flight");
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            writes.release();
+        }
+    }
+
+    public int availablePermits() {
+        return writes.availablePermits();
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        HttpMethod method = HttpMethod.resolve(request.getMethod());
+        return method == HttpMethod.POST || method == HttpMethod.PUT || method == HttpMethod.DELETE;
+    }
+}
@@ -0,0 +1,27 @@
+package com.godofredo.libraryapi.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AvailabilityDTO {
+
+    private Long bookId;
+    private String isbn;
+    private Boolean available;
+    private Integer activeLoans;
+    private Long totalCheckouts;
+    private LocalDate lastLoanDate;
+    private List<String> borrowers;
+    private String error;
+}
@@ -0,0 +1,33 @@
+package com.godofredo.libraryapi.api.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counts of an import and its failed rows, the first {@link #MAX_FAILURES} of them, so the report
+ * does not grow with the size of the import.
+ */
+@Data
+@NoArgsConstructor
+public class BookImportDTO {
+
+    public static final int MAX_FAILURES = 1000;
+
+    private int imported;
+    private int failed;
+    private List<BookImportResultDTO> failures = new ArrayList<>();
+
+    public void success() {
+        imported++;
+    }
+
+    public void failure(int index, String isbn, String error) {
+        failed++;
+        if (failures.size() < MAX_FAILURES) {
+            failures.add(BookImportResultDTO.builder().index(index).isbn(isbn).error(error).build());
+        }
+    }
+}
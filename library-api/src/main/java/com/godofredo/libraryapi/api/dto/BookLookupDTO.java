@@ -0,0 +1,24 @@
+package com.godofredo.libraryapi.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.godofredo.libraryapi.api.BookDTO;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One entry of a multi-get: the id or isbn asked for, and the book or the error.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookLookupDTO {
+
+    private Long id;
+    private String isbn;
+    private BookDTO book;
+    private String error;
+}
@@ -0,0 +1,19 @@
+package com.godofredo.libraryapi.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanBasketDTO {
+
+    private String customer;
+    private List<String> isbns;
+
+}
@@ -0,0 +1,26 @@
+package com.godofredo.libraryapi.api.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class LoanBatchDTO {
+
+    private int succeeded;
+    private int failed;
+    private List<LoanBatchResultDTO> results = new ArrayList<>();
+
+    public void success(int index, String isbn, Long id) {
+        succeeded++;
+        results.add(LoanBatchResultDTO.builder().index(index).isbn(isbn).id(id).build());
+    }
+
+    public void failure(int index, String isbn, String error) {
+        failed++;
+        results.add(LoanBatchResultDTO.builder().index(index).isbn(isbn).error(error).build());
+    }
+}
@@ -0,0 +1,21 @@
+package com.godofredo.libraryapi.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LoanBatchResultDTO {
+
+    private int index;
+    private String isbn;
+    private Long id;
+    private String error;
+
+}
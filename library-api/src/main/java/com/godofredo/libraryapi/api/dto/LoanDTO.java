@@ -1,17 +1,23 @@
 package com.godofredo.libraryapi.api.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
+
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class LoanDTO {
 
+    private Long id;
     private String isbn;
     private String customer;
+    private LocalDate loanDate;
 
 }
@@ -0,0 +1,45 @@
+package com.godofredo.libraryapi.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * Envelope of the list endpoints. Offset pages carry their number and the total count, keyset
+ * pages carry instead the cursor of the next page, absent on the last one.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PageDTO<T> {
+
+    private List<T> content;
+    private Integer page;
+    private int size;
+    private Long total;
+    private String cursor;
+
+    public static <T> PageDTO<T> of(List<T> content, Page<?> page) {
+        return PageDTO.<T>builder()
+                .content(content)
+                .page(page.getNumber())
+                .size(page.getSize())
+                .total(page.getTotalElements())
+                .build();
+    }
+
+    public static <T> PageDTO<T> of(List<T> content, int size, String nextCursor) {
+        return PageDTO.<T>builder()
+                .content(content)
+                .size(size)
+                .cursor(nextCursor)
+                .build();
+    }
+}
@@ -1,27 +1,53 @@
 package com.godofredo.libraryapi.api.exception;
 
 import com.godofredo.libraryapi.exception.BusinessException;
-import org.springframework.http.ResponseEntity;
-import org.springframework.validation.BindingResult;
+import com.godofredo.libraryapi.exception.ErrorCode;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Immutable body of an error response. The bodies of the fixed {@link ErrorCode}s are built once
+ * and shared by every response.
+ */
 public class ApiErrors {
-    private List<String> errors;
-    public ApiErrors(BindingResult bindingResult) {
-        this.errors = new ArrayList<>();
-        bindingResult.getAllErrors().forEach(error -> this.errors.add(error.getDefaultMessage()));
+
+    private static final Map<ErrorCode, ApiErrors> BY_CODE = new EnumMap<>(ErrorCode.class);
+
+    static {
+        for (ErrorCode code : ErrorCode.values()) {
+            BY_CODE.put(code, new ApiErrors(code.getMessage()));
+        }
     }
 
+    private final List<String> errors;
+
     public ApiErrors(BusinessException ex) {
-        this.errors = Arrays.asList(ex.getMessage());
+        this(ex.getMessage());
+    }
+
+    public ApiErrors(String error) {
+        this.errors = Collections.singletonList(error);
+    }
+
+    public ApiErrors(List<String> errors) {
+        this.errors = Collections.unmodifiableList(new ArrayList<>(errors));
     }
 
     public ApiErrors(ResponseStatusException ex) {
-        this.errors = Arrays.asList(ex.getReason());
+        this(ex.getReason());
+    }
+
+    public static ApiErrors of(ErrorCode code) {
+        return BY_CODE.get(code);
+    }
+
+    public static ApiErrors of(BusinessException ex) {
+        return ex.getCode() != null ? of(ex.getCode()) : new ApiErrors(ex);
     }
 
     public List<String> getErrors() {
@@ -0,0 +1,19 @@
+package com.godofredo.libraryapi.api.exception;
+
+/**
+ * A request body rejected by {@link com.godofredo.libraryapi.api.validation.RequestValidator},
+ * stackless like {@link com.godofredo.libraryapi.exception.BusinessException}.
+ */
+public class InvalidRequestException extends RuntimeException {
+
+    private final ApiErrors errors;
+
+    public InvalidRequestException(ApiErrors errors) {
+        super(errors.getErrors().get(0), null, false, false);
+        this.errors = errors;
+    }
+
+    public ApiErrors getErrors() {
+        return errors;
+    }
+}
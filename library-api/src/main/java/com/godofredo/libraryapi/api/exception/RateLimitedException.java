@@ -0,0 +1,23 @@
+package com.godofredo.libraryapi.api.exception;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A request over the rate limit of its client, stackless like the other rejections.
+ */
+public class RateLimitedException extends RuntimeException {
+
+    private final long waitNanos;
+
+    public RateLimitedException(long waitNanos) {
+        super("Rate limit exceeded", null, false, false);
+        this.waitNanos = waitNanos;
+    }
+
+    /**
+     * @return the whole seconds to wait before the request would be admitted, at least 1
+     */
+    public long getRetryAfterSeconds() {
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+}
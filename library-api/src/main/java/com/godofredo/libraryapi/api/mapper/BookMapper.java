@@ -0,0 +1,35 @@
+package com.godofredo.libraryapi.api.mapper;
+
+import com.godofredo.libraryapi.api.BookDTO;
+import com.godofredo.libraryapi.model.entity.Book;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Field by field mapping between {@link Book} and {@link BookDTO}, without the reflection
+ * and type map matching ModelMapper does on every call.
+ */
+public class BookMapper {
+
+    public BookDTO toDto(Book book) {
+        return new BookDTO(book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn());
+    }
+
+    public List<BookDTO> toDto(List<Book> books) {
+        List<BookDTO> list = new ArrayList<>(books.size());
+        for (Book book : books) {
+            list.add(toDto(book));
+        }
+        return list;
+    }
+
+    public Book toEntity(BookDTO dto) {
+        Book book = new Book();
+        book.setId(dto.getId());
+        book.setTitle(dto.getTitle());
+        book.setAuthor(dto.getAuthor());
+        book.setIsbn(dto.getIsbn());
+        return book;
+    }
+}
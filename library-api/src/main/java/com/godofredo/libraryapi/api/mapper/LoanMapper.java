@@ -0,0 +1,23 @@
+package com.godofredo.libraryapi.api.mapper;
+
+import com.godofredo.libraryapi.api.dto.LoanDTO;
+import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.model.entity.Loan;
+
+import java.time.LocalDate;
+
+public class LoanMapper {
+
+    public LoanDTO toDto(Loan loan) {
+        Book book = loan.getBook();
+        return new LoanDTO(loan.getId(), book == null ? null : book.getIsbn(), loan.getCustomer(), loan.getLoanDate());
+    }
+
+    public Loan toEntity(LoanDTO dto, Book book, LocalDate loanDate) {
+        Loan loan = new Loan();
+        loan.setBook(book);
+        loan.setCustomer(dto.getCustomer());
+        loan.setLoanDate(loanDate);
+        return loan;
+    }
+}
@@ -0,0 +1,75 @@
+package com.godofredo.libraryapi.api.resource;
+
+import com.godofredo.libraryapi.api.dto.AvailabilityDTO;
+import com.godofredo.libraryapi.exception.BusinessException;
+import com.godofredo.libraryapi.exception.ErrorCode;
+import com.godofredo.libraryapi.metrics.QueryBudget;
+import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.model.entity.BookAvailability;
+import com.godofredo.libraryapi.service.AvailabilityService;
+import com.godofredo.libraryapi.service.BookService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/books")
+@Profile("!reactive")
+@RequiredArgsConstructor
+public class AvailabilityController {
+
+    static final int MAX_ISBNS = 1000;
+
+    private final BookService bookService;
+    private final AvailabilityService availabilityService;
+
+    // the book, its availability row and, when it is out, who holds it
+    @GetMapping("{id}/availability")
+    @QueryBudget(3)
+    public AvailabilityDTO availability(@PathVariable Long id) {
+        Book book = bookService.getById(id).orElseThrow(() -> new BusinessException(ErrorCode.UNKNOWN_BOOK));
+        BookAvailability availability = availabilityService.getAvailability(id);
+        AvailabilityDTO dto = toDto(book.getIsbn(), availability);
+        dto.setBorrowers(availability.isAvailable()
+                ? Collections.emptyList()
+                : availabilityService.getBorrowers(id));
+        return dto;
+    }
+
+    /**
+     * Availability of many books in one query, in the order of the isbns, with an error for the
+     * isbns of no book.
+     */
+    @GetMapping("availability")
+    @QueryBudget(1)
+    public List<AvailabilityDTO> availability(@RequestParam("isbn") List<String> isbns) {
+        if (isbns.size() > MAX_ISBNS) {
+            throw new BusinessException(ErrorCode.TOO_MANY_ISBNS);
+        }
+        Map<String, BookAvailability> found = availabilityService.getAvailability(isbns);
+        List<AvailabilityDTO> result = new ArrayList<>(isbns.size());
+        for (String isbn : isbns) {
+            BookAvailability availability = found.get(Book.normalizeIsbn(isbn));
+            result.add(availability != null
+                    ? toDto(isbn, availability)
+                    : AvailabilityDTO.builder().isbn(isbn).error(ErrorCode.BOOK_NOT_FOUND.getMessage()).build());
+        }
+        return result;
+    }
+
+    private static AvailabilityDTO toDto(String isbn, BookAvailability availability) {
+        return AvailabilityDTO.builder()
+                .bookId(availability.getBookId())
+                .isbn(isbn)
+                .available(availability.isAvailable())
+                .activeLoans(availability.getActiveLoans())
+                .totalCheckouts(availability.getTotalCheckouts())
+                .lastLoanDate(availability.getLastLoanDate())
+                .build();
+    }
+}
@@ -1,91 +1,385 @@
 package com.godofredo.libraryapi.api.resource;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.godofredo.libraryapi.api.BookDTO;
+import com.godofredo.libraryapi.api.dto.BookImportDTO;
+import com.godofredo.libraryapi.api.dto.BookLookupDTO;
+import com.godofredo.libraryapi.api.dto.PageDTO;
 import com.godofredo.libraryapi.api.exception.ApiErrors;
+import com.godofredo.libraryapi.api.mapper.BookMapper;
+import com.godofredo.libraryapi.api.validation.RequestValidator;
 import com.godofredo.libraryapi.exception.BusinessException;
+import com.godofredo.libraryapi.exception.ErrorCode;
+import com.godofredo.libraryapi.metrics.QueryBudget;
 import com.godofredo.libraryapi.model.entity.Book;
 import com.godofredo.libraryapi.service.BookService;
-import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.validation.BindingResult;
+import org.springframework.http.MediaType;
 import org.springframework.validation.ObjectError;
-import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.context.request.WebRequest;
 
-import javax.validation.Valid;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/books")
+@Profile("!reactive")
 public class BookController {
 
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    static final String TEXT_CSV_VALUE = "text/csv";
+    static final int MAX_LOOKUPS = 1000;
+    static final String[] MODE_PARAMETERS = {"ids", "isbns", "q", "cursor"};
+
     private BookService service;
-    private ModelMapper modelMapper;
+    private BookMapper mapper;
+    private ObjectMapper objectMapper;
+
+    @Value("${library.books.import.chunk-size:500}")
+    private int importChunkSize;
 
-    public BookController(BookService service, ModelMapper mapper) {
+    public BookController(BookService service, BookMapper mapper, ObjectMapper objectMapper) {
         this.service = service;
-        this.modelMapper = mapper;
+        this.mapper = mapper;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public BookDTO create(@RequestBody @Valid BookDTO bookDTO){
-        Book entity = modelMapper.map(bookDTO, Book.class);
+    public BookDTO create(@RequestBody BookDTO bookDTO){
+        Book entity = mapper.toEntity(bookDTO);
         entity = service.save(entity);
-        return modelMapper.map(entity, BookDTO.class);
+        return mapper.toDto(entity);
     }
 
     @GetMapping("{id}")
-    public BookDTO get(@PathVariable Long id){
-        return service
+    public BookDTO get(@PathVariable Long id, WebRequest request){
+        Book book = service
                 .getById(id)
-                .map(book -> modelMapper.map(book, BookDTO.class))
-                .orElseThrow(()-> new ResponseStatusException(HttpStatus.NOT_FOUND));
+                .orElseThrow(()-> new BusinessException(ErrorCode.UNKNOWN_BOOK));
+        if (request.checkNotModified(etag(book), lastModified(book))) {
+            return null;
+        }
+        return mapper.toDto(book);
     }
 
+    // the select of the book, served by the second level cache when warm, and the update
     @PutMapping("{id}")
-    public BookDTO update(@PathVariable Long id, BookDTO bookDTO){
+    @QueryBudget(2)
+    public BookDTO update(@PathVariable Long id, BookDTO bookDTO,
+                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                          HttpServletResponse response){
         /*
         //I'll use a different way to return
         Book book = service.getById(id).orElseThrow(()-> new ResponseStatusException(HttpStatus.NOT_FOUND));
         book.setAuthor(bookDTO.getAuthor());
         book.setTitle(bookDTO.getTitle());
         book = service.update(book);
-        return modelMapper.map(book, BookDTO.class);*/
+        return mapper.toDto(book);*/
 
         return service.getById(id).map(book -> {
 
+            // the version check of the update closes the window between this check and the write
+            if (ifMatch != null && !ifMatch.equals("*") && !ifMatch.equals(etag(book))) {
+                throw new BusinessException(ErrorCode.BOOK_MODIFIED);
+            }
             book.setAuthor(bookDTO.getAuthor());
             book.setTitle(bookDTO.getTitle());
-            book = service.update(book);
-            return modelMapper.map(book, BookDTO.class);
+            try {
+                book = service.update(book);
+            } catch (OptimisticLockingFailureException e) {
+                throw new BusinessException(ErrorCode.BOOK_MODIFIED);
+            }
+            response.setHeader(HttpHeaders.ETAG, etag(book));
+            return mapper.toDto(book);
 
-        }).orElseThrow(()-> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        }).orElseThrow(()-> new BusinessException(ErrorCode.UNKNOWN_BOOK));
     }
 
     @DeleteMapping("{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void delete (@PathVariable Long id){
         Book book = service.getById(id)
-                .orElseThrow(()-> new ResponseStatusException(HttpStatus.NOT_FOUND));
+                .orElseThrow(()-> new BusinessException(ErrorCode.UNKNOWN_BOOK));
         service.delete(book);
     }
 
+    /**
+     * The page of books matching the filter. The lookups, the search and the cursor mode each take one of
+     * their parameters alone, a request passing several of them ends here and is rejected.
+     */
     @GetMapping
-    public Page<BookDTO> find(BookDTO bookDTO, Pageable pageRequest){
-        Book filter = modelMapper.map(bookDTO, Book.class);
+    public PageDTO<BookDTO> find(BookDTO bookDTO, Pageable pageRequest, WebRequest request){
+        for (String mode : MODE_PARAMETERS) {
+            if (request.getParameter(mode) != null) {
+                throw new BusinessException(ErrorCode.CONFLICTING_PARAMETERS);
+            }
+        }
+        Book filter = mapper.toEntity(bookDTO);
         Page<Book> result = service.find(filter, pageRequest);
-        List<BookDTO> list = result.getContent()
-                .stream()
-                .map(entity -> modelMapper.map(entity, BookDTO.class))
-                .collect(Collectors.toList());
-        return new PageImpl<BookDTO>(list, pageRequest, result.getTotalElements());
+        if (request.checkNotModified(etag(result))) {
+            return null;
+        }
+        return PageDTO.of(mapper.toDto(result.getContent()), result);
+    }
+
+    /**
+     * The books of many ids at once, in the order of the ids, with an error for the ids of no book.
+     * The service reads them with one IN query per 500 ids.
+     */
+    @GetMapping(params = {"ids", "!isbns", "!q", "!cursor"})
+    @QueryBudget(2)
+    public List<BookLookupDTO> getByIds(@RequestParam List<Long> ids){
+        if (ids.size() > MAX_LOOKUPS) {
+            throw new BusinessException(ErrorCode.TOO_MANY_IDS);
+        }
+        Map<Long, Book> found = service.getByIds(ids);
+        List<BookLookupDTO> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            result.add(lookup(found.get(id)).id(id).build());
+        }
+        return result;
+    }
+
+    /**
+     * The books of many isbns at once, in the order of the isbns, with an error for the isbns of no book.
+     */
+    @GetMapping(params = {"isbns", "!ids", "!q", "!cursor"})
+    @QueryBudget(2)
+    public List<BookLookupDTO> getByIsbns(@RequestParam List<String> isbns){
+        if (isbns.size() > MAX_LOOKUPS) {
+            throw new BusinessException(ErrorCode.TOO_MANY_ISBNS);
+        }
+        Map<String, Book> found = service.getByIsbns(isbns);
+        List<BookLookupDTO> result = new ArrayList<>(isbns.size());
+        for (String isbn : isbns) {
+            result.add(lookup(found.get(Book.normalizeIsbn(isbn))).isbn(isbn).build());
+        }
+        return result;
+    }
+
+    private BookLookupDTO.BookLookupDTOBuilder lookup(Book book) {
+        return book != null
+                ? BookLookupDTO.builder().book(mapper.toDto(book))
+                : BookLookupDTO.builder().error(ErrorCode.BOOK_NOT_FOUND.getMessage());
+    }
+
+    @GetMapping(params = {"q", "!ids", "!isbns", "!cursor"})
+    public PageDTO<BookDTO> search(@RequestParam("q") String query, Pageable pageRequest){
+        Page<Book> result = service.search(query, pageRequest);
+        return PageDTO.of(mapper.toDto(result.getContent()), result);
+    }
+
+    /**
+     * Every book matching the filter, written row by row as it is read from the database: NDJSON, or CSV
+     * when the client accepts text/csv.
+     */
+    @GetMapping(value = "export", produces = {APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE})
+    public void export(BookDTO bookDTO, @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                       HttpServletResponse response) throws IOException {
+        Book filter = mapper.toEntity(bookDTO);
+        if (accept != null && accept.contains(TEXT_CSV_VALUE)) {
+            response.setContentType(TEXT_CSV_VALUE + ";charset=UTF-8");
+            exportCsv(filter, response.getOutputStream());
+        } else {
+            response.setContentType(APPLICATION_NDJSON_VALUE);
+            exportNdjson(filter, response.getOutputStream());
+        }
+    }
+
+    @GetMapping(params = {"cursor", "!ids", "!isbns", "!q"})
+    public PageDTO<BookDTO> findAfter(BookDTO bookDTO, @RequestParam String cursor, Pageable pageRequest){
+        BookCursor current = cursor.isEmpty() ? BookCursor.first(pageRequest.getSort()) : BookCursor.decode(cursor);
+        Book filter = mapper.toEntity(bookDTO);
+        Slice<Book> result = service.findAfter(filter, current.getOrder(), current.getAfter(), pageRequest.getPageSize());
+
+        List<Book> content = result.getContent();
+        String nextCursor = result.hasNext()
+                ? BookCursor.after(current.getOrder(), content.get(content.size() - 1)).encode()
+                : null;
+        return PageDTO.of(mapper.toDto(content), pageRequest.getPageSize(), nextCursor);
+    }
+
+    @PostMapping(value = "import", consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE})
+    public BookImportDTO importBooks(InputStream body) throws IOException {
+        BookImportDTO report = new BookImportDTO();
+        List<BookDTO> chunk = new ArrayList<>(importChunkSize);
+        int index = 0;
+
+        // A JSON array and NDJSON are both read one row at a time, never as a whole document.
+        try (MappingIterator<BookDTO> rows = objectMapper.readerFor(BookDTO.class).readValues(body)) {
+            while (rows.hasNextValue()) {
+                chunk.add(rows.nextValue());
+                if (chunk.size() == importChunkSize) {
+                    importChunk(chunk, index, report);
+                    index += chunk.size();
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            importChunk(chunk, index, report);
+            report.failure(index + chunk.size(), null, "Malformed row: " + e.getMessage());
+            return report;
+        }
+        importChunk(chunk, index, report);
+        return report;
+    }
+
+    private void importChunk(List<BookDTO> chunk, int firstIndex, BookImportDTO report) {
+        String[] errors = new String[chunk.size()];
+        for (int i = 0; i < chunk.size(); i++) {
+            ApiErrors invalid = RequestValidator.check(chunk.get(i));
+            if (invalid != null) {
+                errors[i] = invalid.getErrors().get(0);
+            }
+        }
+
+        Set<String> savedIsbns = new HashSet<>();
+        List<Book> valid = toEntities(chunk, errors);
+        if (!valid.isEmpty()) {
+            List<Book> saved;
+            try {
+                saved = service.saveAll(valid);
+            } catch (BusinessException e) {
+                // another writer took one of the isbns after the duplicate check, the retry sees it. The
+                // failed save left ids and versions on the entities, the retry persists fresh ones.
+                try {
+                    saved = service.saveAll(toEntities(chunk, errors));
+                } catch (BusinessException retry) {
+                    saved = new ArrayList<>();
+                    for (int i = 0; i < chunk.size(); i++) {
+                        if (errors[i] == null) {
+                            errors[i] = retry.getMessage();
+                        }
+                    }
+                }
+            }
+            saved.forEach(book -> savedIsbns.add(book.getIsbn()));
+        }
+
+        for (int i = 0; i < chunk.size(); i++) {
+            String isbn = chunk.get(i).getIsbn();
+            if (errors[i] != null) {
+                report.failure(firstIndex + i, isbn, errors[i]);
+                continue;
+            }
+            // the first row with a given isbn claims the saved book, any repetition is a duplicate
+            if (savedIsbns.remove(isbn)) {
+                report.success();
+            } else {
+                report.failure(firstIndex + i, isbn, ErrorCode.DUPLICATED_ISBN.getMessage());
+            }
+        }
+    }
+
+    private List<Book> toEntities(List<BookDTO> chunk, String[] errors) {
+        List<Book> books = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            if (errors[i] == null) {
+                books.add(mapper.toEntity(chunk.get(i)));
+            }
+        }
+        return books;
+    }
+
+    private void exportNdjson(Book filter, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.setRootValueSeparator(null);
+        ObjectWriter writer = objectMapper.writerFor(BookDTO.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        service.export(filter, book -> {
+            try {
+                writer.writeValue(generator, mapper.toDto(book));
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        generator.flush();
+    }
+
+    private void exportCsv(Book filter, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("id,title,author,isbn\n");
+        service.export(filter, book -> {
+            try {
+                writer.write(String.valueOf(book.getId()));
+                writer.write(',');
+                writer.write(csv(book.getTitle()));
+                writer.write(',');
+                writer.write(csv(book.getAuthor()));
+                writer.write(',');
+                writer.write(csv(book.getIsbn()));
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    /**
+     * RFC 4180 field: quoted, with the quotes doubled, when it holds a comma, a quote or a line break.
+     */
+    static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + value.replace("\"", "\"\"") + '"';
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Strong validator of a book: changes whenever the row is updated.
+     */
+    static String etag(Book book) {
+        return "\"" + book.getVersion() + "\"";
+    }
+
+    /**
+     * Strong validator of a page: the position of the page, the total and the id and version of every row.
+     */
+    static String etag(Page<Book> page) {
+        long hash = page.getTotalElements();
+        for (Book book : page.getContent()) {
+            hash = 31 * hash + Objects.hashCode(book.getId());
+            hash = 31 * hash + Objects.hashCode(book.getVersion());
+        }
+        return "\"" + page.getNumber() + "-" + page.getSize() + "-" + Long.toHexString(hash) + "\"";
+    }
 
+    private static long lastModified(Book book) {
+        return book.getLastModified() == null ? -1 : book.getLastModified().toEpochMilli();
     }
 }
@@ -0,0 +1,68 @@
+package com.godofredo.libraryapi.api.resource;
+
+import com.godofredo.libraryapi.exception.BusinessException;
+import com.godofredo.libraryapi.exception.ErrorCode;
+import com.godofredo.libraryapi.model.entity.Book;
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token of the keyset listing. It carries the sort order and the
+ * (sort key, id) of the last book returned, so the next request can seek straight past it.
+ * A null sort key is encoded by leaving the key out.
+ */
+@Getter
+public class BookCursor {
+
+    private static final String SEPARATOR = "\n";
+
+    private final Sort.Order order;
+    private final Book after;
+
+    public BookCursor(Sort.Order order, Book after) {
+        this.order = order;
+        this.after = after;
+    }
+
+    public static BookCursor first(Sort sort) {
+        Sort.Order order = sort.stream().findFirst().orElse(Sort.Order.asc("id"));
+        return new BookCursor(order, null);
+    }
+
+    public static BookCursor after(Sort.Order order, Book last) {
+        String property = order.getProperty();
+        Book after = Book.builder()
+                .id(last.getId())
+                .title(property.equals("title") ? last.getTitle() : null)
+                .author(property.equals("author") ? last.getAuthor() : null)
+                .isbn(property.equals("isbn") ? last.getIsbn() : null)
+                .build();
+        return new BookCursor(order, after);
+    }
+
+    public static BookCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARATOR, 4);
+            Sort.Order order = new Sort.Order(Sort.Direction.fromString(parts[1]), parts[0]);
+            String key = parts.length > 3 ? parts[3] : null;
+            Book last = Book.builder().id(Long.valueOf(parts[2])).title(key).author(key).isbn(key).build();
+            return after(order, last);
+        } catch (RuntimeException e) {
+            throw new BusinessException(ErrorCode.INVALID_CURSOR);
+        }
+    }
+
+    public String encode() {
+        String property = order.getProperty();
+        String key = property.equals("title") ? after.getTitle()
+                : property.equals("author") ? after.getAuthor()
+                : property.equals("isbn") ? after.getIsbn()
+                : null;
+        String raw = property + SEPARATOR + order.getDirection() + SEPARATOR + after.getId()
+                + (key == null ? "" : SEPARATOR + key);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
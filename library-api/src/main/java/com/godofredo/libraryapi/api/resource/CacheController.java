@@ -0,0 +1,29 @@
+package com.godofredo.libraryapi.api.resource;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.godofredo.libraryapi.api.dto.CacheStatsDTO;
+import com.godofredo.libraryapi.service.cache.BookIsbnCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/caches")
+@RequiredArgsConstructor
+public class CacheController {
+
+    private final BookIsbnCache isbnCache;
+
+    @GetMapping("isbn")
+    public CacheStatsDTO isbn(){
+        CacheStats stats = isbnCache.stats();
+        return CacheStatsDTO.builder()
+                .size(isbnCache.size())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictionCount(stats.evictionCount())
+                .build();
+    }
+}
@@ -1,38 +1,84 @@
 package com.godofredo.libraryapi.api.resource;
 
+import com.godofredo.libraryapi.api.dto.LoanBasketDTO;
+import com.godofredo.libraryapi.api.dto.LoanBatchDTO;
 import com.godofredo.libraryapi.api.dto.LoanDTO;
+import com.godofredo.libraryapi.api.dto.PageDTO;
+import com.godofredo.libraryapi.api.mapper.LoanMapper;
+import com.godofredo.libraryapi.api.validation.RequestValidator;
+import com.godofredo.libraryapi.exception.BusinessException;
+import com.godofredo.libraryapi.exception.ErrorCode;
+import com.godofredo.libraryapi.metrics.QueryBudget;
 import com.godofredo.libraryapi.model.entity.Book;
 import com.godofredo.libraryapi.model.entity.Loan;
 import com.godofredo.libraryapi.service.BookService;
+import com.godofredo.libraryapi.service.LoanBatchItem;
 import com.godofredo.libraryapi.service.LoanService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/loans")
+@Profile("!reactive")
 @RequiredArgsConstructor
 public class LoanController {
 
     private final LoanService loanService;
     private final BookService bookService;
+    private final LoanMapper mapper;
 
+    // isbn lookup, book row lock, active loan check, insert and the availability select and write,
+    // plus the loan sequence every 50 loans
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
+    @QueryBudget(8)
     public Long create(@RequestBody LoanDTO loanDTO){
         Book book = bookService
                 .getBookByIsbn(loanDTO.getIsbn())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Book not found for passed isbn"));
-        Loan entity = Loan.builder()
-                        .book(book)
-                        .customer(loanDTO.getCustomer())
-                        .loanDate(LocalDate.now())
-                        .build();
+                .orElseThrow(() -> new BusinessException(ErrorCode.ISBN_NOT_FOUND));
+        Loan entity = mapper.toEntity(loanDTO, book, LocalDate.now());
 
         entity = loanService.save(entity);
         return entity.getId();
     }
+
+    @PostMapping("batch")
+    public LoanBatchDTO checkout(@RequestBody LoanBasketDTO basket){
+        RequestValidator.validateCheckout(basket);
+        return report(loanService.checkout(basket.getCustomer(), basket.getIsbns(), LocalDate.now()));
+    }
+
+    @PostMapping("batch/return")
+    public LoanBatchDTO giveBack(@RequestBody LoanBasketDTO basket){
+        RequestValidator.validateReturn(basket);
+        return report(loanService.giveBack(basket.getIsbns()));
+    }
+
+    @GetMapping("overdue")
+    public PageDTO<LoanDTO> overdue(Pageable pageRequest){
+        Page<Loan> result = loanService.getOverdue(LocalDate.now(), pageRequest);
+        List<LoanDTO> list = result.getContent().stream().map(mapper::toDto).collect(Collectors.toList());
+        return PageDTO.of(list, result);
+    }
+
+    private static LoanBatchDTO report(List<LoanBatchItem> items) {
+        LoanBatchDTO report = new LoanBatchDTO();
+        for (int i = 0; i < items.size(); i++) {
+            LoanBatchItem item = items.get(i);
+            if (item.isSuccess()) {
+                report.success(i, item.getIsbn(), item.getLoan().getId());
+            } else {
+                report.failure(i, item.getIsbn(), item.getError());
+            }
+        }
+        return report;
+    }
 }
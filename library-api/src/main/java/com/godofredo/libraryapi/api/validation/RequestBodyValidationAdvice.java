@@ -0,0 +1,36 @@
+package com.godofredo.libraryapi.api.validation;
+
+import com.godofredo.libraryapi.api.BookDTO;
+import com.godofredo.libraryapi.api.dto.LoanDTO;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.lang.reflect.Type;
+
+/**
+ * Validates the book and loan bodies with {@link RequestValidator} as soon as they are read, so an
+ * invalid body is rejected while the arguments are resolved, before the handler is dispatched.
+ */
+@ControllerAdvice
+public class RequestBodyValidationAdvice extends RequestBodyAdviceAdapter {
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return targetType == BookDTO.class || targetType == LoanDTO.class;
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter,
+                                Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+        if (body instanceof BookDTO) {
+            RequestValidator.validate((BookDTO) body);
+        } else if (body instanceof LoanDTO) {
+            RequestValidator.validate((LoanDTO) body);
+        }
+        return body;
+    }
+}
@@ -0,0 +1,107 @@
+package com.godofredo.libraryapi.api.validation;
+
+import com.godofredo.libraryapi.api.BookDTO;
+import com.godofredo.libraryapi.api.dto.LoanBasketDTO;
+import com.godofredo.libraryapi.api.dto.LoanDTO;
+import com.godofredo.libraryapi.api.exception.ApiErrors;
+import com.godofredo.libraryapi.api.exception.InvalidRequestException;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks the required fields of the book, loan and basket bodies by hand instead of through Bean
+ * Validation. Each combination of missing fields answers with the same prebuilt {@link ApiErrors},
+ * so a rejected body allocates nothing but the exception.
+ */
+public final class RequestValidator {
+
+    static final String TITLE_REQUIRED = "Title is required";
+    static final String AUTHOR_REQUIRED = "Author is required";
+    static final String ISBN_REQUIRED = "Isbn is required";
+    static final String CUSTOMER_REQUIRED = "Customer is required";
+    static final String ISBNS_REQUIRED = "Isbns are required";
+
+    private static final ApiErrors[] BOOK_ERRORS = errors(TITLE_REQUIRED, AUTHOR_REQUIRED, ISBN_REQUIRED);
+    private static final ApiErrors[] LOAN_ERRORS = errors(ISBN_REQUIRED, CUSTOMER_REQUIRED);
+    private static final ApiErrors[] BASKET_ERRORS = errors(ISBNS_REQUIRED, CUSTOMER_REQUIRED);
+
+    private RequestValidator() {
+    }
+
+    /**
+     * @return the errors of the book, or null when it is valid
+     */
+    public static ApiErrors check(BookDTO book) {
+        int missing = missing(book.getTitle(), 0) | missing(book.getAuthor(), 1) | missing(book.getIsbn(), 2);
+        return BOOK_ERRORS[missing];
+    }
+
+    /**
+     * @return the errors of the loan, or null when it is valid
+     */
+    public static ApiErrors check(LoanDTO loan) {
+        int missing = missing(loan.getIsbn(), 0) | missing(loan.getCustomer(), 1);
+        return LOAN_ERRORS[missing];
+    }
+
+    /**
+     * @return the errors of the basket to check out, or null when it is valid
+     */
+    public static ApiErrors checkCheckout(LoanBasketDTO basket) {
+        return BASKET_ERRORS[missing(basket.getIsbns(), 0) | missing(basket.getCustomer(), 1)];
+    }
+
+    /**
+     * @return the errors of the basket to return, which needs no customer, or null when it is valid
+     */
+    public static ApiErrors checkReturn(LoanBasketDTO basket) {
+        return BASKET_ERRORS[missing(basket.getIsbns(), 0)];
+    }
+
+    public static void validate(BookDTO book) {
+        throwIfInvalid(check(book));
+    }
+
+    public static void validate(LoanDTO loan) {
+        throwIfInvalid(check(loan));
+    }
+
+    public static void validateCheckout(LoanBasketDTO basket) {
+        throwIfInvalid(checkCheckout(basket));
+    }
+
+    public static void validateReturn(LoanBasketDTO basket) {
+        throwIfInvalid(checkReturn(basket));
+    }
+
+    private static void throwIfInvalid(ApiErrors errors) {
+        if (errors != null) {
+            throw new InvalidRequestException(errors);
+        }
+    }
+
+    private static int missing(String value, int field) {
+        return StringUtils.isEmpty(value) ? 1 << field : 0;
+    }
+
+    private static int missing(List<String> values, int field) {
+        return CollectionUtils.isEmpty(values) ? 1 << field : 0;
+    }
+
+    private static ApiErrors[] errors(String... messages) {
+        ApiErrors[] errors = new ApiErrors[1 << messages.length];
+        for (int missing = 1; missing < errors.length; missing++) {
+            List<String> list = new ArrayList<>(messages.length);
+            for (int field = 0; field < messages.length; field++) {
+                if ((missing & 1 << field) != 0) {
+                    list.add(messages[field]);
+                }
+            }
+            errors[missing] = new ApiErrors(list);
+        }
+        return errors;
+    }
+}
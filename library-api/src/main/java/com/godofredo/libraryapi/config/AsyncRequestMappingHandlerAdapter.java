@@ -0,0 +1,51 @@
+package com.godofredo.libraryapi.config;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ServletInvocableHandlerMethod;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs the handlers of the given controllers as if they had returned a {@link Callable}: arguments are
+ * resolved and validated on the container thread, the handler body runs on the MVC async executor and
+ * the container thread goes back to the pool while it does.
+ * <p>
+ * At most {@code maxPending} handlers run or wait for the executor, past that requests are rejected
+ * before going async, so the caller gets its answer right away.
+ */
+class AsyncRequestMappingHandlerAdapter extends RequestMappingHandlerAdapter {
+
+    private final Set<Class<?>> asyncControllers;
+    private final Semaphore pending;
+
+    AsyncRequestMappingHandlerAdapter(Set<Class<?>> asyncControllers, int maxPending) {
+        this.asyncControllers = asyncControllers;
+        this.pending = new Semaphore(maxPending);
+    }
+
+    @Override
+    protected ServletInvocableHandlerMethod createInvocableHandlerMethod(HandlerMethod handlerMethod) {
+        if (!asyncControllers.contains(handlerMethod.getBeanType())) {
+            return super.createInvocableHandlerMethod(handlerMethod);
+        }
+        return new ServletInvocableHandlerMethod(handlerMethod) {
+            @Override
+            protected Object doInvoke(Object... args) {
+                if (!pending.tryAcquire()) {
+                    throw new RejectedExecutionException("Async request executor is full");
+                }
+                return (Callable<Object>) () -> {
+                    try {
+                        return super.doInvoke(args);
+                    } finally {
+                        pending.release();
+                    }
+                };
+            }
+        };
+    }
+}
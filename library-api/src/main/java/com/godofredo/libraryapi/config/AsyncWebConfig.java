@@ -0,0 +1,67 @@
+package com.godofredo.libraryapi.config;
+
+import com.godofredo.libraryapi.api.resource.BookController;
+import com.godofredo.libraryapi.api.resource.LoanController;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * Opt-in mode, {@code library.web.async.enabled=true}, where the book and loan handlers run on a bounded
+ * executor instead of the Tomcat request threads. A full executor answers 503, a handler running longer
+ * than the timeout answers 503 too.
+ */
+@Configuration
+@ConditionalOnProperty(name = "library.web.async.enabled", havingValue = "true")
+public class AsyncWebConfig {
+
+    @Value("${library.web.async.pool-size:32}")
+    private int poolSize;
+
+    @Value("${library.web.async.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Bean
+    public ThreadPoolTaskExecutor webAsyncExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("web-async-");
+        return executor;
+    }
+
+    @Bean
+    public WebMvcRegistrations asyncWebMvcRegistrations() {
+        return new WebMvcRegistrations() {
+            @Override
+            public RequestMappingHandlerAdapter getRequestMappingHandlerAdapter() {
+                return new AsyncRequestMappingHandlerAdapter(
+                        new HashSet<>(Arrays.asList(BookController.class, LoanController.class)),
+                        poolSize + queueCapacity);
+            }
+        };
+    }
+
+    @Bean
+    public WebMvcConfigurer asyncSupportConfigurer(ThreadPoolTaskExecutor webAsyncExecutor,
+                                                   @Value("${library.web.async.timeout:10s}") Duration timeout) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.setTaskExecutor(webAsyncExecutor);
+                configurer.setDefaultTimeout(timeout.toMillis());
+            }
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package com.godofredo.libraryapi.config;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.io.IOException;
+
+@Configuration
+public class CacheConfig {
+
+    /**
+     * JCache manager of the Hibernate second level cache, from the hibernate.javax.cache provider and
+     * class path uri. Its own class loader keeps each application context on its own caches.
+     */
+    @Bean
+    public CacheManager hibernateCacheManager(
+            @Value("${spring.jpa.properties.hibernate.javax.cache.provider}") String provider,
+            @Value("${spring.jpa.properties.hibernate.javax.cache.uri}") String config) throws IOException {
+        ClassLoader classLoader = new ClassLoader(getClass().getClassLoader()) { };
+        return Caching.getCachingProvider(provider)
+                .getCacheManager(new ClassPathResource(config).getURI(), classLoader);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
@@ -0,0 +1,39 @@
+package com.godofredo.libraryapi.config;
+
+import com.godofredo.libraryapi.service.journal.EventJournal;
+import com.godofredo.libraryapi.service.journal.FsyncPolicy;
+import com.godofredo.libraryapi.service.journal.JournalRecorder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * The journal of the catalog changes, {@code library.journal.enabled=true}, see {@link EventJournal}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "library.journal.enabled", havingValue = "true")
+public class JournalConfig {
+
+    @Bean(destroyMethod = "close")
+    public EventJournal eventJournal(@Value("${library.journal.dir:journal}") String dir,
+                                     @Value("${library.journal.segment-size:64MB}") DataSize segmentSize,
+                                     @Value("${library.journal.fsync:INTERVAL}") FsyncPolicy fsyncPolicy,
+                                     @Value("${library.journal.fsync-interval:1s}") Duration fsyncInterval,
+                                     @Value("${library.journal.max-batch:1000}") int maxBatch,
+                                     @Value("${library.journal.queue-capacity:65536}") int queueCapacity,
+                                     @Value("${library.journal.append-timeout:100ms}") Duration appendTimeout) throws IOException {
+        return new EventJournal(Paths.get(dir), Math.toIntExact(segmentSize.toBytes()), fsyncPolicy, fsyncInterval,
+                maxBatch, queueCapacity, appendTimeout);
+    }
+
+    @Bean
+    public JournalRecorder journalRecorder(EventJournal journal) {
+        return new JournalRecorder(journal);
+    }
+}
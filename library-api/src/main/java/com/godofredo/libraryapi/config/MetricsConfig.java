@@ -0,0 +1,45 @@
+package com.godofredo.libraryapi.config;
+
+import com.godofredo.libraryapi.metrics.QueryCountInspector;
+import com.godofredo.libraryapi.metrics.QueryCountInterceptor;
+import com.godofredo.libraryapi.metrics.ServiceMetricsAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public ServiceMetricsAspect serviceMetricsAspect(MeterRegistry registry) {
+        return new ServiceMetricsAspect(registry);
+    }
+
+    @Bean
+    public QueryCountInspector queryCountInspector() {
+        return new QueryCountInspector();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCountCustomizer(QueryCountInspector inspector) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+    }
+
+    @Bean
+    public WebMvcConfigurer queryCountConfigurer(QueryCountInspector inspector, MeterRegistry registry,
+                                                 @Value("${library.queries.budget.default:0}") int defaultBudget,
+                                                 @Value("${library.queries.budget.enforce:false}") boolean enforce) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry interceptors) {
+                interceptors.addInterceptor(new QueryCountInterceptor(inspector, registry, defaultBudget, enforce))
+                        .addPathPatterns("/api/**");
+            }
+        };
+    }
+}
@@ -0,0 +1,43 @@
+package com.godofredo.libraryapi.config;
+
+import com.godofredo.libraryapi.api.admission.RateLimiter;
+import com.godofredo.libraryapi.api.admission.WriteAdmissionInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Rate limit per client and cap of in-flight writes on the book and loan write endpoints, see
+ * {@link WriteAdmissionInterceptor}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "library.writes.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class WriteAdmissionConfig implements WebMvcConfigurer {
+
+    private final RateLimiter rateLimiter;
+    private final WriteAdmissionInterceptor interceptor;
+
+    public WriteAdmissionConfig(@Value("${library.writes.rate-limit.burst:100}") int burst,
+                                @Value("${library.writes.rate-limit.refill-per-second:50}") double refillPerSecond,
+                                @Value("${library.writes.rate-limit.max-clients:100000}") int maxClients,
+                                @Value("${library.writes.max-in-flight:10}") int maxInFlight,
+                                @Value("${library.writes.acquire-timeout:500ms}") Duration acquireTimeout) {
+        this.rateLimiter = new RateLimiter(burst, refillPerSecond, maxClients);
+        this.interceptor = new WriteAdmissionInterceptor(rateLimiter, maxInFlight, acquireTimeout.toMillis());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(interceptor).addPathPatterns("/api/books/**", "/api/loans/**");
+    }
+
+    @Scheduled(fixedDelayString = "${library.writes.rate-limit.evict-interval:PT1M}")
+    public void evictIdleClients() {
+        rateLimiter.evictIdle();
+    }
+}
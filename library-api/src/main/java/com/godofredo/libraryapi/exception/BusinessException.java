@@ -1,7 +1,24 @@
 package com.godofredo.libraryapi.exception;
 
+/**
+ * A rejected request, not a bug: it carries no stack trace, which would cost more to fill in
+ * than the rest of the error response.
+ */
 public class BusinessException extends RuntimeException{
+
+    private final ErrorCode code;
+
     public BusinessException(String s) {
-        super(s);
+        super(s, null, false, false);
+        this.code = null;
+    }
+
+    public BusinessException(ErrorCode code) {
+        super(code.getMessage(), null, false, false);
+        this.code = code;
+    }
+
+    public ErrorCode getCode() {
+        return code;
     }
 }
@@ -0,0 +1,41 @@
+package com.godofredo.libraryapi.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * The fixed business errors of the api, with the message and status they answer with.
+ */
+public enum ErrorCode {
+
+    DUPLICATED_ISBN(HttpStatus.BAD_REQUEST, "Duplicated Isbn"),
+    BOOK_NOT_FOUND(HttpStatus.BAD_REQUEST, "Book not found"),
+    BOOK_ALREADY_LOANED(HttpStatus.BAD_REQUEST, "Book already loaned"),
+    BOOK_NOT_LOANED(HttpStatus.BAD_REQUEST, "Book not loaned"),
+    ISBN_NOT_FOUND(HttpStatus.BAD_REQUEST, "Book not found for passed isbn"),
+    INVALID_CURSOR(HttpStatus.BAD_REQUEST, "Invalid cursor"),
+    INVALID_SORT_PROPERTY(HttpStatus.BAD_REQUEST, "Invalid sort property"),
+    TOO_MANY_ISBNS(HttpStatus.BAD_REQUEST, "Too many isbns"),
+    TOO_MANY_IDS(HttpStatus.BAD_REQUEST, "Too many ids"),
+    CONFLICTING_PARAMETERS(HttpStatus.BAD_REQUEST, "Pass only one of ids, isbns, q and cursor"),
+    UNKNOWN_BOOK(HttpStatus.NOT_FOUND, "No book with this id"),
+    BOOK_MODIFIED(HttpStatus.PRECONDITION_FAILED, "Book was modified"),
+    BOOK_HAS_LOANS(HttpStatus.CONFLICT, "Book has loans"),
+    CONCURRENT_MODIFICATION(HttpStatus.CONFLICT, "Modified concurrently, retry"),
+    TOO_MANY_REQUESTS(HttpStatus.TOO_MANY_REQUESTS, "Too many requests, retry later");
+
+    private final HttpStatus status;
+    private final String message;
+
+    ErrorCode(HttpStatus status, String message) {
+        this.status = status;
+        this.message = message;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
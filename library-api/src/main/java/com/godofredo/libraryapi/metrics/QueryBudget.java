@@ -0,0 +1,19 @@
+package com.godofredo.libraryapi.metrics;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Most SQL statements a handler may run per request, enforced by {@link QueryCountInterceptor}.
+ * Handlers without it get {@code library.queries.budget.default}.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    int value();
+}
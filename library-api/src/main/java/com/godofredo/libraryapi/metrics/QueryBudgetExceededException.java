@@ -0,0 +1,11 @@
+package com.godofredo.libraryapi.metrics;
+
+/**
+ * Thrown by {@link QueryCountInspector} when a request prepares one statement more than its budget.
+ */
+public class QueryBudgetExceededException extends IllegalStateException {
+
+    public QueryBudgetExceededException(long budget, String sql) {
+        super("Query budget of " + budget + " statements exceeded by: " + sql);
+    }
+}
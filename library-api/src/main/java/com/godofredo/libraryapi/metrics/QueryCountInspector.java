@@ -0,0 +1,68 @@
+package com.godofredo.libraryapi.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread and, between
+ * {@link #begin(long)} and {@link #reset()}, refuses to prepare more than the given limit.
+ * <p>
+ * The count of a request that moves to another thread goes with it: {@link #begin(long)} answers
+ * the {@link Count}, which the other thread {@link #attach}es while it works for the request.
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    private final ThreadLocal<Count> count = ThreadLocal.withInitial(() -> new Count(0));
+
+    @Override
+    public String inspect(String sql) {
+        Count current = count.get();
+        if (++current.statements > current.limit && current.limit > 0) {
+            throw new QueryBudgetExceededException(current.limit, sql);
+        }
+        return sql;
+    }
+
+    /**
+     * Restarts the count of the current thread with a limit, 0 for none.
+     */
+    public Count begin(long limit) {
+        Count started = new Count(limit);
+        count.set(started);
+        return started;
+    }
+
+    /**
+     * Counts the statements of the current thread on {@code started}, until {@link #reset()}.
+     */
+    public void attach(Count started) {
+        count.set(started);
+    }
+
+    /**
+     * Detaches the current thread from its count and restarts it with no limit.
+     */
+    public void reset() {
+        count.remove();
+    }
+
+    public long current() {
+        return count.get().statements;
+    }
+
+    /**
+     * Statements counted for one request, and their limit.
+     */
+    public static final class Count {
+
+        private final long limit;
+        private long statements;
+
+        private Count(long limit) {
+            this.limit = limit;
+        }
+
+        public long getStatements() {
+            return statements;
+        }
+    }
+}
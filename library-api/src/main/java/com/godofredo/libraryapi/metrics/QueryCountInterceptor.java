@@ -0,0 +1,106 @@
+package com.godofredo.libraryapi.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.Callable;
+
+/**
+ * Records how many SQL statements each request ran, as the {@code library.requests.queries}
+ * summary tagged with the request method and uri pattern.
+ * <p>
+ * A request over the {@link QueryBudget} of its handler is logged, or, when {@code enforce} is
+ * set, fails at the first statement over the budget.
+ * <p>
+ * A handler running on the async executor counts on the request's {@link QueryCountInspector.Count},
+ * which the executor thread attaches for the time of the handler; the count is recorded after the
+ * dispatch that completes the request.
+ */
+public class QueryCountInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String METRIC = "library.requests.queries";
+
+    private static final String COUNT_ATTRIBUTE = QueryCountInterceptor.class.getName() + ".count";
+
+    private static final Logger log = LoggerFactory.getLogger(QueryCountInterceptor.class);
+
+    private final QueryCountInspector inspector;
+    private final MeterRegistry registry;
+    private final int defaultBudget;
+    private final boolean enforce;
+
+    public QueryCountInterceptor(QueryCountInspector inspector, MeterRegistry registry, int defaultBudget, boolean enforce) {
+        this.inspector = inspector;
+        this.registry = registry;
+        this.defaultBudget = defaultBudget;
+        this.enforce = enforce;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        QueryCountInspector.Count count = (QueryCountInspector.Count) request.getAttribute(COUNT_ATTRIBUTE);
+        if (request.getDispatcherType() == DispatcherType.ASYNC && count != null) {
+            inspector.attach(count);
+            return true;
+        }
+        QueryCountInspector.Count started = inspector.begin(enforce ? budget(handler) : 0);
+        request.setAttribute(COUNT_ATTRIBUTE, started);
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(COUNT_ATTRIBUTE, new CallableProcessingInterceptor() {
+            @Override
+            public <T> void preProcess(NativeWebRequest webRequest, Callable<T> task) {
+                inspector.attach(started);
+            }
+
+            @Override
+            public <T> void postProcess(NativeWebRequest webRequest, Callable<T> task, Object concurrentResult) {
+                inspector.reset();
+            }
+        });
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        inspector.reset();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        long queries = inspector.current();
+        inspector.reset();
+        DistributionSummary.builder(METRIC)
+                .baseUnit("queries")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(registry)
+                .record(queries);
+
+        int budget = budget(handler);
+        if (budget > 0 && queries > budget) {
+            log.warn("{} {} ran {} SQL statements, over its budget of {}", request.getMethod(), uri, queries, budget);
+        }
+    }
+
+    private int budget(Object handler) {
+        if (handler instanceof HandlerMethod) {
+            QueryBudget budget = ((HandlerMethod) handler).getMethodAnnotation(QueryBudget.class);
+            if (budget != null) {
+                return budget.value();
+            }
+        }
+        return defaultBudget;
+    }
+}
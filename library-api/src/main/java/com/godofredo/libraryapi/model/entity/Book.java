@@ -4,19 +4,31 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
+import java.time.Instant;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(indexes = {
+        @Index(name = Book.ISBN_INDEX, columnList = "normalizedIsbn", unique = true),
+        @Index(name = "ix_book_title", columnList = "title, BookId"),
+        @Index(name = "ix_book_author", columnList = "author, BookId")
+})
 public class Book {
+    public static final String ISBN_INDEX = "ux_book_isbn";
+
     @Id
     @Column(name = "BookId")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
     private Long id;
     @Column
     private String title;
@@ -24,4 +36,34 @@ public class Book {
     private String author;
     @Column
     private String isbn;
+    @Column(nullable = false)
+    private String normalizedIsbn;
+    @Version
+    private Long version;
+    @Column
+    private Instant lastModified;
+
+    @PrePersist
+    @PreUpdate
+    void beforeSave() {
+        this.normalizedIsbn = normalizeIsbn(isbn);
+        this.lastModified = Instant.now();
+    }
+
+    /**
+     * Lookup form of an isbn: without hyphens and spaces, check digit X in upper case.
+     */
+    public static String normalizeIsbn(String isbn) {
+        if (isbn == null) {
+            return null;
+        }
+        StringBuilder normalized = new StringBuilder(isbn.length());
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            if (c != '-' && !Character.isWhitespace(c)) {
+                normalized.append(Character.toUpperCase(c));
+            }
+        }
+        return normalized.toString();
+    }
 }
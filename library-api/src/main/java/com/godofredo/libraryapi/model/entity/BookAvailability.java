@@ -0,0 +1,54 @@
+package com.godofredo.libraryapi.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Loan totals of a book, kept up to date by the loan service in the transaction of each checkout
+ * and return, so reading them never aggregates the loan table. A book that was never loaned has
+ * no row.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+public class BookAvailability {
+
+    @Id
+    @Column(name = "book_id")
+    private Long bookId;
+    @Column(nullable = false)
+    private int activeLoans;
+    @Column(nullable = false)
+    private long totalCheckouts;
+    @Column
+    private LocalDate lastLoanDate;
+    @Version
+    private Long version;
+
+    public static BookAvailability of(Long bookId) {
+        return BookAvailability.builder().bookId(bookId).build();
+    }
+
+    public void checkout(LocalDate loanDate) {
+        activeLoans++;
+        totalCheckouts++;
+        if (loanDate != null && (lastLoanDate == null || loanDate.isAfter(lastLoanDate))) {
+            lastLoanDate = loanDate;
+        }
+    }
+
+    public void giveBack() {
+        activeLoans--;
+    }
+
+    public boolean isAvailable() {
+        return activeLoans == 0;
+    }
+}
@@ -5,17 +5,33 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import javax.persistence.*;
 import java.time.LocalDate;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
+@Entity
+@Table(indexes = {
+        @Index(name = "ix_loan_book_returned", columnList = "book_id, returned"),
+        @Index(name = Loan.OVERDUE_INDEX, columnList = "returned, loanDate, id")
+})
 public class Loan {
+    public static final String OVERDUE_INDEX = "ix_loan_returned_date";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "loan_seq")
+    @SequenceGenerator(name = "loan_seq", sequenceName = "loan_seq", allocationSize = 50)
     private Long id;
+    @Column(length = 100)
     private String customer;
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "book_id")
     private Book book;
+    @Column
     private LocalDate loanDate;
+    @Column(nullable = false)
     private Boolean returned;
 
 }
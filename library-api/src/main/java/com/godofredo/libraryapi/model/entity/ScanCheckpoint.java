@@ -0,0 +1,33 @@
+package com.godofredo.libraryapi.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * High-water mark of an incremental loan scan: the (loanDate, id) of the last loan it processed.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+public class ScanCheckpoint {
+    public static final LocalDate START = LocalDate.of(1970, 1, 1);
+
+    @Id
+    @Column(length = 50)
+    private String name;
+    @Column(nullable = false)
+    private LocalDate loanDate;
+    @Column(nullable = false)
+    private Long loanId;
+
+    public static ScanCheckpoint start(String name) {
+        return new ScanCheckpoint(name, START, 0L);
+    }
+}
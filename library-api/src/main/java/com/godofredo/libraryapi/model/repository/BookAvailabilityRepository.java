@@ -0,0 +1,30 @@
+package com.godofredo.libraryapi.model.repository;
+
+import com.godofredo.libraryapi.model.entity.BookAvailability;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface BookAvailabilityRepository extends JpaRepository<BookAvailability, Long> {
+
+    /**
+     * Each book of the isbns with its availability, null when it was never loaned.
+     */
+    @Query("select b, a from Book b left join BookAvailability a on a.bookId = b.id where b.normalizedIsbn in :isbns")
+    List<Object[]> findByNormalizedIsbnIn(@Param("isbns") Collection<String> normalizedIsbns);
+
+    /**
+     * The availability of every loaned book rebuilt from the loan table, as
+     * (bookId, activeLoans, totalCheckouts, lastLoanDate), in book id order.
+     */
+    @Query("select l.book.id, sum(case when l.returned = false then 1 else 0 end), count(l), max(l.loanDate) " +
+            "from Loan l group by l.book.id order by l.book.id")
+    List<Object[]> aggregateLoans();
+
+    @Query("select l.book.id, sum(case when l.returned = false then 1 else 0 end), count(l), max(l.loanDate) " +
+            "from Loan l where l.book.id = :bookId group by l.book.id")
+    List<Object[]> aggregateLoans(@Param("bookId") Long bookId);
+}
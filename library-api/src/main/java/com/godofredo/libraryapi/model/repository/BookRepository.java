@@ -2,11 +2,55 @@ package com.godofredo.libraryapi.model.repository;
 
 import com.godofredo.libraryapi.model.entity.Book;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface BookRepository extends JpaRepository <Book, Long>{
+public interface BookRepository extends JpaRepository <Book, Long>, BookRepositoryCustom {
+    String ISBN_QUERY_REGION = "book-by-isbn";
+
     boolean existsByIsbn(String isbn);
 
+    @QueryHints({
+            @QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.annotations.QueryHints.CACHE_REGION, value = ISBN_QUERY_REGION)
+    })
     Optional<Book> findByIsbn(String isbn);
+
+    @QueryHints({
+            @QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.annotations.QueryHints.CACHE_REGION, value = ISBN_QUERY_REGION)
+    })
+    Optional<Book> findByNormalizedIsbn(String normalizedIsbn);
+
+    List<Book> findByNormalizedIsbnIn(Collection<String> normalizedIsbns);
+
+    @Query("select b.normalizedIsbn from Book b where b.normalizedIsbn in :isbns")
+    List<String> findExistingIsbns(@Param("isbns") Collection<String> normalizedIsbns);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Book b where b.id = :id")
+    Optional<Book> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Locks the books in id order, so that two baskets sharing books can't deadlock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Book b where b.normalizedIsbn in :isbns order by b.id")
+    List<Book> findByNormalizedIsbnInForUpdate(@Param("isbns") Collection<String> normalizedIsbns);
+
+    @Query("select case when count(l) > 0 then true else false end from Loan l where l.book.id = :id")
+    boolean hasLoans(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from BookAvailability a where a.bookId = :id")
+    int deleteAvailability(@Param("id") Long id);
 }
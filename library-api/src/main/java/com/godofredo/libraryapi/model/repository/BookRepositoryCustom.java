@@ -0,0 +1,26 @@
+package com.godofredo.libraryapi.model.repository;
+
+import com.godofredo.libraryapi.model.entity.Book;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface BookRepositoryCustom {
+
+    /**
+     * Keyset (seek) query: the books matching the filter that come after {@code after} when ordered by
+     * {@code order} and then by id. The filter has the same semantics as the Example used by
+     * {@code find}: null values are ignored, strings match ignoring case and containing the value.
+     *
+     * @param after the last book of the previous page, holding its id and sort key, or null for the first page
+     */
+    List<Book> findAfter(Book filter, Sort.Order order, Book after, int limit);
+
+    /**
+     * Hands every book matching the filter, in id order, to {@code consumer} from a forward only cursor.
+     * Rows are fetched {@code fetchSize} at a time and detached after each batch, so memory does not grow
+     * with the result. Must run inside a transaction.
+     */
+    void scroll(Book filter, int fetchSize, Consumer<Book> consumer);
+}
@@ -0,0 +1,142 @@
+package com.godofredo.libraryapi.model.repository;
+
+import com.godofredo.libraryapi.model.entity.Book;
+import org.hibernate.CacheMode;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.data.domain.Sort;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+public class BookRepositoryCustomImpl implements BookRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Books without a sort key come before the others in ascending order and after them in descending
+     * order. They are read by a query of their own, in id order, so each query keeps a plain
+     * (key, id) ordering the indexes serve.
+     */
+    @Override
+    public List<Book> findAfter(Book filter, Sort.Order order, Book after, int limit) {
+        boolean ascending = order.isAscending();
+        if (order.getProperty().equals("id")) {
+            return seek(filter, order, after, false, limit);
+        }
+        boolean afterNull = after != null && sortKey(after, order.getProperty()) == null;
+        List<Book> books = new ArrayList<>(limit);
+        if (ascending && (after == null || afterNull)) {
+            books.addAll(seek(filter, order, after, true, limit));
+        }
+        if (books.size() < limit && (ascending || !afterNull)) {
+            books.addAll(seek(filter, order, afterNull ? null : after, false, limit - books.size()));
+        }
+        if (books.size() < limit && !ascending) {
+            books.addAll(seek(filter, order, afterNull ? after : null, true, limit - books.size()));
+        }
+        return books;
+    }
+
+    /**
+     * The books past {@code after}, among the books with a null sort key, or else among the others.
+     */
+    private List<Book> seek(Book filter, Sort.Order order, Book after, boolean nullKeys, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Book> query = cb.createQuery(Book.class);
+        Root<Book> book = query.from(Book.class);
+
+        List<Predicate> predicates = filterPredicates(cb, book, filter);
+        Path<Long> id = book.get("id");
+        boolean ascending = order.isAscending();
+
+        if (order.getProperty().equals("id") || nullKeys) {
+            if (nullKeys) {
+                predicates.add(cb.isNull(book.get(order.getProperty())));
+            }
+            if (after != null) {
+                predicates.add(ascending ? cb.greaterThan(id, after.getId()) : cb.lessThan(id, after.getId()));
+            }
+            query.orderBy(ascending ? cb.asc(id) : cb.desc(id));
+        } else {
+            Path<String> key = book.get(order.getProperty());
+            predicates.add(cb.isNotNull(key));
+            if (after != null) {
+                String lastKey = sortKey(after, order.getProperty());
+                predicates.add(ascending
+                        ? cb.or(cb.greaterThan(key, lastKey), cb.and(cb.equal(key, lastKey), cb.greaterThan(id, after.getId())))
+                        : cb.or(cb.lessThan(key, lastKey), cb.and(cb.equal(key, lastKey), cb.lessThan(id, after.getId()))));
+            }
+            query.orderBy(ascending ? cb.asc(key) : cb.desc(key), ascending ? cb.asc(id) : cb.desc(id));
+        }
+
+        query.where(predicates.toArray(new Predicate[0]));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public void scroll(Book filter, int fetchSize, Consumer<Book> consumer) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Book> query = cb.createQuery(Book.class);
+        Root<Book> book = query.from(Book.class);
+        query.where(filterPredicates(cb, book, filter).toArray(new Predicate[0]));
+        query.orderBy(cb.asc(book.get("id")));
+
+        try (Stream<Book> books = entityManager.createQuery(query)
+                .setHint(QueryHints.FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.READ_ONLY, true)
+                .setHint(QueryHints.CACHE_MODE, CacheMode.IGNORE)
+                .getResultStream()) {
+            int[] count = {0};
+            books.forEach(row -> {
+                consumer.accept(row);
+                if (++count[0] % fetchSize == 0) {
+                    entityManager.clear();
+                }
+            });
+        }
+    }
+
+    static List<Predicate> filterPredicates(CriteriaBuilder cb, Root<Book> book, Book filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter == null) {
+            return predicates;
+        }
+        if (filter.getId() != null) {
+            predicates.add(cb.equal(book.get("id"), filter.getId()));
+        }
+        addContaining(cb, book.get("title"), filter.getTitle(), predicates);
+        addContaining(cb, book.get("author"), filter.getAuthor(), predicates);
+        addContaining(cb, book.get("isbn"), filter.getIsbn(), predicates);
+        return predicates;
+    }
+
+    private static void addContaining(CriteriaBuilder cb, Path<String> path, String value, List<Predicate> predicates) {
+        if (value != null) {
+            String escaped = value.toLowerCase().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+            predicates.add(cb.like(cb.lower(path), "%" + escaped + "%", '\\'));
+        }
+    }
+
+    static String sortKey(Book book, String property) {
+        switch (property) {
+            case "title":
+                return book.getTitle();
+            case "author":
+                return book.getAuthor();
+            case "isbn":
+                return book.getIsbn();
+            default:
+                throw new IllegalArgumentException("Books can't be sorted by " + property);
+        }
+    }
+}
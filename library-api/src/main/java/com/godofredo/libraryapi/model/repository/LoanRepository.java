@@ -1,7 +1,39 @@
 package com.godofredo.libraryapi.model.repository;
 
+import com.godofredo.libraryapi.model.entity.Book;
 import com.godofredo.libraryapi.model.entity.Loan;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 
 public interface LoanRepository extends JpaRepository<Loan, Long> {
+
+    boolean existsByBookAndReturnedFalse(Book book);
+
+    @Query("select l.book.id from Loan l where l.book in :books and l.returned = false")
+    List<Long> findLoanedBookIds(@Param("books") Collection<Book> books);
+
+    @Query("select l from Loan l join fetch l.book b where b.normalizedIsbn in :isbns and l.returned = false")
+    List<Loan> findActiveByNormalizedIsbnIn(@Param("isbns") Collection<String> normalizedIsbns);
+
+    @Query("select l.customer from Loan l where l.book.id = :bookId and l.returned = false order by l.id")
+    List<String> findActiveCustomers(@Param("bookId") Long bookId);
+
+    @Query(value = "select l from Loan l join fetch l.book where l.returned = false and l.loanDate < :dueBefore",
+            countQuery = "select count(l) from Loan l where l.returned = false and l.loanDate < :dueBefore")
+    Page<Loan> findOverdue(@Param("dueBefore") LocalDate dueBefore, Pageable pageable);
+
+    /**
+     * Next chunk of overdue loans after the (loanDate, id) high-water mark, in index order.
+     */
+    @Query("select l from Loan l join fetch l.book where l.returned = false and l.loanDate < :dueBefore " +
+            "and (l.loanDate > :afterDate or (l.loanDate = :afterDate and l.id > :afterId)) order by l.loanDate, l.id")
+    List<Loan> findOverdueAfter(@Param("dueBefore") LocalDate dueBefore, @Param("afterDate") LocalDate afterDate,
+                                @Param("afterId") Long afterId, Pageable pageable);
 }
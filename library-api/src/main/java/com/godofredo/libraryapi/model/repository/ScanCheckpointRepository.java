@@ -0,0 +1,27 @@
+package com.godofredo.libraryapi.model.repository;
+
+import com.godofredo.libraryapi.model.entity.ScanCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.LockModeType;
+import java.util.Optional;
+
+public interface ScanCheckpointRepository extends JpaRepository<ScanCheckpoint, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from ScanCheckpoint c where c.name = :name")
+    Optional<ScanCheckpoint> findByNameForUpdate(@Param("name") String name);
+
+    /**
+     * Inserts the checkpoint, failing with a {@link org.springframework.dao.DataIntegrityViolationException}
+     * when it exists, unlike {@code save} which would overwrite it.
+     */
+    @Modifying
+    @Query(value = "insert into scan_checkpoint (name, loan_date, loan_id) values (:#{#c.name}, :#{#c.loanDate}, :#{#c.loanId})",
+            nativeQuery = true)
+    void insert(@Param("c") ScanCheckpoint checkpoint);
+}
@@ -0,0 +1,25 @@
+package com.godofredo.libraryapi.service;
+
+import com.godofredo.libraryapi.model.entity.BookAvailability;
+
+import java.util.List;
+import java.util.Map;
+
+public interface AvailabilityService {
+
+    /**
+     * Availability of the book, with no loans when it was never loaned.
+     */
+    BookAvailability getAvailability(Long bookId);
+
+    /**
+     * Customers holding the book, oldest loan first.
+     */
+    List<String> getBorrowers(Long bookId);
+
+    /**
+     * Availability of the books of the isbns, keyed by normalized isbn, in one query. Isbns of no
+     * book are absent.
+     */
+    Map<String, BookAvailability> getAvailability(List<String> isbns);
+}
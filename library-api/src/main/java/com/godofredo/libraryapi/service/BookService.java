@@ -3,8 +3,14 @@ package com.godofredo.libraryapi.service;
 import com.godofredo.libraryapi.model.entity.Book;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface BookService {
 
@@ -19,4 +25,22 @@ public interface BookService {
     Page<Book> find(Book filter, Pageable pageRequest);
 
     Optional<Book> getBookByIsbn(String isbn);
+
+    /**
+     * The books of the ids, by id. Ids of no book are missing from the map.
+     */
+    Map<Long, Book> getByIds(Collection<Long> ids);
+
+    /**
+     * The books of the isbns, by normalized isbn. Isbns of no book are missing from the map.
+     */
+    Map<String, Book> getByIsbns(Collection<String> isbns);
+
+    List<Book> saveAll(List<Book> books);
+
+    Slice<Book> findAfter(Book filter, Sort.Order order, Book after, int size);
+
+    Page<Book> search(String query, Pageable pageRequest);
+
+    void export(Book filter, Consumer<Book> consumer);
 }
@@ -0,0 +1,34 @@
+package com.godofredo.libraryapi.service;
+
+import com.godofredo.libraryapi.exception.ErrorCode;
+import com.godofredo.libraryapi.model.entity.Loan;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Outcome of one isbn of a checkout or return basket: the loan, or why it was refused.
+ */
+@Data
+@AllArgsConstructor
+public class LoanBatchItem {
+
+    private String isbn;
+    private Loan loan;
+    private String error;
+
+    public static LoanBatchItem success(String isbn, Loan loan) {
+        return new LoanBatchItem(isbn, loan, null);
+    }
+
+    public static LoanBatchItem failure(String isbn, String error) {
+        return new LoanBatchItem(isbn, null, error);
+    }
+
+    public static LoanBatchItem failure(String isbn, ErrorCode error) {
+        return failure(isbn, error.getMessage());
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
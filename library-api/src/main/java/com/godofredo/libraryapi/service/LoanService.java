@@ -1,14 +1,34 @@
 package com.godofredo.libraryapi.service;
 
 import com.godofredo.libraryapi.model.entity.Loan;
-import lombok.AllArgsConstructor;
-import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.util.List;
 
 
 public interface LoanService {
     Loan save(Loan loan);
 
+    /**
+     * Loans every available book of the basket to the customer, in one transaction.
+     *
+     * @return one outcome per isbn, in basket order
+     * @throws com.godofredo.libraryapi.exception.BusinessException when the basket has more than 1000 isbns
+     */
+    List<LoanBatchItem> checkout(String customer, List<String> isbns, LocalDate loanDate);
+
+    /**
+     * Closes the active loan of every book of the basket, in one transaction.
+     *
+     * @return one outcome per isbn, in basket order
+     * @throws com.godofredo.libraryapi.exception.BusinessException when the basket has more than 1000 isbns
+     */
+    List<LoanBatchItem> giveBack(List<String> isbns);
 
+    /**
+     * Loans not returned within the loan period, oldest first.
+     */
+    Page<Loan> getOverdue(LocalDate today, Pageable pageable);
 }
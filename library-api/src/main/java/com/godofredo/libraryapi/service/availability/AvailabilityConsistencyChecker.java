@@ -0,0 +1,108 @@
+package com.godofredo.libraryapi.service.availability;
+
+import com.godofredo.libraryapi.model.entity.BookAvailability;
+import com.godofredo.libraryapi.model.repository.BookAvailabilityRepository;
+import com.godofredo.libraryapi.model.repository.BookRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Rebuilds the availability of every book from the loan table and diffs it with the projection.
+ * <p>
+ * The rebuild is a snapshot, so a checkout committing meanwhile shows up as a diff. A repair
+ * therefore fixes each diff in its own transaction, under the row lock of the book, from a fresh
+ * aggregate of that book's loans.
+ */
+@Component
+public class AvailabilityConsistencyChecker {
+
+    private final BookAvailabilityRepository repository;
+    private final BookRepository bookRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public AvailabilityConsistencyChecker(BookAvailabilityRepository repository, BookRepository bookRepository,
+                                          PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.bookRepository = bookRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public List<AvailabilityDiff> check() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> {
+            Map<Long, BookAvailability> actual = new HashMap<>();
+            repository.findAll().forEach(row -> actual.put(row.getBookId(), row));
+
+            List<AvailabilityDiff> diffs = new ArrayList<>();
+            for (Object[] row : repository.aggregateLoans()) {
+                BookAvailability expected = expected(row);
+                BookAvailability found = actual.remove(expected.getBookId());
+                if (!matches(expected, found)) {
+                    diffs.add(new AvailabilityDiff(expected.getBookId(), expected, found));
+                }
+            }
+            // rows of books without any loan
+            actual.values().forEach(found -> diffs.add(new AvailabilityDiff(found.getBookId(), null, found)));
+            return diffs;
+        });
+    }
+
+    /**
+     * @return the diffs found and repaired
+     */
+    public List<AvailabilityDiff> repair() {
+        List<AvailabilityDiff> diffs = check();
+        for (AvailabilityDiff diff : diffs) {
+            transactionTemplate.execute(status -> {
+                repair(diff.getBookId());
+                return null;
+            });
+        }
+        return diffs;
+    }
+
+    private void repair(Long bookId) {
+        bookRepository.findByIdForUpdate(bookId);
+        List<Object[]> aggregate = repository.aggregateLoans(bookId);
+        BookAvailability row = repository.findById(bookId).orElse(null);
+        if (aggregate.isEmpty()) {
+            if (row != null) {
+                repository.delete(row);
+            }
+            return;
+        }
+        BookAvailability expected = expected(aggregate.get(0));
+        if (row == null) {
+            repository.save(expected);
+        } else {
+            row.setActiveLoans(expected.getActiveLoans());
+            row.setTotalCheckouts(expected.getTotalCheckouts());
+            row.setLastLoanDate(expected.getLastLoanDate());
+        }
+    }
+
+    private static BookAvailability expected(Object[] row) {
+        return BookAvailability.builder()
+                .bookId((Long) row[0])
+                .activeLoans(((Number) row[1]).intValue())
+                .totalCheckouts(((Number) row[2]).longValue())
+                .lastLoanDate((LocalDate) row[3])
+                .build();
+    }
+
+    private static boolean matches(BookAvailability expected, BookAvailability actual) {
+        return actual != null
+                && expected.getActiveLoans() == actual.getActiveLoans()
+                && expected.getTotalCheckouts() == actual.getTotalCheckouts()
+                && Objects.equals(expected.getLastLoanDate(), actual.getLastLoanDate());
+    }
+}
@@ -0,0 +1,18 @@
+package com.godofredo.libraryapi.service.availability;
+
+import com.godofredo.libraryapi.model.entity.BookAvailability;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A book whose availability row disagrees with its loans: what the loan table says, and what the
+ * row says, null when it is missing.
+ */
+@Data
+@AllArgsConstructor
+public class AvailabilityDiff {
+
+    private Long bookId;
+    private BookAvailability expected;
+    private BookAvailability actual;
+}
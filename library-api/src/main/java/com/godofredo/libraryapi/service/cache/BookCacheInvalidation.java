@@ -0,0 +1,17 @@
+package com.godofredo.libraryapi.service.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A book written by the instance {@code origin}, whose cached copies the other instances must drop.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookCacheInvalidation {
+    private String origin;
+    private Long bookId;
+    private String isbn;
+}
@@ -0,0 +1,13 @@
+package com.godofredo.libraryapi.service.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts book cache invalidations to every application instance, the sender included.
+ */
+public interface BookCacheInvalidationBus {
+
+    void publish(BookCacheInvalidation invalidation);
+
+    void subscribe(Consumer<BookCacheInvalidation> subscriber);
+}
@@ -0,0 +1,57 @@
+package com.godofredo.libraryapi.service.cache;
+
+import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.model.repository.BookRepository;
+import com.godofredo.libraryapi.service.event.BookChangedEvent;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.UUID;
+
+/**
+ * Keeps the book caches of this instance coherent with the writes of the other instances. Local writes
+ * already update the second level cache, they are only broadcast; invalidations from other instances
+ * evict the book row and the isbn query results. Every invalidation, this instance's included, evicts
+ * the isbn cache entry after the commit of the write.
+ */
+@Component
+public class BookCacheInvalidator {
+
+    private final String origin = UUID.randomUUID().toString();
+    private final BookCacheInvalidationBus bus;
+    private final Cache secondLevelCache;
+    private final BookIsbnCache isbnCache;
+
+    public BookCacheInvalidator(BookCacheInvalidationBus bus, EntityManagerFactory entityManagerFactory,
+                                BookIsbnCache isbnCache) {
+        this.bus = bus;
+        this.secondLevelCache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        this.isbnCache = isbnCache;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        bus.subscribe(this::onInvalidation);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        Book book = event.getBook();
+        bus.publish(new BookCacheInvalidation(origin, book.getId(), book.getIsbn()));
+    }
+
+    void onInvalidation(BookCacheInvalidation invalidation) {
+        isbnCache.invalidate(invalidation.getIsbn());
+        if (origin.equals(invalidation.getOrigin())) {
+            return;
+        }
+        if (invalidation.getBookId() != null) {
+            secondLevelCache.evictEntityData(Book.class, invalidation.getBookId());
+        }
+        secondLevelCache.evictQueryRegion(BookRepository.ISBN_QUERY_REGION);
+    }
+}
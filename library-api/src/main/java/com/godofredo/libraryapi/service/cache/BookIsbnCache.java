@@ -0,0 +1,73 @@
+package com.godofredo.libraryapi.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.godofredo.libraryapi.model.entity.Book;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded, time limited cache of isbn lookups, keyed by the normalized isbn.
+ * Unknown isbns are cached too, as an empty Optional. Every read answers its own copy of the
+ * book, so a caller modifying it does not change the cached one.
+ */
+public class BookIsbnCache implements MeterBinder {
+
+    private final Cache<String, Optional<Book>> cache;
+
+    public BookIsbnCache(long maximumSize, Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<Book> get(String isbn, Function<String, Optional<Book>> loader) {
+        return copy(cache.get(Book.normalizeIsbn(isbn), loader));
+    }
+
+    /**
+     * Loads a normalized isbn into the cache, if absent, without counting a hit or a miss.
+     * A concurrent {@link #invalidate} waits for the load and removes its result.
+     */
+    public Optional<Book> load(String normalizedIsbn, Function<String, Optional<Book>> loader) {
+        return copy(cache.asMap().computeIfAbsent(normalizedIsbn, loader));
+    }
+
+    /**
+     * @return the cached lookup, or null when the isbn is not in the cache
+     */
+    public Optional<Book> getIfPresent(String isbn) {
+        return isbn == null ? null : copy(cache.getIfPresent(Book.normalizeIsbn(isbn)));
+    }
+
+    private static Optional<Book> copy(Optional<Book> lookup) {
+        return lookup == null ? null : lookup.map(book -> book.toBuilder().build());
+    }
+
+    public void invalidate(String isbn) {
+        if (isbn != null) {
+            cache.invalidate(Book.normalizeIsbn(isbn));
+        }
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "books.isbn");
+    }
+}
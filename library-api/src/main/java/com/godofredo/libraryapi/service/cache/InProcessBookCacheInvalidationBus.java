@@ -0,0 +1,26 @@
+package com.godofredo.libraryapi.service.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Stand-in for a message broker: delivers synchronously to the subscribers of this JVM. Application
+ * contexts that share an instance behave like separate instances on the same topic.
+ */
+public class InProcessBookCacheInvalidationBus implements BookCacheInvalidationBus {
+
+    private final List<Consumer<BookCacheInvalidation>> subscribers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(BookCacheInvalidation invalidation) {
+        for (Consumer<BookCacheInvalidation> subscriber : subscribers) {
+            subscriber.accept(invalidation);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<BookCacheInvalidation> subscriber) {
+        subscribers.add(subscriber);
+    }
+}
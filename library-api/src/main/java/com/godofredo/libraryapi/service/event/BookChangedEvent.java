@@ -0,0 +1,19 @@
+package com.godofredo.libraryapi.service.event;
+
+import com.godofredo.libraryapi.model.entity.Book;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Published by the book service after a book is created, updated or deleted.
+ */
+@Data
+@AllArgsConstructor
+public class BookChangedEvent {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    private Type type;
+    private Book book;
+
+}
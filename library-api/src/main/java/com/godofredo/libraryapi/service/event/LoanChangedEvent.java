@@ -0,0 +1,19 @@
+package com.godofredo.libraryapi.service.event;
+
+import com.godofredo.libraryapi.model.entity.Loan;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Published by the loan service, once per loan, when a book is loaned or returned.
+ */
+@Data
+@AllArgsConstructor
+public class LoanChangedEvent {
+
+    public enum Type { LOANED, RETURNED }
+
+    private Type type;
+    private Loan loan;
+
+}
@@ -0,0 +1,20 @@
+package com.godofredo.libraryapi.service.event;
+
+import com.godofredo.libraryapi.model.entity.Loan;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Published by the overdue scanner, once per loan, when the loan passes its due date, inside the
+ * transaction that moves the scan checkpoint past the loan. The {@link
+ * com.godofredo.libraryapi.service.journal.JournalRecorder} journals it. It is the extension point for
+ * reminders and fines: listen with {@code @TransactionalEventListener} to act only once the checkpoint
+ * committed, a rolled back chunk publishes its loans again on the next run.
+ */
+@Data
+@AllArgsConstructor
+public class LoanOverdueEvent {
+
+    private Loan loan;
+
+}
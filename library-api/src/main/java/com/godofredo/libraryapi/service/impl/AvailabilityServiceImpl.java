@@ -0,0 +1,58 @@
+package com.godofredo.libraryapi.service.impl;
+
+import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.model.entity.BookAvailability;
+import com.godofredo.libraryapi.model.repository.BookAvailabilityRepository;
+import com.godofredo.libraryapi.model.repository.LoanRepository;
+import com.godofredo.libraryapi.service.AvailabilityService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@Transactional(readOnly = true)
+public class AvailabilityServiceImpl implements AvailabilityService {
+
+    private BookAvailabilityRepository repository;
+    private LoanRepository loanRepository;
+
+    public AvailabilityServiceImpl(BookAvailabilityRepository repository, LoanRepository loanRepository) {
+        this.repository = repository;
+        this.loanRepository = loanRepository;
+    }
+
+    @Override
+    public BookAvailability getAvailability(Long bookId) {
+        return repository.findById(bookId).orElseGet(() -> BookAvailability.of(bookId));
+    }
+
+    @Override
+    public List<String> getBorrowers(Long bookId) {
+        return loanRepository.findActiveCustomers(bookId);
+    }
+
+    @Override
+    public Map<String, BookAvailability> getAvailability(List<String> isbns) {
+        Set<String> normalized = new HashSet<>();
+        for (String isbn : isbns) {
+            if (isbn != null) {
+                normalized.add(Book.normalizeIsbn(isbn));
+            }
+        }
+        Map<String, BookAvailability> availability = new HashMap<>();
+        if (normalized.isEmpty()) {
+            return availability;
+        }
+        for (Object[] row : repository.findByNormalizedIsbnIn(normalized)) {
+            Book book = (Book) row[0];
+            BookAvailability found = (BookAvailability) row[1];
+            availability.put(book.getNormalizedIsbn(), found != null ? found : BookAvailability.of(book.getId()));
+        }
+        return availability;
+    }
+}
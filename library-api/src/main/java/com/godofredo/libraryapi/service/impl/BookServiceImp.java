@@ -1,44 +1,131 @@
 package com.godofredo.libraryapi.service.impl;
 import com.godofredo.libraryapi.exception.BusinessException;
+import com.godofredo.libraryapi.exception.ErrorCode;
 import com.godofredo.libraryapi.model.entity.Book;
 import com.godofredo.libraryapi.model.repository.BookRepository;
 import com.godofredo.libraryapi.service.BookService;
+import com.godofredo.libraryapi.service.cache.BookIsbnCache;
+import com.godofredo.libraryapi.service.cache.SingleFlight;
+import com.godofredo.libraryapi.service.event.BookChangedEvent;
+import com.godofredo.libraryapi.service.search.BookSearchIndex;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
+@Profile("!memory")
 public class BookServiceImp implements BookService {
 
+    private static final int EXPORT_FETCH_SIZE = 1000;
+    // ids per IN query, under the 1000 element IN lists of Oracle and the 2100 parameters of SQL Server
+    static final int MULTI_GET_CHUNK_SIZE = 500;
+    private static final List<String> SORT_PROPERTIES = Arrays.asList("id", "title", "author", "isbn");
+
     private BookRepository repository;
+    private BookIsbnCache isbnCache;
+    private BookSearchIndex searchIndex;
+    private ApplicationEventPublisher publisher;
+    private SingleFlight<Long, Optional<Book>> byIdFlight;
+    private SingleFlight<String, Optional<Book>> byIsbnFlight;
 
     public BookServiceImp(BookRepository repository) {
+        this(repository, new BookIsbnCache(10_000, Duration.ofMinutes(10)), new BookSearchIndex(repository), event -> { },
+                new SingleFlight<>("books.id"), new SingleFlight<>("books.isbn"));
+    }
+
+    @Autowired
+    public BookServiceImp(BookRepository repository, BookIsbnCache isbnCache, BookSearchIndex searchIndex,
+                          ApplicationEventPublisher publisher, SingleFlight<Long, Optional<Book>> byIdFlight,
+                          SingleFlight<String, Optional<Book>> byIsbnFlight) {
         this.repository = repository;
+        this.isbnCache = isbnCache;
+        this.searchIndex = searchIndex;
+        this.publisher = publisher;
+        this.byIdFlight = byIdFlight;
+        this.byIsbnFlight = byIsbnFlight;
     }
 
     @Override
     public Book save(Book book) {
-        if(repository.existsByIsbn(book.getIsbn())){
-            throw new BusinessException("Duplicated Isbn");
+        Optional<Book> cached = isbnCache.getIfPresent(book.getIsbn());
+        if(cached != null && cached.isPresent()){
+            throw new BusinessException(ErrorCode.DUPLICATED_ISBN);
         }
-        return repository.save(book);
+        // the unique isbn index is the duplicate check, flushing makes a violation surface here
+        Book saved;
+        try {
+            saved = repository.saveAndFlush(book);
+        } catch (DataIntegrityViolationException e) {
+            throw translateDuplicatedIsbn(e);
+        } finally {
+            forget(book);
+        }
+        publisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.CREATED, saved));
+        return saved;
     }
 
+    /**
+     * Concurrent lookups of the same id share one query, unless the caller runs in a transaction of its own.
+     * Every caller gets its own copy of the book, which it may modify and update.
+     */
     @Override
     public Optional<Book> getById(Long id) {
-        return this.repository.findById(id);
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return this.repository.findById(id);
+        }
+        return byIdFlight.load(id, repository::findById).map(book -> book.toBuilder().build());
     }
 
     @Override
+    @Transactional
     public void delete(Book book) {
         if(book == null || book.getId() == null){
             throw new IllegalArgumentException("Book id can't be null ");
         }
-        this.repository.delete(book);
+        // the loans keep their book, a book that was ever loaned stays
+        if(repository.hasLoans(book.getId())){
+            throw new BusinessException(ErrorCode.BOOK_HAS_LOANS);
+        }
+        repository.deleteAvailability(book.getId());
+        try {
+            this.repository.delete(book);
+            // a loan created since the check fails the foreign key here
+            this.repository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw new BusinessException(ErrorCode.BOOK_HAS_LOANS);
+        }
+        forget(book);
+        publisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.DELETED, book));
     }
 
     @Override
@@ -46,7 +133,11 @@ public class BookServiceImp implements BookService {
         if(book == null || book.getId() == null){
             throw new IllegalArgumentException("Book id can't be null ");
         }
-        return this.repository.save(book);
+        Book updated = this.repository.save(book);
+        forget(book);
+        forget(updated);
+        publisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.UPDATED, updated));
+        return updated;
     }
 
     @Override
@@ -63,6 +154,160 @@ public class BookServiceImp implements BookService {
 
     @Override
     public Optional<Book> getBookByIsbn(String isbn) {
-        return repository.findByIsbn(isbn);
+        if (isbn == null) {
+            return Optional.empty();
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return isbnCache.get(isbn, repository::findByNormalizedIsbn);
+        }
+        Optional<Book> cached = isbnCache.getIfPresent(isbn);
+        if (cached != null) {
+            return cached;
+        }
+        return byIsbnFlight.load(Book.normalizeIsbn(isbn), normalized -> isbnCache.load(normalized, repository::findByNormalizedIsbn))
+                .map(book -> book.toBuilder().build());
+    }
+
+    /**
+     * One IN query per {@link #MULTI_GET_CHUNK_SIZE} distinct ids.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, Book> getByIds(Collection<Long> ids) {
+        Map<Long, Book> books = new HashMap<>();
+        for (List<Long> chunk : chunks(ids, Function.identity())) {
+            repository.findAllById(chunk).forEach(book -> books.put(book.getId(), book));
+        }
+        return books;
+    }
+
+    /**
+     * One IN query per {@link #MULTI_GET_CHUNK_SIZE} distinct normalized isbns.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Book> getByIsbns(Collection<String> isbns) {
+        Map<String, Book> books = new HashMap<>();
+        for (List<String> chunk : chunks(isbns, Book::normalizeIsbn)) {
+            repository.findByNormalizedIsbnIn(chunk).forEach(book -> books.put(book.getNormalizedIsbn(), book));
+        }
+        return books;
+    }
+
+    private static <T, K> List<List<K>> chunks(Collection<T> values, Function<T, K> key) {
+        List<K> distinct = values.stream()
+                .filter(Objects::nonNull)
+                .map(key)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        List<List<K>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += MULTI_GET_CHUNK_SIZE) {
+            chunks.add(distinct.subList(from, Math.min(from + MULTI_GET_CHUNK_SIZE, distinct.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * Drops the cached lookups of the book once the transaction of the caller, if any, is over. Dropping
+     * them before the commit would let a concurrent lookup cache the state the commit is about to change.
+     */
+    private void forget(Book book) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    forgetNow(book);
+                }
+            });
+        } else {
+            forgetNow(book);
+        }
+    }
+
+    private void forgetNow(Book book) {
+        isbnCache.invalidate(book.getIsbn());
+        byIsbnFlight.forget(Book.normalizeIsbn(book.getIsbn()));
+        byIdFlight.forget(book.getId());
+    }
+
+    /**
+     * Saves the books whose isbn is not taken yet. A single IN query checks the
+     * whole chunk; duplicates, in the database or repeated inside the chunk, are skipped.
+     */
+    @Override
+    @Transactional
+    public List<Book> saveAll(List<Book> books) {
+        Set<String> isbns = books.stream().map(book -> Book.normalizeIsbn(book.getIsbn())).collect(Collectors.toSet());
+        Set<String> taken = isbns.isEmpty() ? new HashSet<>() : new HashSet<>(repository.findExistingIsbns(isbns));
+
+        List<Book> toSave = new ArrayList<>(books.size());
+        for (Book book : books) {
+            if (taken.add(Book.normalizeIsbn(book.getIsbn()))) {
+                toSave.add(book);
+            }
+        }
+        List<Book> saved;
+        try {
+            saved = repository.saveAll(toSave);
+            repository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw translateDuplicatedIsbn(e);
+        } finally {
+            toSave.forEach(this::forget);
+        }
+        saved.forEach(book -> publisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.CREATED, book)));
+        return saved;
+    }
+
+    private static RuntimeException translateDuplicatedIsbn(DataIntegrityViolationException e) {
+        if (e.getCause() instanceof ConstraintViolationException) {
+            String constraint = ((ConstraintViolationException) e.getCause()).getConstraintName();
+            if (constraint != null && constraint.toLowerCase().contains(Book.ISBN_INDEX)) {
+                return new BusinessException(ErrorCode.DUPLICATED_ISBN);
+            }
+        }
+        return e;
+    }
+
+    /**
+     * Keyset page: seeks past {@code after} on (sort key, id) instead of skipping an offset,
+     * and reads one extra row to know if there is a next slice, so no count query runs.
+     */
+    @Override
+    public Slice<Book> findAfter(Book filter, Sort.Order order, Book after, int size) {
+        if (!SORT_PROPERTIES.contains(order.getProperty())) {
+            throw new BusinessException(ErrorCode.INVALID_SORT_PROPERTY);
+        }
+        List<Book> books = repository.findAfter(filter, order, after, size + 1);
+        boolean hasNext = books.size() > size;
+        if (hasNext) {
+            books = books.subList(0, size);
+        }
+        return new SliceImpl<>(books, PageRequest.of(0, size, Sort.by(order)), hasNext);
+    }
+
+    @Override
+    public Page<Book> search(String query, Pageable pageRequest) {
+        List<Long> ranked = searchIndex.search(query);
+        int from = (int) Math.min(pageRequest.getOffset(), ranked.size());
+        List<Long> pageIds = ranked.subList(from, Math.min(from + pageRequest.getPageSize(), ranked.size()));
+
+        Map<Long, Book> books = new HashMap<>();
+        repository.findAllById(pageIds).forEach(book -> books.put(book.getId(), book));
+        List<Book> content = new ArrayList<>(pageIds.size());
+        for (Long id : pageIds) {
+            Book book = books.get(id);
+            if (book != null) {
+                content.add(book);
+            }
+        }
+        return new PageImpl<>(content, pageRequest, ranked.size());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void export(Book filter, Consumer<Book> consumer) {
+        repository.scroll(filter, EXPORT_FETCH_SIZE, consumer);
     }
 }
@@ -0,0 +1,244 @@
+package com.godofredo.libraryapi.service.impl;
+
+import com.godofredo.libraryapi.exception.BusinessException;
+import com.godofredo.libraryapi.exception.ErrorCode;
+import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.service.BookService;
+import com.godofredo.libraryapi.service.event.BookChangedEvent;
+import com.godofredo.libraryapi.service.memory.BookStore;
+import com.godofredo.libraryapi.service.search.BookSearchIndex;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Book service of the {@code memory} profile, for read mostly replicas: books live in a
+ * {@link BookStore} instead of the database. Filters and sorts behave as in {@link BookServiceImp}.
+ */
+@Service
+@Profile("memory")
+public class InMemoryBookService implements BookService {
+
+    private static final int EXPORT_CHUNK_SIZE = 1000;
+    private static final List<String> SORT_PROPERTIES = Arrays.asList("id", "title", "author", "isbn");
+
+    private final BookStore store;
+    private final BookSearchIndex searchIndex;
+    private final ApplicationEventPublisher publisher;
+
+    public InMemoryBookService(BookStore store, BookSearchIndex searchIndex, ApplicationEventPublisher publisher) {
+        this.store = store;
+        this.searchIndex = searchIndex;
+        this.publisher = publisher;
+    }
+
+    @Override
+    public Book save(Book book) {
+        Book saved = store.insert(book);
+        publisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.CREATED, saved));
+        return saved;
+    }
+
+    @Override
+    public Optional<Book> getById(Long id) {
+        return id == null ? Optional.empty() : store.get(id);
+    }
+
+    @Override
+    public void delete(Book book) {
+        if(book == null || book.getId() == null){
+            throw new IllegalArgumentException("Book id can't be null ");
+        }
+        store.remove(book.getId())
+                .ifPresent(removed -> publisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.DELETED, removed)));
+    }
+
+    @Override
+    public Book update(Book book) {
+        if(book == null || book.getId() == null){
+            throw new IllegalArgumentException("Book id can't be null ");
+        }
+        Book updated = store.update(book);
+        publisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.UPDATED, updated));
+        return updated;
+    }
+
+    @Override
+    public Page<Book> find(Book filter, Pageable pageRequest) {
+        List<Book> matches = store.scan(0, true, Integer.MAX_VALUE, matcher(filter));
+        if (pageRequest.getSort().isSorted()) {
+            matches.sort(comparator(pageRequest.getSort()));
+        }
+        if (pageRequest.isUnpaged()) {
+            return new PageImpl<>(matches);
+        }
+        int from = (int) Math.min(pageRequest.getOffset(), matches.size());
+        List<Book> content = new ArrayList<>(matches.subList(from, Math.min(from + pageRequest.getPageSize(), matches.size())));
+        return new PageImpl<>(content, pageRequest, matches.size());
+    }
+
+    @Override
+    public Optional<Book> getBookByIsbn(String isbn) {
+        return store.getByIsbn(isbn);
+    }
+
+    @Override
+    public Map<Long, Book> getByIds(Collection<Long> ids) {
+        Map<Long, Book> books = new HashMap<>();
+        for (Long id : ids) {
+            getById(id).ifPresent(book -> books.put(id, book));
+        }
+        return books;
+    }
+
+    @Override
+    public Map<String, Book> getByIsbns(Collection<String> isbns) {
+        Map<String, Book> books = new HashMap<>();
+        for (String isbn : isbns) {
+            store.getByIsbn(isbn).ifPresent(book -> books.put(Book.normalizeIsbn(isbn), book));
+        }
+        return books;
+    }
+
+    @Override
+    public List<Book> saveAll(List<Book> books) {
+        List<Book> saved = store.insertAll(books);
+        saved.forEach(book -> publisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.CREATED, book)));
+        return saved;
+    }
+
+    @Override
+    public Slice<Book> findAfter(Book filter, Sort.Order order, Book after, int size) {
+        if (!SORT_PROPERTIES.contains(order.getProperty())) {
+            throw new BusinessException(ErrorCode.INVALID_SORT_PROPERTY);
+        }
+        List<Book> books;
+        if (order.getProperty().equals("id")) {
+            // rows are kept in id order, the scan stops at the end of the slice
+            long afterId = after != null ? after.getId() : order.isAscending() ? 0 : Long.MAX_VALUE;
+            books = store.scan(afterId, order.isAscending(), size + 1, matcher(filter));
+        } else {
+            Comparator<Book> comparator = comparator(Sort.by(order));
+            Predicate<Book> matcher = matcher(filter);
+            books = store.scan(0, true, Integer.MAX_VALUE,
+                    after == null ? matcher : matcher.and(book -> comparator.compare(book, after) > 0));
+            books.sort(comparator);
+            if (books.size() > size + 1) {
+                books = books.subList(0, size + 1);
+            }
+        }
+        boolean hasNext = books.size() > size;
+        if (hasNext) {
+            books = books.subList(0, size);
+        }
+        return new SliceImpl<>(new ArrayList<>(books), PageRequest.of(0, size, Sort.by(order)), hasNext);
+    }
+
+    @Override
+    public Page<Book> search(String query, Pageable pageRequest) {
+        List<Long> ranked = searchIndex.search(query);
+        int from = (int) Math.min(pageRequest.getOffset(), ranked.size());
+        List<Book> content = new ArrayList<>();
+        for (Long id : ranked.subList(from, Math.min(from + pageRequest.getPageSize(), ranked.size()))) {
+            store.get(id).ifPresent(content::add);
+        }
+        return new PageImpl<>(content, pageRequest, ranked.size());
+    }
+
+    /**
+     * Reads the matching books in chunks, so the store is not locked while the consumer writes them out.
+     */
+    @Override
+    public void export(Book filter, Consumer<Book> consumer) {
+        Predicate<Book> matcher = matcher(filter);
+        long afterId = 0;
+        List<Book> chunk;
+        do {
+            chunk = store.scan(afterId, true, EXPORT_CHUNK_SIZE, matcher);
+            chunk.forEach(consumer);
+            if (!chunk.isEmpty()) {
+                afterId = chunk.get(chunk.size() - 1).getId();
+            }
+        } while (chunk.size() == EXPORT_CHUNK_SIZE);
+    }
+
+    /**
+     * Same semantics as the example query of {@link BookServiceImp#find}: exact id, the other
+     * fields contained, ignoring case, null fields not filtering.
+     */
+    private static Predicate<Book> matcher(Book filter) {
+        Predicate<Book> matcher = book -> true;
+        if (filter == null) {
+            return matcher;
+        }
+        if (filter.getId() != null) {
+            matcher = matcher.and(book -> filter.getId().equals(book.getId()));
+        }
+        matcher = containing(matcher, Book::getTitle, filter.getTitle());
+        matcher = containing(matcher, Book::getAuthor, filter.getAuthor());
+        return containing(matcher, Book::getIsbn, filter.getIsbn());
+    }
+
+    private static Predicate<Book> containing(Predicate<Book> matcher, Function<Book, String> field, String value) {
+        if (value == null) {
+            return matcher;
+        }
+        String needle = value.toLowerCase();
+        return matcher.and(book -> {
+            String text = field.apply(book);
+            return text != null && text.toLowerCase().contains(needle);
+        });
+    }
+
+    private static Comparator<Book> comparator(Sort sort) {
+        Comparator<Book> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<Book> next = comparator(order);
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        Comparator<Book> byId = Comparator.comparing(Book::getId);
+        boolean descending = sort.iterator().next().isDescending();
+        return comparator.thenComparing(descending ? byId.reversed() : byId);
+    }
+
+    private static Comparator<Book> comparator(Sort.Order order) {
+        Comparator<String> strings = Comparator.nullsFirst(order.isIgnoreCase() ? String.CASE_INSENSITIVE_ORDER : Comparator.naturalOrder());
+        Comparator<Book> comparator;
+        switch (order.getProperty()) {
+            case "id":
+                comparator = Comparator.comparing(Book::getId);
+                break;
+            case "title":
+                comparator = Comparator.comparing(Book::getTitle, strings);
+                break;
+            case "author":
+                comparator = Comparator.comparing(Book::getAuthor, strings);
+                break;
+            case "isbn":
+                comparator = Comparator.comparing(Book::getIsbn, strings);
+                break;
+            default:
+                throw new BusinessException(ErrorCode.INVALID_SORT_PROPERTY);
+        }
+        return order.isAscending() ? comparator : comparator.reversed();
+    }
+}
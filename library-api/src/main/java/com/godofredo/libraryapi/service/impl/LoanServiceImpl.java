@@ -1,19 +1,216 @@
 package com.godofredo.libraryapi.service.impl;
 
+import com.godofredo.libraryapi.exception.BusinessException;
+import com.godofredo.libraryapi.exception.ErrorCode;
+import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.model.entity.BookAvailability;
 import com.godofredo.libraryapi.model.entity.Loan;
+import com.godofredo.libraryapi.model.repository.BookAvailabilityRepository;
+import com.godofredo.libraryapi.model.repository.BookRepository;
 import com.godofredo.libraryapi.model.repository.LoanRepository;
+import com.godofredo.libraryapi.service.LoanBatchItem;
 import com.godofredo.libraryapi.service.LoanService;
+import com.godofredo.libraryapi.service.event.LoanChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
 public class LoanServiceImpl implements LoanService {
 
+    public static final int DEFAULT_LOAN_DAYS = 14;
+    public static final int MAX_BASKET = 1000;
+
     private LoanRepository repository;
+    private BookRepository bookRepository;
+    private BookAvailabilityRepository availabilityRepository;
+    private int loanDays;
+    private ApplicationEventPublisher publisher;
 
-    public LoanServiceImpl(LoanRepository repository) {
+    public LoanServiceImpl(LoanRepository repository, BookRepository bookRepository,
+                           BookAvailabilityRepository availabilityRepository) {
+        this(repository, bookRepository, availabilityRepository, DEFAULT_LOAN_DAYS, event -> { });
+    }
+
+    @Autowired
+    public LoanServiceImpl(LoanRepository repository, BookRepository bookRepository,
+                           BookAvailabilityRepository availabilityRepository,
+                           @Value("${library.loans.days:14}") int loanDays, ApplicationEventPublisher publisher) {
         this.repository = repository;
+        this.bookRepository = bookRepository;
+        this.availabilityRepository = availabilityRepository;
+        this.loanDays = loanDays;
+        this.publisher = publisher;
     }
 
     @Override
+    @Transactional
     public Loan save(Loan loan) {
-        return repository.save(loan);
+        if(loan.getBook() == null || loan.getBook().getId() == null){
+            throw new IllegalArgumentException("Book id can't be null ");
+        }
+        // the row lock on the book serializes concurrent loans of the same book until commit
+        Book book = bookRepository.findByIdForUpdate(loan.getBook().getId())
+                .orElseThrow(() -> new BusinessException(ErrorCode.BOOK_NOT_FOUND));
+        if(repository.existsByBookAndReturnedFalse(book)){
+            throw new BusinessException(ErrorCode.BOOK_ALREADY_LOANED);
+        }
+        loan.setBook(book);
+        if(loan.getReturned() == null){
+            loan.setReturned(false);
+        }
+        Loan saved = repository.save(loan);
+        // a loan saved as already returned still counts in the checkouts of the book
+        updateAvailability(Collections.singletonList(loan), true);
+        if(!loan.getReturned()){
+            publisher.publishEvent(new LoanChangedEvent(LoanChangedEvent.Type.LOANED, saved));
+        }
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public List<LoanBatchItem> checkout(String customer, List<String> isbns, LocalDate loanDate) {
+        Set<String> normalizedIsbns = normalize(isbns);
+        Map<String, Book> books = new HashMap<>();
+        for (Book book : normalizedIsbns.isEmpty()
+                ? Collections.<Book>emptyList()
+                : bookRepository.findByNormalizedIsbnInForUpdate(normalizedIsbns)) {
+            books.put(book.getNormalizedIsbn(), book);
+        }
+        Set<Long> loaned = books.isEmpty()
+                ? Collections.emptySet()
+                : new HashSet<>(repository.findLoanedBookIds(books.values()));
+
+        List<LoanBatchItem> items = new ArrayList<>(isbns.size());
+        List<Loan> loans = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (String isbn : isbns) {
+            String normalized = Book.normalizeIsbn(isbn);
+            Book book = books.get(normalized);
+            if (book == null) {
+                items.add(LoanBatchItem.failure(isbn, ErrorCode.BOOK_NOT_FOUND));
+            } else if (!seen.add(normalized)) {
+                items.add(LoanBatchItem.failure(isbn, ErrorCode.DUPLICATED_ISBN));
+            } else if (loaned.contains(book.getId())) {
+                items.add(LoanBatchItem.failure(isbn, ErrorCode.BOOK_ALREADY_LOANED));
+            } else {
+                Loan loan = Loan.builder().customer(customer).book(book).loanDate(loanDate).returned(false).build();
+                loans.add(loan);
+                items.add(LoanBatchItem.success(isbn, loan));
+            }
+        }
+        // ids come from the pooled sequence, the inserts go out as one JDBC batch on commit
+        repository.saveAll(loans);
+        updateAvailability(loans, true);
+        loans.forEach(loan -> publisher.publishEvent(new LoanChangedEvent(LoanChangedEvent.Type.LOANED, loan)));
+        return items;
+    }
+
+    @Override
+    @Transactional
+    public List<LoanBatchItem> giveBack(List<String> isbns) {
+        Set<String> normalizedIsbns = normalize(isbns);
+        Map<String, Loan> loans = new HashMap<>();
+        if (!normalizedIsbns.isEmpty()) {
+            // as for checkouts, the book row locks keep two returns of a loan from both counting
+            bookRepository.findByNormalizedIsbnInForUpdate(normalizedIsbns);
+            for (Loan loan : repository.findActiveByNormalizedIsbnIn(normalizedIsbns)) {
+                loans.put(loan.getBook().getNormalizedIsbn(), loan);
+            }
+        }
+
+        List<LoanBatchItem> items = new ArrayList<>(isbns.size());
+        List<Loan> returned = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (String isbn : isbns) {
+            String normalized = Book.normalizeIsbn(isbn);
+            Loan loan = loans.get(normalized);
+            if (!seen.add(normalized)) {
+                items.add(LoanBatchItem.failure(isbn, ErrorCode.DUPLICATED_ISBN));
+            } else if (loan == null) {
+                items.add(LoanBatchItem.failure(isbn, ErrorCode.BOOK_NOT_LOANED));
+            } else {
+                // managed entity, the updates go out as one JDBC batch on commit
+                loan.setReturned(true);
+                returned.add(loan);
+                items.add(LoanBatchItem.success(isbn, loan));
+            }
+        }
+        updateAvailability(returned, false);
+        returned.forEach(loan -> publisher.publishEvent(new LoanChangedEvent(LoanChangedEvent.Type.RETURNED, loan)));
+        return items;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Loan> getOverdue(LocalDate today, Pageable pageable) {
+        PageRequest oldestFirst = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("loanDate", "id"));
+        return repository.findOverdue(today.minusDays(loanDays), oldestFirst);
+    }
+
+    /**
+     * Applies the checkouts or returns to the availability of their books, creating the rows of books
+     * loaned for the first time. A checkout of a returned loan counts without staying active. The callers
+     * hold the row locks of the books.
+     */
+    private void updateAvailability(List<Loan> loans, boolean checkout) {
+        if (loans.isEmpty()) {
+            return;
+        }
+        Set<Long> bookIds = new HashSet<>();
+        loans.forEach(loan -> bookIds.add(loan.getBook().getId()));
+        Map<Long, BookAvailability> rows = new HashMap<>();
+        for (BookAvailability row : availabilityRepository.findAllById(bookIds)) {
+            rows.put(row.getBookId(), row);
+        }
+
+        List<BookAvailability> created = new ArrayList<>();
+        for (Loan loan : loans) {
+            BookAvailability row = rows.computeIfAbsent(loan.getBook().getId(), bookId -> {
+                BookAvailability first = BookAvailability.of(bookId);
+                created.add(first);
+                return first;
+            });
+            if (checkout) {
+                row.checkout(loan.getLoanDate());
+                if (Boolean.TRUE.equals(loan.getReturned())) {
+                    row.giveBack();
+                }
+            } else {
+                row.giveBack();
+            }
+        }
+        // the loaded rows are managed, their updates are flushed with the loans
+        availabilityRepository.saveAll(created);
+    }
+
+    private static Set<String> normalize(List<String> isbns) {
+        // the basket becomes one IN list of row locks, it is bounded like the other multi-isbn requests
+        if (isbns.size() > MAX_BASKET) {
+            throw new BusinessException(ErrorCode.TOO_MANY_ISBNS);
+        }
+        Set<String> normalized = new HashSet<>();
+        for (String isbn : isbns) {
+            if (isbn != null) {
+                normalized.add(Book.normalizeIsbn(isbn));
+            }
+        }
+        return normalized;
     }
 }
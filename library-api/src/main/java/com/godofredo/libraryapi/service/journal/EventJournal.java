@@ -0,0 +1,256 @@
+package com.godofredo.libraryapi.service.journal;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append only journal of the catalog changes, written to memory mapped segment files of a directory.
+ * <p>
+ * Appends only enqueue the event: one writer thread drains the queue, encodes the events it took as
+ * Smile records into the active segment and forces the segment to disk as the {@link FsyncPolicy}
+ * says, once for the whole group. The append future completes with the offset of the event once it
+ * is written, or forced for {@link FsyncPolicy#ALWAYS}. A record that does not fit the active
+ * segment rolls the journal to a new segment, named after the offset of that record.
+ * <p>
+ * The queue is bounded: an append waits up to the append timeout for room, then drops the event, fails
+ * its future and counts it in {@link #getDropped()} rather than hold the committed request.
+ */
+public class EventJournal implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(EventJournal.class);
+
+    static final ObjectMapper MAPPER = new ObjectMapper(new SmileFactory())
+            .registerModule(new JavaTimeModule())
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private static final Pending CLOSE = new Pending(null);
+
+    private final Path dir;
+    private final int segmentSize;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+    private final int maxBatch;
+    private final long appendTimeoutNanos;
+    private final ObjectWriter writer = MAPPER.writerFor(JournalEvent.class);
+    private final BlockingQueue<Pending> queue;
+    private final JournalReader reader;
+    private final Thread thread;
+    private final AtomicLong dropped = new AtomicLong();
+
+    private JournalSegment active;
+    private volatile long writtenOffset;
+    private volatile long durableOffset;
+    private volatile boolean closed;
+
+    public EventJournal(Path dir, int segmentSize, FsyncPolicy fsyncPolicy, Duration fsyncInterval,
+                        int maxBatch, int queueCapacity, Duration appendTimeout) throws IOException {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = fsyncInterval.toNanos();
+        this.maxBatch = maxBatch;
+        this.appendTimeoutNanos = appendTimeout.toNanos();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        Files.createDirectories(dir);
+        this.active = JournalSegment.openForWrite(dir, lastSegment(dir), segmentSize);
+        this.writtenOffset = active.end();
+        this.durableOffset = active.end();
+        this.reader = new JournalReader(dir);
+        this.thread = new Thread(this::run, "journal-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * @return the offset of the event, once it is written as the fsync policy says, failed when the
+     * queue stayed full for the append timeout
+     */
+    public CompletableFuture<Long> append(JournalEvent event) {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+        Pending pending = new Pending(event);
+        try {
+            if (!queue.offer(pending, appendTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                dropped.incrementAndGet();
+                log.error("Journal queue full, event {} dropped", event);
+                pending.future.completeExceptionally(new IllegalStateException("Journal queue is full"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            dropped.incrementAndGet();
+            pending.future.completeExceptionally(e);
+        }
+        return pending.future;
+    }
+
+    /**
+     * Reads the written events from the offset, see {@link JournalReader#read(long, int, long)}.
+     */
+    public JournalBatch read(long offset, int maxEvents) {
+        return reader.read(offset, maxEvents, writtenOffset);
+    }
+
+    public Path getDir() {
+        return dir;
+    }
+
+    /**
+     * @return the offset following the last written event
+     */
+    public long getWrittenOffset() {
+        return writtenOffset;
+    }
+
+    /**
+     * @return the offset following the last event forced to disk
+     */
+    public long getDurableOffset() {
+        return durableOffset;
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * @return the events dropped since the journal opened, because the queue was full
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        long lastForce = System.nanoTime();
+        boolean running = true;
+        while (running) {
+            try {
+                Pending first = fsyncPolicy == FsyncPolicy.INTERVAL
+                        ? queue.poll(fsyncIntervalNanos, TimeUnit.NANOSECONDS)
+                        : queue.take();
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatch - 1);
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+            if (batch.removeIf(pending -> pending == CLOSE) || !running) {
+                // the appends that raced with close still get written
+                queue.drainTo(batch);
+                batch.removeIf(pending -> pending == CLOSE);
+                running = false;
+            }
+            write(batch);
+            long now = System.nanoTime();
+            if (writtenOffset > durableOffset && (fsyncPolicy == FsyncPolicy.ALWAYS || !running
+                    || (fsyncPolicy == FsyncPolicy.INTERVAL && now - lastForce >= fsyncIntervalNanos))) {
+                force();
+                lastForce = now;
+            }
+            for (Pending pending : batch) {
+                if (!pending.future.isDone()) {
+                    pending.future.complete(pending.offset);
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        for (Pending pending : batch) {
+            try {
+                byte[] payload = writer.writeValueAsBytes(pending.event);
+                long offset = active.append(payload);
+                if (offset < 0 && !active.isEmpty()) {
+                    roll();
+                    offset = active.append(payload);
+                }
+                if (offset < 0) {
+                    throw new IOException("Journal event of " + payload.length + " bytes is larger than a segment");
+                }
+                pending.offset = offset;
+            } catch (IOException | RuntimeException e) {
+                log.error("Journal event {} not written", pending.event, e);
+                pending.future.completeExceptionally(e);
+            }
+        }
+        writtenOffset = active.end();
+    }
+
+    private void roll() throws IOException {
+        if (fsyncPolicy != FsyncPolicy.NEVER) {
+            force();
+        }
+        JournalSegment next = JournalSegment.openForWrite(dir, active.end(), segmentSize);
+        active.close();
+        active = next;
+    }
+
+    private void force() {
+        long end = active.end();
+        active.force();
+        durableOffset = end;
+    }
+
+    /**
+     * Writes and forces the events appended before, then closes the active segment.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            queue.put(CLOSE);
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        active.close();
+    }
+
+    private static long lastSegment(Path dir) throws IOException {
+        long last = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                if (JournalSegment.isSegment(file)) {
+                    last = Math.max(last, JournalSegment.base(file));
+                }
+            }
+        }
+        return last;
+    }
+
+    private static class Pending {
+
+        final JournalEvent event;
+        final CompletableFuture<Long> future = new CompletableFuture<>();
+        long offset;
+
+        Pending(JournalEvent event) {
+            this.event = event;
+        }
+    }
+}
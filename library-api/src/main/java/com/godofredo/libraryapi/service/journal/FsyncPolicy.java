@@ -0,0 +1,15 @@
+package com.godofredo.libraryapi.service.journal;
+
+/**
+ * When the {@link EventJournal} forces its writes to disk. Written events survive a crash of the
+ * process under every policy, only a crash of the machine loses the writes not forced yet.
+ */
+public enum FsyncPolicy {
+
+    /** After every group of events, before their appends complete. */
+    ALWAYS,
+    /** At most once per fsync interval, the appends complete once the events are written. */
+    INTERVAL,
+    /** Never, the operating system writes the pages back when it sees fit. */
+    NEVER
+}
@@ -0,0 +1,17 @@
+package com.godofredo.libraryapi.service.journal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Events read from the journal, and the offset to read the following ones from.
+ */
+@Data
+@AllArgsConstructor
+public class JournalBatch {
+
+    private List<JournalEvent> events;
+    private long nextOffset;
+}
@@ -0,0 +1,45 @@
+package com.godofredo.libraryapi.service.journal;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * A committed change of the catalog, as recorded in the {@link EventJournal}. Book events carry the
+ * whole book, loan events the loan and the id and isbn of its book.
+ * <p>
+ * Events are appended once their transaction committed, so two commits can reach the journal in the
+ * opposite order: the version of a book event and the loan id of a loan event order the changes of
+ * one book instead.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JournalEvent {
+
+    public enum Type { BOOK_CREATED, BOOK_UPDATED, BOOK_DELETED, BOOK_LOANED, BOOK_RETURNED, LOAN_OVERDUE }
+
+    private Type type;
+    /** Epoch millis of the commit. */
+    private long time;
+    private Long bookId;
+    private String title;
+    private String author;
+    private String isbn;
+    /** The {@code @Version} of the book, null in the events of the stores that do not version books. */
+    private Long version;
+    private Long loanId;
+    private String customer;
+    private LocalDate loanDate;
+
+    /** Position of the event in the journal, set when it is read. */
+    @JsonIgnore
+    private long offset;
+}
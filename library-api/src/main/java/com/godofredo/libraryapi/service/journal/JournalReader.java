@@ -0,0 +1,111 @@
+package com.godofredo.libraryapi.service.journal;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reads the events of a journal directory from an offset. The segments are mapped read only, the
+ * directory is listed again when a read reaches the end of the last known segment, so a reader
+ * follows the segments the writer rolls to.
+ * <p>
+ * A reader of the live journal is bounded by the offset the writer published, an offline reader
+ * reads up to the first record that is not whole.
+ */
+public class JournalReader {
+
+    private final Path dir;
+    private final ObjectReader reader = EventJournal.MAPPER.readerFor(JournalEvent.class);
+    private final TreeMap<Long, ByteBuffer> segments = new TreeMap<>();
+
+    public JournalReader(Path dir) {
+        this.dir = dir;
+    }
+
+    public JournalBatch read(long offset, int maxEvents) {
+        return read(offset, maxEvents, Long.MAX_VALUE);
+    }
+
+    /**
+     * Reads at most {@code maxEvents} events from the offset, which is 0 or the offset of an event or
+     * the next offset of a previous read. Tailing the journal is reading again from the next offset.
+     */
+    public synchronized JournalBatch read(long offset, int maxEvents, long limit) {
+        List<JournalEvent> events = new ArrayList<>(Math.min(maxEvents, 1024));
+        long position = offset;
+        while (events.size() < maxEvents && position < limit) {
+            Map.Entry<Long, ByteBuffer> segment = segment(position);
+            if (segment == null) {
+                break;
+            }
+            ByteBuffer buffer = segment.getValue();
+            int start = (int) (position - segment.getKey());
+            int length = JournalSegment.recordLength(buffer, start);
+            if (length == 0) {
+                // the end of the segment: go on in the segment rolled to from here, if there is one
+                if (segments.higherKey(segment.getKey()) == null) {
+                    list();
+                }
+                if (!segments.containsKey(position)) {
+                    break;
+                }
+                continue;
+            }
+            events.add(decode(buffer, start, length, position));
+            position += JournalSegment.HEADER_SIZE + length;
+        }
+        return new JournalBatch(events, position);
+    }
+
+    private Map.Entry<Long, ByteBuffer> segment(long position) {
+        Map.Entry<Long, ByteBuffer> segment = segments.floorEntry(position);
+        if (segment == null || position - segment.getKey() >= segment.getValue().capacity()) {
+            list();
+            segment = segments.floorEntry(position);
+        }
+        return segment;
+    }
+
+    private JournalEvent decode(ByteBuffer buffer, int start, int length, long offset) {
+        byte[] payload = new byte[length];
+        ByteBuffer record = buffer.duplicate();
+        record.position(start + JournalSegment.HEADER_SIZE);
+        record.get(payload);
+        try {
+            JournalEvent event = reader.readValue(payload);
+            event.setOffset(offset);
+            return event;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unreadable journal event at " + offset, e);
+        }
+    }
+
+    private void list() {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                if (JournalSegment.isSegment(file)) {
+                    long base = JournalSegment.base(file);
+                    // a segment listed while the writer creates it may not have its size yet
+                    ByteBuffer known = segments.get(base);
+                    if (known == null || known.capacity() < Files.size(file)) {
+                        segments.put(base, JournalSegment.openForRead(file));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.godofredo.libraryapi.service.journal;
+
+import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.model.entity.Loan;
+import com.godofredo.libraryapi.service.event.BookChangedEvent;
+import com.godofredo.libraryapi.service.event.LoanChangedEvent;
+import com.godofredo.libraryapi.service.event.LoanOverdueEvent;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Records the book and loan changes and the overdue loans in the {@link EventJournal} once their
+ * transaction committed, so the journal never has a change the database rolled back. The request only
+ * pays for copying the change and enqueueing it, the writer thread of the journal does the rest.
+ */
+public class JournalRecorder {
+
+    private final EventJournal journal;
+
+    public JournalRecorder(EventJournal journal) {
+        this.journal = journal;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        Book book = event.getBook();
+        journal.append(JournalEvent.builder()
+                .type(type(event.getType()))
+                .time(System.currentTimeMillis())
+                .bookId(book.getId())
+                .title(book.getTitle())
+                .author(book.getAuthor())
+                .isbn(book.getIsbn())
+                .version(book.getVersion())
+                .build());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLoanChanged(LoanChangedEvent event) {
+        Loan loan = event.getLoan();
+        journal.append(JournalEvent.builder()
+                .type(event.getType() == LoanChangedEvent.Type.LOANED
+                        ? JournalEvent.Type.BOOK_LOANED
+                        : JournalEvent.Type.BOOK_RETURNED)
+                .time(System.currentTimeMillis())
+                .bookId(loan.getBook().getId())
+                .isbn(loan.getBook().getIsbn())
+                .loanId(loan.getId())
+                .customer(loan.getCustomer())
+                .loanDate(loan.getLoanDate())
+                .build());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLoanOverdue(LoanOverdueEvent event) {
+        Loan loan = event.getLoan();
+        journal.append(JournalEvent.builder()
+                .type(JournalEvent.Type.LOAN_OVERDUE)
+                .time(System.currentTimeMillis())
+                .bookId(loan.getBook().getId())
+                .isbn(loan.getBook().getIsbn())
+                .loanId(loan.getId())
+                .customer(loan.getCustomer())
+                .loanDate(loan.getLoanDate())
+                .build());
+    }
+
+    private static JournalEvent.Type type(BookChangedEvent.Type type) {
+        switch (type) {
+            case CREATED:
+                return JournalEvent.Type.BOOK_CREATED;
+            case UPDATED:
+                return JournalEvent.Type.BOOK_UPDATED;
+            default:
+                return JournalEvent.Type.BOOK_DELETED;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.godofredo.libraryapi.service.journal;
+
+import com.godofredo.libraryapi.model.entity.Book;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Rebuilds the catalog, the books and who holds them, by replaying a journal from its first event.
+ * Needs nothing but the journal directory, so it runs on a clean machine:
+ * <pre>
+ * java -cp library-api.jar -Dloader.main=com.godofredo.libraryapi.service.journal.JournalReplay \
+ *     org.springframework.boot.loader.PropertiesLauncher journal catalog.csv
+ * </pre>
+ * writes the catalog as CSV, to the standard output when no file is given.
+ * <p>
+ * The events of a book apply newest first by their version, and its loan events by loan id, not by
+ * their order in the journal; events without them, as the stores that do not version books write,
+ * apply in journal order.
+ */
+public class JournalReplay {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    private final Map<Long, Book> books = new TreeMap<>();
+    /** Version of the last change applied per book, deleted books included. */
+    private final Map<Long, Long> versions = new HashMap<>();
+    /** Last loan or return applied per book. */
+    private final Map<Long, JournalEvent> loans = new HashMap<>();
+    private long offset;
+    private long events;
+
+    public static JournalReplay replay(JournalReader reader) {
+        JournalReplay replay = new JournalReplay();
+        JournalBatch batch;
+        do {
+            batch = reader.read(replay.offset, BATCH_SIZE);
+            batch.getEvents().forEach(replay::apply);
+            replay.offset = batch.getNextOffset();
+        } while (!batch.getEvents().isEmpty());
+        return replay;
+    }
+
+    public void apply(JournalEvent event) {
+        events++;
+        switch (event.getType()) {
+            case BOOK_CREATED:
+            case BOOK_UPDATED:
+                if (isNewer(event)) {
+                    books.put(event.getBookId(), Book.builder()
+                            .id(event.getBookId())
+                            .title(event.getTitle())
+                            .author(event.getAuthor())
+                            .isbn(event.getIsbn())
+                            .version(event.getVersion())
+                            .build());
+                }
+                break;
+            case BOOK_DELETED:
+                if (isNewer(event)) {
+                    books.remove(event.getBookId());
+                    loans.remove(event.getBookId());
+                }
+                break;
+            case BOOK_LOANED:
+            case BOOK_RETURNED:
+                if (isNewerLoan(event)) {
+                    loans.put(event.getBookId(), event);
+                }
+                break;
+            case LOAN_OVERDUE:
+                // the loan stays with the customer until it is returned
+                break;
+        }
+    }
+
+    /**
+     * Keeps the version of the book event when it is newer than the last one applied. A delete loads the
+     * book it deletes, so it wins over the update of the same version.
+     */
+    private boolean isNewer(JournalEvent event) {
+        Long last = versions.get(event.getBookId());
+        if (event.getVersion() == null || last == null || event.getVersion() > last
+                || (event.getVersion().equals(last) && books.containsKey(event.getBookId()))) {
+            if (event.getVersion() != null) {
+                versions.put(event.getBookId(), event.getVersion());
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * A later loan of the book wins, as does the return of the loan over the loan itself.
+     */
+    private boolean isNewerLoan(JournalEvent event) {
+        JournalEvent last = loans.get(event.getBookId());
+        if (last == null || event.getLoanId() == null || last.getLoanId() == null) {
+            return true;
+        }
+        return event.getLoanId() > last.getLoanId() || (event.getLoanId().equals(last.getLoanId())
+                && event.getType() == JournalEvent.Type.BOOK_RETURNED);
+    }
+
+    public Collection<Book> getBooks() {
+        return books.values();
+    }
+
+    /**
+     * @return the loan event of the book, null when it is not loaned
+     */
+    public JournalEvent getLoan(Long bookId) {
+        JournalEvent loan = loans.get(bookId);
+        return loan != null && loan.getType() == JournalEvent.Type.BOOK_LOANED ? loan : null;
+    }
+
+    /**
+     * @return the offset following the last event replayed
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    public long getEvents() {
+        return events;
+    }
+
+    public void writeCsv(Writer writer) throws IOException {
+        writer.write("id,title,author,isbn,customer,loanDate\n");
+        for (Book book : books.values()) {
+            JournalEvent loan = getLoan(book.getId());
+            writer.write(String.valueOf(book.getId()));
+            writer.write(',');
+            writer.write(csv(book.getTitle()));
+            writer.write(',');
+            writer.write(csv(book.getAuthor()));
+            writer.write(',');
+            writer.write(csv(book.getIsbn()));
+            writer.write(',');
+            writer.write(loan == null ? "" : csv(loan.getCustomer()));
+            writer.write(',');
+            writer.write(loan == null || loan.getLoanDate() == null ? "" : loan.getLoanDate().toString());
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + value.replace("\"", "\"\"") + '"';
+            }
+        }
+        return value;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: JournalReplay <journal dir> [catalog.csv]");
+            System.exit(2);
+        }
+        JournalReplay replay = replay(new JournalReader(Paths.get(args[0])));
+        Path out = args.length > 1 ? Paths.get(args[1]) : null;
+        try (Writer writer = out != null
+                ? Files.newBufferedWriter(out, StandardCharsets.UTF_8)
+                : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+            replay.writeCsv(writer);
+        }
+        System.err.printf("replayed %d events up to offset %d: %d books, %d loaned%n",
+                replay.events, replay.offset, replay.books.size(),
+                replay.books.keySet().stream().filter(id -> replay.getLoan(id) != null).count());
+    }
+}
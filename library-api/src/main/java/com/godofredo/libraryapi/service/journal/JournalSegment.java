@@ -0,0 +1,140 @@
+package com.godofredo.libraryapi.service.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * A journal file of a fixed size, mapped in memory, named after the journal offset of its first byte.
+ * <p>
+ * Records are a length, the CRC32 of the payload and the payload. The file is zero filled when it is
+ * created, so a zero length marks the end of the written records: either the segment is still being
+ * written, or the next record did not fit and the journal rolled to the segment starting at this
+ * offset.
+ */
+class JournalSegment implements Closeable {
+
+    static final String SUFFIX = ".log";
+    static final int HEADER_SIZE = 8;
+
+    private final long base;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int position;
+
+    private JournalSegment(long base, FileChannel channel, MappedByteBuffer buffer) {
+        this.base = base;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    static Path path(Path dir, long base) {
+        return dir.resolve(String.format("%020d%s", base, SUFFIX));
+    }
+
+    static boolean isSegment(Path path) {
+        return path.getFileName().toString().endsWith(SUFFIX);
+    }
+
+    static long base(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * Opens the segment for writing, creating it with the given size when it does not exist, and
+     * positions it after its last valid record. A torn record left by a crash is zeroed.
+     */
+    static JournalSegment openForWrite(Path dir, long base, int size) throws IOException {
+        Path path = path(dir, base);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long length = Math.max(channel.size(), size);
+        JournalSegment segment = new JournalSegment(base, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, length));
+        segment.recover();
+        return segment;
+    }
+
+    static ByteBuffer openForRead(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * @return the length of the payload of the valid record at the position, 0 at the end of the records
+     */
+    static int recordLength(ByteBuffer buffer, int position) {
+        if (position + HEADER_SIZE > buffer.capacity()) {
+            return 0;
+        }
+        int length = buffer.getInt(position);
+        if (length <= 0 || length > buffer.capacity() - position - HEADER_SIZE) {
+            return 0;
+        }
+        CRC32 crc = new CRC32();
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(position + HEADER_SIZE).limit(position + HEADER_SIZE + length);
+        crc.update(payload);
+        return (int) crc.getValue() == buffer.getInt(position + 4) ? length : 0;
+    }
+
+    private void recover() {
+        int length;
+        while ((length = recordLength(buffer, position)) > 0) {
+            position += HEADER_SIZE + length;
+        }
+        if (position + 4 <= buffer.capacity() && buffer.getInt(position) != 0) {
+            for (int i = position; i < buffer.capacity(); i++) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+    }
+
+    /**
+     * @return the journal offset of the record, or -1 when it does not fit
+     */
+    long append(byte[] payload) {
+        if (HEADER_SIZE + payload.length > buffer.capacity() - position) {
+            return -1;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        long offset = base + position;
+        buffer.position(position + 4);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(payload);
+        // the length goes last: a reader never sees a record whose payload is not written yet
+        buffer.putInt(position, payload.length);
+        position += HEADER_SIZE + payload.length;
+        return offset;
+    }
+
+    long base() {
+        return base;
+    }
+
+    /**
+     * @return the journal offset following the last record
+     */
+    long end() {
+        return base + position;
+    }
+
+    boolean isEmpty() {
+        return position == 0;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,68 @@
+package com.godofredo.libraryapi.service.memory;
+
+import com.godofredo.libraryapi.model.entity.Book;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Immutable stored form of a book: strings as UTF-8 bytes, the normalized isbn only when it
+ * differs from the isbn, the last modification as epoch milliseconds.
+ */
+final class BookRecord {
+
+    final long id;
+    final long version;
+    final long lastModified;
+    final byte[] title;
+    final byte[] author;
+    final byte[] isbn;
+    final byte[] normalizedIsbn;
+    final int isbnHash;
+
+    BookRecord(long id, long version, Instant lastModified, Book book) {
+        this.id = id;
+        this.version = version;
+        this.lastModified = lastModified.toEpochMilli();
+        this.title = encode(book.getTitle());
+        this.author = encode(book.getAuthor());
+        this.isbn = encode(book.getIsbn());
+        String normalized = Book.normalizeIsbn(book.getIsbn());
+        this.normalizedIsbn = normalized == null || normalized.equals(book.getIsbn()) ? null : encode(normalized);
+        this.isbnHash = hash(normalized);
+    }
+
+    boolean hasIsbn() {
+        return isbn != null;
+    }
+
+    boolean isbnEquals(byte[] normalized) {
+        return Arrays.equals(normalizedIsbn == null ? isbn : normalizedIsbn, normalized);
+    }
+
+    Book toBook() {
+        return Book.builder()
+                .id(id)
+                .title(decode(title))
+                .author(decode(author))
+                .isbn(decode(isbn))
+                .normalizedIsbn(decode(normalizedIsbn == null ? isbn : normalizedIsbn))
+                .version(version)
+                .lastModified(Instant.ofEpochMilli(lastModified))
+                .build();
+    }
+
+    static int hash(String normalizedIsbn) {
+        int hash = normalizedIsbn == null ? 0 : normalizedIsbn.hashCode() * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    static byte[] encode(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String decode(byte[] value) {
+        return value == null ? null : new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,283 @@
+package com.godofredo.libraryapi.service.memory;
+
+import com.godofredo.libraryapi.exception.BusinessException;
+import com.godofredo.libraryapi.exception.ErrorCode;
+import com.godofredo.libraryapi.model.entity.Book;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * In memory book storage of the {@code memory} profile.
+ * <p>
+ * Books are kept as {@link BookRecord} rows appended in id order, deleted rows leaving a hole until
+ * the rows are compacted. A primitive long to int map finds the row of an id, an open addressing
+ * table of row numbers hashed by normalized isbn finds the row of an isbn. Ids come from a counter,
+ * the isbn table enforces that isbns are unique like the database index does. Reads share a
+ * read lock, writes take the write lock.
+ */
+@Component
+@Profile("memory")
+public class BookStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int NO_ROW = -1;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongIntHashMap rowsById = new LongIntHashMap(INITIAL_CAPACITY);
+
+    private BookRecord[] rows = new BookRecord[INITIAL_CAPACITY];
+    private long[] rowIds = new long[INITIAL_CAPACITY];
+    private int rowCount;
+    private int size;
+    private long lastId;
+
+    /** Row number plus one of each indexed isbn, zero for a free slot. */
+    private int[] isbnSlots = new int[INITIAL_CAPACITY * 2];
+    private int isbnCount;
+
+    public Optional<Book> get(long id) {
+        lock.readLock().lock();
+        try {
+            int row = rowsById.get(id);
+            return row == LongIntHashMap.MISSING ? Optional.empty() : Optional.of(rows[row].toBook());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<Book> getByIsbn(String isbn) {
+        String normalized = Book.normalizeIsbn(isbn);
+        if (normalized == null) {
+            return Optional.empty();
+        }
+        byte[] key = BookRecord.encode(normalized);
+        int hash = BookRecord.hash(normalized);
+        lock.readLock().lock();
+        try {
+            int row = findIsbn(key, hash);
+            return row == NO_ROW ? Optional.empty() : Optional.of(rows[row].toBook());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Book insert(Book book) {
+        lock.writeLock().lock();
+        try {
+            if (isbnTaken(book, 0)) {
+                throw new BusinessException(ErrorCode.DUPLICATED_ISBN);
+            }
+            return append(book).toBook();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Inserts the books whose isbn is not taken yet, by the store or by a previous book of the list.
+     */
+    public List<Book> insertAll(List<Book> books) {
+        List<Book> inserted = new ArrayList<>(books.size());
+        lock.writeLock().lock();
+        try {
+            for (Book book : books) {
+                if (!isbnTaken(book, 0)) {
+                    inserted.add(append(book).toBook());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return inserted;
+    }
+
+    /**
+     * Replaces a stored book, checking its version when it has one.
+     *
+     * @throws OptimisticLockingFailureException when the book is gone or was modified since it was read
+     */
+    public Book update(Book book) {
+        lock.writeLock().lock();
+        try {
+            int row = rowsById.get(book.getId());
+            if (row == LongIntHashMap.MISSING
+                    || (book.getVersion() != null && book.getVersion() != rows[row].version)) {
+                throw new OptimisticLockingFailureException("Book was modified");
+            }
+            if (isbnTaken(book, book.getId())) {
+                throw new BusinessException(ErrorCode.DUPLICATED_ISBN);
+            }
+            removeIsbn(row);
+            rows[row] = new BookRecord(book.getId(), rows[row].version + 1, Instant.now(), book);
+            addIsbn(row);
+            return rows[row].toBook();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Optional<Book> remove(long id) {
+        lock.writeLock().lock();
+        try {
+            int row = rowsById.get(id);
+            if (row == LongIntHashMap.MISSING) {
+                return Optional.empty();
+            }
+            Book removed = rows[row].toBook();
+            removeIsbn(row);
+            rowsById.remove(id);
+            rows[row] = null;
+            size--;
+            if (rowCount > INITIAL_CAPACITY && size < rowCount / 2) {
+                compact();
+            }
+            return Optional.of(removed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reads up to {@code limit} matching books in id order, starting after {@code afterId}: ascending
+     * from the first id above it, or descending from the first id below it.
+     */
+    public List<Book> scan(long afterId, boolean ascending, int limit, Predicate<Book> filter) {
+        List<Book> books = new ArrayList<>(Math.min(limit, 1024));
+        lock.readLock().lock();
+        try {
+            int position = Arrays.binarySearch(rowIds, 0, rowCount, afterId);
+            int row = position >= 0
+                    ? (ascending ? position + 1 : position - 1)
+                    : (ascending ? -position - 1 : -position - 2);
+            for (; row >= 0 && row < rowCount && books.size() < limit; row += ascending ? 1 : -1) {
+                if (rows[row] != null) {
+                    Book book = rows[row].toBook();
+                    if (filter.test(book)) {
+                        books.add(book);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return books;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BookRecord append(Book book) {
+        if (rowCount == rows.length) {
+            rows = Arrays.copyOf(rows, rowCount * 2);
+            rowIds = Arrays.copyOf(rowIds, rowCount * 2);
+        }
+        BookRecord record = new BookRecord(++lastId, 0L, Instant.now(), book);
+        int row = rowCount++;
+        rows[row] = record;
+        rowIds[row] = record.id;
+        rowsById.put(record.id, row);
+        size++;
+        addIsbn(row);
+        return record;
+    }
+
+    private void compact() {
+        int live = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (rows[row] != null) {
+                rows[live] = rows[row];
+                rowIds[live] = rowIds[row];
+                live++;
+            }
+        }
+        Arrays.fill(rows, live, rowCount, null);
+        rowCount = live;
+        rowsById.clear();
+        Arrays.fill(isbnSlots, 0);
+        isbnCount = 0;
+        for (int row = 0; row < rowCount; row++) {
+            rowsById.put(rowIds[row], row);
+            addIsbn(row);
+        }
+    }
+
+    private boolean isbnTaken(Book book, long ownId) {
+        String normalized = Book.normalizeIsbn(book.getIsbn());
+        if (normalized == null) {
+            return false;
+        }
+        int row = findIsbn(BookRecord.encode(normalized), BookRecord.hash(normalized));
+        return row != NO_ROW && rows[row].id != ownId;
+    }
+
+    private int findIsbn(byte[] normalized, int hash) {
+        int mask = isbnSlots.length - 1;
+        for (int i = hash & mask; isbnSlots[i] != 0; i = (i + 1) & mask) {
+            BookRecord record = rows[isbnSlots[i] - 1];
+            if (record.isbnHash == hash && record.isbnEquals(normalized)) {
+                return isbnSlots[i] - 1;
+            }
+        }
+        return NO_ROW;
+    }
+
+    private void addIsbn(int row) {
+        if (!rows[row].hasIsbn()) {
+            return;
+        }
+        if (isbnCount * 2 >= isbnSlots.length) {
+            int[] old = isbnSlots;
+            isbnSlots = new int[old.length * 2];
+            isbnCount = 0;
+            for (int slot : old) {
+                if (slot != 0) {
+                    addIsbn(slot - 1);
+                }
+            }
+        }
+        int mask = isbnSlots.length - 1;
+        int i = rows[row].isbnHash & mask;
+        while (isbnSlots[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        isbnSlots[i] = row + 1;
+        isbnCount++;
+    }
+
+    private void removeIsbn(int row) {
+        if (!rows[row].hasIsbn()) {
+            return;
+        }
+        int mask = isbnSlots.length - 1;
+        int i = rows[row].isbnHash & mask;
+        while (isbnSlots[i] != row + 1) {
+            i = (i + 1) & mask;
+        }
+        int gap = i;
+        for (int j = (i + 1) & mask; isbnSlots[j] != 0; j = (j + 1) & mask) {
+            int home = rows[isbnSlots[j] - 1].isbnHash & mask;
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                isbnSlots[gap] = isbnSlots[j];
+                gap = j;
+            }
+        }
+        isbnSlots[gap] = 0;
+        isbnCount--;
+    }
+}
@@ -0,0 +1,106 @@
+package com.godofredo.libraryapi.service.overdue;
+
+import com.godofredo.libraryapi.model.entity.Loan;
+import com.godofredo.libraryapi.model.entity.ScanCheckpoint;
+import com.godofredo.libraryapi.model.repository.LoanRepository;
+import com.godofredo.libraryapi.model.repository.ScanCheckpointRepository;
+import com.godofredo.libraryapi.service.event.LoanOverdueEvent;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Publishes a {@link LoanOverdueEvent} for every loan that became overdue since the previous run.
+ * <p>
+ * Overdue loans are read in (loanDate, id) order from the overdue index, after a persisted high-water
+ * mark, in chunks of one transaction each. A run only reads the loans that became eligible since the
+ * last one. Loans are created with the current date, so by the time a date is past the loan period no
+ * loan of that date can appear behind the mark. The checkpoint row is locked per chunk, so instances
+ * sharing the database take turns instead of publishing a loan twice. The checkpoint row is created
+ * on the first run, the instance losing that insert to another one goes on with the row of the other.
+ */
+@Component
+public class OverdueLoanScanner {
+
+    static final String CHECKPOINT = "overdue-loans";
+    static final String OVERDUE_METRIC = "library.loans.overdue";
+
+    private final LoanRepository loanRepository;
+    private final ScanCheckpointRepository checkpointRepository;
+    private final ApplicationEventPublisher publisher;
+    private final TransactionTemplate transaction;
+    private final int loanDays;
+    private final int chunkSize;
+
+    public OverdueLoanScanner(LoanRepository loanRepository, ScanCheckpointRepository checkpointRepository,
+                              ApplicationEventPublisher publisher, PlatformTransactionManager transactionManager,
+                              @Value("${library.loans.days:14}") int loanDays,
+                              @Value("${library.loans.overdue.chunk-size:500}") int chunkSize) {
+        this.loanRepository = loanRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.publisher = publisher;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.loanDays = loanDays;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(fixedDelayString = "${library.loans.overdue.scan-interval:PT5M}")
+    public void scheduledScan() {
+        scan(LocalDate.now());
+    }
+
+    /**
+     * @return the number of loans found overdue by this run
+     */
+    public int scan(LocalDate today) {
+        createCheckpoint();
+        LocalDate dueBefore = today.minusDays(loanDays);
+        int total = 0;
+        int found;
+        do {
+            found = transaction.execute(status -> scanChunk(dueBefore));
+            total += found;
+        } while (found == chunkSize);
+        return total;
+    }
+
+    private void createCheckpoint() {
+        try {
+            transaction.execute(status -> {
+                if (!checkpointRepository.existsById(CHECKPOINT)) {
+                    checkpointRepository.insert(ScanCheckpoint.start(CHECKPOINT));
+                }
+                return null;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // created by another instance since the check, its row is as good as ours
+        }
+    }
+
+    private int scanChunk(LocalDate dueBefore) {
+        ScanCheckpoint checkpoint = checkpointRepository.findByNameForUpdate(CHECKPOINT)
+                .orElseThrow(() -> new IllegalStateException("Missing scan checkpoint " + CHECKPOINT));
+        List<Loan> loans = loanRepository.findOverdueAfter(dueBefore, checkpoint.getLoanDate(), checkpoint.getLoanId(),
+                PageRequest.of(0, chunkSize));
+        if (loans.isEmpty()) {
+            return 0;
+        }
+        for (Loan loan : loans) {
+            publisher.publishEvent(new LoanOverdueEvent(loan));
+        }
+        Loan last = loans.get(loans.size() - 1);
+        checkpoint.setLoanDate(last.getLoanDate());
+        checkpoint.setLoanId(last.getId());
+        Metrics.counter(OVERDUE_METRIC).increment(loans.size());
+        return loans.size();
+    }
+}
@@ -0,0 +1,226 @@
+package com.godofredo.libraryapi.service.search;
+
+import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.model.repository.BookRepository;
+import com.godofredo.libraryapi.service.event.BookChangedEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In memory inverted index over book titles and authors.
+ *
+ * Terms are lower cased and stripped of accents. A query matches the books containing every one
+ * of its terms; a term ending with {@code *} matches as a prefix. Hits are ranked by the sum of
+ * the field weighted frequency times the idf of each matched term.
+ *
+ * The index is rebuilt from the database when the application starts and then follows the
+ * {@link BookChangedEvent}s of the committed writes. Changes that arrive during a rebuild are
+ * applied to the current index and replayed on the rebuilt one before it replaces it.
+ */
+@Component
+public class BookSearchIndex {
+
+    private static final float TITLE_WEIGHT = 2f;
+    private static final float AUTHOR_WEIGHT = 1f;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final BookRepository repository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private Map<Long, Set<String>> documents = new HashMap<>();
+    // the last change of each book during a rebuild, null for a removal; null when no rebuild runs
+    private Map<Long, Book> pending;
+
+    public BookSearchIndex(BookRepository repository) {
+        this.repository = repository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        NavigableMap<String, Map<Long, Float>> newPostings = new TreeMap<>();
+        Map<Long, Set<String>> newDocuments = new HashMap<>();
+        lock.writeLock().lock();
+        try {
+            pending = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        boolean built = false;
+        try {
+            List<Book> batch = repository.findAfter(null, Sort.Order.asc("id"), null, REBUILD_BATCH_SIZE);
+            while (!batch.isEmpty()) {
+                batch.forEach(book -> add(newPostings, newDocuments, book));
+                batch = repository.findAfter(null, Sort.Order.asc("id"), batch.get(batch.size() - 1), REBUILD_BATCH_SIZE);
+            }
+            built = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (built) {
+                    pending.forEach((id, book) -> {
+                        remove(newPostings, newDocuments, id);
+                        if (book != null) {
+                            add(newPostings, newDocuments, book);
+                        }
+                    });
+                    postings = newPostings;
+                    documents = newDocuments;
+                }
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.getType() == BookChangedEvent.Type.DELETED) {
+            remove(event.getBook().getId());
+        } else {
+            index(event.getBook());
+        }
+    }
+
+    public void index(Book book) {
+        lock.writeLock().lock();
+        try {
+            remove(postings, documents, book.getId());
+            add(postings, documents, book);
+            if (pending != null) {
+                pending.put(book.getId(), book);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            remove(postings, documents, id);
+            if (pending != null) {
+                pending.put(id, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the ids of the matching books, best ranked first
+     */
+    public List<Long> search(String query) {
+        List<String> terms = new ArrayList<>();
+        List<Boolean> prefixes = new ArrayList<>();
+        for (String word : query.trim().split("\\s+")) {
+            List<String> tokens = tokenize(word);
+            for (int i = 0; i < tokens.size(); i++) {
+                terms.add(tokens.get(i));
+                prefixes.add(word.endsWith("*") && i == tokens.size() - 1);
+            }
+        }
+        if (terms.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Float> scores = null;
+            for (int i = 0; i < terms.size(); i++) {
+                Map<Long, Float> termScores = score(terms.get(i), prefixes.get(i));
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((id, score) -> score + termScores.get(id));
+                }
+                if (scores.isEmpty()) {
+                    break;
+                }
+            }
+            List<Map.Entry<Long, Float>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort(Map.Entry.<Long, Float>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry.comparingByKey()));
+            List<Long> ids = new ArrayList<>(ranked.size());
+            ranked.forEach(entry -> ids.add(entry.getKey()));
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Float> score(String term, boolean prefix) {
+        Map<String, Map<Long, Float>> matched = postings.subMap(term, true, prefix ? term + Character.MAX_VALUE : term, true);
+        Map<Long, Float> scores = new HashMap<>();
+        for (Map<Long, Float> docs : matched.values()) {
+            float idf = (float) Math.log(1 + (double) documents.size() / docs.size());
+            docs.forEach((id, weight) -> scores.merge(id, weight * idf, Float::sum));
+        }
+        return scores;
+    }
+
+    private static void add(NavigableMap<String, Map<Long, Float>> postings, Map<Long, Set<String>> documents, Book book) {
+        Map<String, Float> weights = new HashMap<>();
+        tokenize(book.getTitle()).forEach(term -> weights.merge(term, TITLE_WEIGHT, Float::sum));
+        tokenize(book.getAuthor()).forEach(term -> weights.merge(term, AUTHOR_WEIGHT, Float::sum));
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(book.getId(), weight));
+        documents.put(book.getId(), new HashSet<>(weights.keySet()));
+    }
+
+    private static void remove(NavigableMap<String, Map<Long, Float>> postings, Map<Long, Set<String>> documents, Long id) {
+        Set<String> terms = documents.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Float> docs = postings.get(term);
+            docs.remove(id);
+            if (docs.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+        for (String token : folded.split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,146 @@
+package com.godofredo.libraryapi.api.resource;
+
+import com.godofredo.libraryapi.api.BookDTO;
+import com.godofredo.libraryapi.api.dto.LoanDTO;
+import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.model.entity.BookAvailability;
+import com.godofredo.libraryapi.model.repository.BookRepository;
+import com.godofredo.libraryapi.model.repository.reactive.ReactiveBookRepository;
+import com.godofredo.libraryapi.service.AvailabilityService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles({"test", "reactive"})
+@SpringBootTest(properties = "spring.main.web-application-type=reactive")
+@AutoConfigureWebTestClient
+public class ReactiveApiTest {
+
+    static final String BOOK_API = "/api/books";
+    static final String LOAN_API = "/api/loans";
+
+    @Autowired
+    WebTestClient client;
+
+    @Autowired
+    AvailabilityService availabilityService;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    ReactiveBookRepository reactiveBookRepository;
+
+    @Test
+    @DisplayName("Create, read, update, find and delete a book on the reactive stack")
+    public void bookLifecycleTest() {
+        BookDTO created = client.post().uri(BOOK_API).contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(BookDTO.builder().title("Steve Jobs").author("Walter Isaacson").isbn("reactive-1").build())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(BookDTO.class).returnResult().getResponseBody();
+        assertThat(created.getId()).isNotNull();
+
+        String etag = client.get().uri(BOOK_API + "/" + created.getId()).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("title").isEqualTo("Steve Jobs")
+                .returnResult().getResponseHeaders().getETag();
+        client.get().uri(BOOK_API + "/" + created.getId()).header(HttpHeaders.IF_NONE_MATCH, etag).exchange()
+                .expectStatus().isNotModified();
+
+        client.put().uri(BOOK_API + "/" + created.getId() + "?title=Steve&author=Walter").header(HttpHeaders.IF_MATCH, etag).exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"")
+                .expectBody().jsonPath("title").isEqualTo("Steve");
+        client.put().uri(BOOK_API + "/" + created.getId() + "?title=Jobs&author=Walter").header(HttpHeaders.IF_MATCH, etag).exchange()
+                .expectStatus().isEqualTo(412);
+
+        client.get().uri(BOOK_API + "?author=walt&page=0&size=10").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("content[0].id").isEqualTo(created.getId().intValue())
+                .jsonPath("total").isEqualTo(1)
+                .jsonPath("size").isEqualTo(10);
+
+        client.delete().uri(BOOK_API + "/" + created.getId()).exchange().expectStatus().isNoContent();
+        client.get().uri(BOOK_API + "/" + created.getId()).exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("errors[0]").isEqualTo("No book with this id");
+    }
+
+    @Test
+    @DisplayName("Give JPA and R2DBC inserts distinct ids from the shared sequence")
+    public void interleavedIdsTest() {
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 120; i++) {
+            Book book = Book.builder().title("Title").author("Author").isbn("interleaved-" + i).build();
+            Long id = i % 2 == 0
+                    ? bookRepository.save(book).getId()
+                    : reactiveBookRepository.insert(book).block().getId();
+            assertThat(ids.add(id)).as("id %s", id).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Reject invalid and duplicated books with the servlet stack's errors")
+    public void bookErrorsTest() {
+        client.post().uri(BOOK_API).contentType(MediaType.APPLICATION_JSON).bodyValue(new BookDTO()).exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("errors.length()").isEqualTo(3);
+
+        BookDTO book = BookDTO.builder().title("Dune").author("Frank Herbert").isbn("reactive-2").build();
+        client.post().uri(BOOK_API).contentType(MediaType.APPLICATION_JSON).bodyValue(book).exchange()
+                .expectStatus().isCreated();
+        client.post().uri(BOOK_API).contentType(MediaType.APPLICATION_JSON).bodyValue(book).exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("errors[0]").isEqualTo("Duplicated Isbn");
+    }
+
+    @Test
+    @DisplayName("Loan a book once, keeping its availability")
+    public void loanTest() {
+        BookDTO book = client.post().uri(BOOK_API).contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(BookDTO.builder().title("Clean Code").author("Robert Martin").isbn("reactive-3").build())
+                .exchange()
+                .expectBody(BookDTO.class).returnResult().getResponseBody();
+        LoanDTO loan = LoanDTO.builder().isbn("reactive-3").customer("Neo").build();
+
+        client.post().uri(LOAN_API).contentType(MediaType.APPLICATION_JSON).bodyValue(loan).exchange()
+                .expectStatus().isCreated()
+                .expectBody(Long.class).value(id -> assertThat(id).isPositive());
+        client.post().uri(LOAN_API).contentType(MediaType.APPLICATION_JSON).bodyValue(loan).exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("errors[0]").isEqualTo("Book already loaned");
+        client.post().uri(LOAN_API).contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(LoanDTO.builder().isbn("reactive-4").customer("Neo").build()).exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("errors[0]").isEqualTo("Book not found for passed isbn");
+        client.post().uri(LOAN_API).contentType(MediaType.APPLICATION_JSON).bodyValue(new LoanDTO()).exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("errors.length()").isEqualTo(2);
+
+        // written through R2DBC, read through JPA
+        BookAvailability availability = availabilityService.getAvailability(book.getId());
+        assertThat(availability.getActiveLoans()).isEqualTo(1);
+        assertThat(availability.getLastLoanDate()).isEqualTo(LocalDate.now());
+
+        client.get().uri(LOAN_API + "/overdue?page=0&size=10").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("content.length()").isEqualTo(0).jsonPath("total").isEqualTo(0);
+    }
+}
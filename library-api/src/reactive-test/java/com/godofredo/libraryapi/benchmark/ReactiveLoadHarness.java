@@ -0,0 +1,116 @@
+package com.godofredo.libraryapi.benchmark;
+
+import com.godofredo.libraryapi.model.repository.BookRepository;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load test of the servlet/JPA and the reactive/R2DBC stacks on the read endpoints. {@code connections}
+ * clients, each on its own keep-alive connection, keep reading books by id, one request in a hundred a page
+ * of the books of an author. The client is non blocking, so it holds that many connections on a few
+ * threads. Prints the throughput, the failures and the latency percentiles of each stack, after a
+ * warm up that is not recorded.
+ * <p>
+ * Usage: {@code ReactiveLoadHarness [connections] [seconds] [warmupSeconds]}. Client and server share the
+ * process: 10,000 connections need about 20,000 file descriptors.
+ */
+public class ReactiveLoadHarness {
+
+    private static final int BOOKS = 50_000;
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int warmup = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        for (boolean reactive : new boolean[]{false, true}) {
+            String database = "reactive_load_" + reactive;
+            ConfigurableApplicationContext context = reactive
+                    ? BenchmarkContext.start(WebApplicationType.REACTIVE, database,
+                            "spring.profiles.active=reactive",
+                            "library.reactive.r2dbc.url=r2dbc:h2:mem:///" + database)
+                    : BenchmarkContext.start(WebApplicationType.SERVLET, database,
+                            "server.tomcat.max-connections=" + (connections + 100));
+            try {
+                BenchmarkContext.seedBooks(context.getBean(BookRepository.class), "load-", BOOKS);
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                run(reactive ? "reactive" : "servlet", port, connections, seconds, warmup);
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    private static void run(String stack, int port, int connections, int seconds, int warmup) {
+        LoopResources loops = LoopResources.create("harness");
+        ConnectionProvider pool = ConnectionProvider.fixed("harness", connections, TimeUnit.MINUTES.toMillis(1));
+        HttpClient client = HttpClient.create(pool).tcpConfiguration(tcp -> tcp.runOn(loops)).baseUrl("http://localhost:" + port);
+        AtomicLong firstId = new AtomicLong();
+        client.get().uri("/api/books?page=0&size=1&sort=id").responseSingle((response, body) -> body.asString())
+                .map(body -> Long.parseLong(body.replaceAll("(?s).*?\"id\":(\\d+).*", "$1")))
+                .doOnNext(firstId::set)
+                .block(Duration.ofSeconds(30));
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicBoolean recording = new AtomicBoolean(false);
+        Recorder recorder = new Recorder(3);
+        AtomicLong ok = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        Flux<Integer> load = Flux.range(0, connections).flatMap(user -> Mono.defer(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            String path = random.nextInt(100) == 0
+                    ? "/api/books?author=Author%20" + random.nextInt(500) + "&page=0&size=20"
+                    : "/api/books/" + (firstId.get() + random.nextInt(BOOKS));
+            long start = System.nanoTime();
+            return client.get().uri(path)
+                    .responseSingle((response, body) -> body.then(Mono.just(response.status().code())))
+                    .onErrorReturn(-1)
+                    .doOnNext(status -> {
+                        if (recording.get()) {
+                            recorder.recordValue(System.nanoTime() - start);
+                            (status == 200 ? ok : failed).incrementAndGet();
+                        }
+                    });
+        }).repeat(running::get), connections);
+
+        Thread timer = new Thread(() -> {
+            sleep(TimeUnit.SECONDS.toMillis(warmup));
+            recorder.reset();
+            recording.set(true);
+            sleep(TimeUnit.SECONDS.toMillis(seconds));
+            recording.set(false);
+            running.set(false);
+        });
+        timer.start();
+        load.blockLast();
+
+        Histogram latencies = recorder.getIntervalHistogram();
+        System.out.printf("%-8s connections=%d requests/s=%.0f failed=%d latency p50=%.1fms p99=%.1fms p999=%.1fms max=%.1fms%n",
+                stack, connections, ok.get() / (double) seconds, failed.get(),
+                latencies.getValueAtPercentile(50) / 1e6, latencies.getValueAtPercentile(99) / 1e6,
+                latencies.getValueAtPercentile(99.9) / 1e6, latencies.getMaxValue() / 1e6);
+        pool.dispose();
+        loops.dispose();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.godofredo.libraryapi.api.resource;
+
+import com.godofredo.libraryapi.api.BookDTO;
+import com.godofredo.libraryapi.api.dto.PageDTO;
+import com.godofredo.libraryapi.api.mapper.BookMapper;
+import com.godofredo.libraryapi.api.validation.RequestValidator;
+import com.godofredo.libraryapi.exception.BusinessException;
+import com.godofredo.libraryapi.exception.ErrorCode;
+import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.service.reactive.ReactiveBookService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * {@link BookController} of the {@code reactive} profile: the create, read, update, delete and find
+ * endpoints, with the same validation, errors, ETags and page envelope.
+ */
+@RestController
+@RequestMapping("/api/books")
+@Profile("reactive")
+public class ReactiveBookController {
+
+    private final ReactiveBookService service;
+    private final BookMapper mapper;
+
+    public ReactiveBookController(ReactiveBookService service, BookMapper mapper) {
+        this.service = service;
+        this.mapper = mapper;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<BookDTO> create(@RequestBody BookDTO bookDTO){
+        RequestValidator.validate(bookDTO);
+        return service.save(mapper.toEntity(bookDTO)).map(mapper::toDto);
+    }
+
+    @GetMapping("{id}")
+    public Mono<BookDTO> get(@PathVariable Long id, ServerWebExchange exchange){
+        return service.getById(id)
+                .switchIfEmpty(Mono.error(() -> new BusinessException(ErrorCode.UNKNOWN_BOOK)))
+                .filter(book -> !exchange.checkNotModified(BookController.etag(book), lastModified(book)))
+                .map(mapper::toDto);
+    }
+
+    @PutMapping("{id}")
+    public Mono<BookDTO> update(@PathVariable Long id, BookDTO bookDTO,
+                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                ServerWebExchange exchange){
+        return service.getById(id)
+                .switchIfEmpty(Mono.error(() -> new BusinessException(ErrorCode.UNKNOWN_BOOK)))
+                .flatMap(book -> {
+                    // the version check of the update closes the window between this check and the write
+                    if (ifMatch != null && !ifMatch.equals("*") && !ifMatch.equals(BookController.etag(book))) {
+                        return Mono.error(new BusinessException(ErrorCode.BOOK_MODIFIED));
+                    }
+                    book.setAuthor(bookDTO.getAuthor());
+                    book.setTitle(bookDTO.getTitle());
+                    return service.update(book)
+                            .onErrorMap(OptimisticLockingFailureException.class,
+                                    e -> new BusinessException(ErrorCode.BOOK_MODIFIED));
+                })
+                .map(book -> {
+                    exchange.getResponse().getHeaders().setETag(BookController.etag(book));
+                    return mapper.toDto(book);
+                });
+    }
+
+    @DeleteMapping("{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> delete(@PathVariable Long id){
+        return service.getById(id)
+                .switchIfEmpty(Mono.error(() -> new BusinessException(ErrorCode.UNKNOWN_BOOK)))
+                .flatMap(service::delete);
+    }
+
+    @GetMapping
+    public Mono<PageDTO<BookDTO>> find(BookDTO bookDTO, Pageable pageRequest, ServerWebExchange exchange){
+        return service.find(mapper.toEntity(bookDTO), pageRequest)
+                .filter(result -> !exchange.checkNotModified(BookController.etag(result)))
+                .map(result -> PageDTO.of(mapper.toDto(result.getContent()), result));
+    }
+
+    private static Instant lastModified(Book book) {
+        return book.getLastModified() == null ? Instant.EPOCH : book.getLastModified();
+    }
+}
@@ -0,0 +1,46 @@
+package com.godofredo.libraryapi.api.resource;
+
+import com.godofredo.libraryapi.api.dto.LoanDTO;
+import com.godofredo.libraryapi.api.dto.PageDTO;
+import com.godofredo.libraryapi.api.mapper.LoanMapper;
+import com.godofredo.libraryapi.api.validation.RequestValidator;
+import com.godofredo.libraryapi.model.entity.Loan;
+import com.godofredo.libraryapi.service.reactive.ReactiveLoanService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * {@link LoanController} of the {@code reactive} profile: loans of single books and the overdue loans.
+ */
+@RestController
+@RequestMapping("/api/loans")
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveLoanController {
+
+    private final ReactiveLoanService loanService;
+    private final LoanMapper mapper;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Long> create(@RequestBody LoanDTO loanDTO){
+        RequestValidator.validate(loanDTO);
+        return loanService.create(loanDTO.getIsbn(), loanDTO.getCustomer(), LocalDate.now()).map(Loan::getId);
+    }
+
+    @GetMapping("overdue")
+    public Mono<PageDTO<LoanDTO>> overdue(Pageable pageRequest){
+        return loanService.getOverdue(LocalDate.now(), pageRequest).map(result -> {
+            List<LoanDTO> list = result.getContent().stream().map(mapper::toDto).collect(Collectors.toList());
+            return PageDTO.of(list, result);
+        });
+    }
+}
@@ -0,0 +1,51 @@
+package com.godofredo.libraryapi.model.repository.reactive;
+
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ids from a database sequence incremented by {@code increment}, handed out as Hibernate's pooled
+ * optimizer does: a fetched value {@code hi} reserves the ids from {@code hi - increment + 1} to
+ * {@code hi}, so these ids and the ones of the JPA side never collide. The start value 1 reserves only
+ * itself: Hibernate reserves 1 up to the value it fetches next, 1 to 51 on a sequence nobody else
+ * uses. Only every {@code increment}-th id costs a round trip.
+ */
+public class PooledSequence {
+
+    private final DatabaseClient client;
+    private final String sql;
+    private final int increment;
+
+    private long next;
+    private long limit;
+
+    public PooledSequence(DatabaseClient client, String sequence, int increment) {
+        this.client = client;
+        this.sql = "select next value for " + sequence;
+        this.increment = increment;
+    }
+
+    public Mono<Long> next() {
+        synchronized (this) {
+            if (next < limit) {
+                return Mono.just(next++);
+            }
+        }
+        return fetch().flatMap(hi -> {
+            synchronized (this) {
+                // a concurrent fetch may have refilled the block already, this one is then wasted
+                if (next >= limit) {
+                    next = Math.max(hi - increment + 1, 1);
+                    limit = hi + 1;
+                }
+            }
+            return next();
+        });
+    }
+
+    private Mono<Long> fetch() {
+        return client.execute(sql)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+}
@@ -0,0 +1,204 @@
+package com.godofredo.libraryapi.model.repository.reactive;
+
+import com.godofredo.libraryapi.exception.BusinessException;
+import com.godofredo.libraryapi.exception.ErrorCode;
+import com.godofredo.libraryapi.model.entity.Book;
+import io.r2dbc.spi.Row;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Book table access of the {@code reactive} profile, in SQL over R2DBC. Writes keep the columns the
+ * JPA side maintains: the normalized isbn, the version and the last modification.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveBookRepository {
+
+    private static final String COLUMNS = "book_id, title, author, isbn, version, last_modified";
+    private static final Map<String, String> SORT_COLUMNS = new HashMap<>();
+
+    static {
+        SORT_COLUMNS.put("id", "book_id");
+        SORT_COLUMNS.put("title", "title");
+        SORT_COLUMNS.put("author", "author");
+        SORT_COLUMNS.put("isbn", "isbn");
+    }
+
+    private final DatabaseClient client;
+    private final PooledSequence sequence;
+
+    public ReactiveBookRepository(DatabaseClient client) {
+        this.client = client;
+        this.sequence = new PooledSequence(client, "book_seq", 50);
+    }
+
+    public Mono<Book> findById(Long id) {
+        return client.execute("select " + COLUMNS + " from book where book_id = :id")
+                .bind("id", id)
+                .map(ReactiveBookRepository::toBook)
+                .one();
+    }
+
+    public Mono<Book> findByNormalizedIsbnForUpdate(String normalizedIsbn) {
+        return client.execute("select " + COLUMNS + " from book where normalized_isbn = :isbn for update")
+                .bind("isbn", normalizedIsbn)
+                .map(ReactiveBookRepository::toBook)
+                .one();
+    }
+
+    /**
+     * @return the book with its id and first version, a duplicated isbn fails with a DataIntegrityViolationException
+     */
+    public Mono<Book> insert(Book book) {
+        Instant now = Instant.now();
+        return sequence.next().flatMap(id -> bind(client.execute("insert into book (" + COLUMNS + ", normalized_isbn) " +
+                        "values (:id, :title, :author, :isbn, 0, :lastModified, :normalizedIsbn)"), book)
+                .bind("id", id)
+                .bind("lastModified", timestamp(now))
+                .fetch()
+                .rowsUpdated()
+                .thenReturn(book.toBuilder().id(id).version(0L).lastModified(now).normalizedIsbn(Book.normalizeIsbn(book.getIsbn())).build()));
+    }
+
+    /**
+     * Writes the book if it still has the version it was read with.
+     *
+     * @throws OptimisticLockingFailureException when the book was modified or deleted since
+     */
+    public Mono<Book> update(Book book) {
+        Instant now = Instant.now();
+        return bind(client.execute("update book set title = :title, author = :author, isbn = :isbn, " +
+                        "normalized_isbn = :normalizedIsbn, version = version + 1, last_modified = :lastModified " +
+                        "where book_id = :id and version = :version"), book)
+                .bind("id", book.getId())
+                .bind("version", book.getVersion())
+                .bind("lastModified", timestamp(now))
+                .fetch()
+                .rowsUpdated()
+                .flatMap(updated -> updated == 0
+                        ? Mono.error(new OptimisticLockingFailureException("Book was modified"))
+                        : Mono.just(book.toBuilder().version(book.getVersion() + 1).lastModified(now).build()));
+    }
+
+    /**
+     * Deletes the book and its availability, a book with loans fails with a DataIntegrityViolationException.
+     */
+    public Mono<Void> delete(Book book) {
+        return client.execute("delete from book_availability where book_id = :id")
+                .bind("id", book.getId())
+                .then()
+                .then(client.execute("delete from book where book_id = :id")
+                        .bind("id", book.getId())
+                        .then());
+    }
+
+    /**
+     * Books whose title, author and isbn contain those of the filter, ignoring case, as the
+     * example query of the JPA side matches them.
+     */
+    public Flux<Book> find(Book filter, Pageable pageable) {
+        StringBuilder sql = new StringBuilder("select ").append(COLUMNS).append(" from book");
+        where(sql, filter);
+        sql.append(" order by ");
+        for (Sort.Order order : pageable.getSort()) {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new BusinessException(ErrorCode.INVALID_SORT_PROPERTY);
+            }
+            sql.append(column).append(order.isAscending() ? " asc, " : " desc, ");
+        }
+        sql.append("book_id limit :limit offset :offset");
+        return bindFilter(client.execute(sql.toString()), filter)
+                .bind("limit", pageable.getPageSize())
+                .bind("offset", pageable.getOffset())
+                .map(ReactiveBookRepository::toBook)
+                .all();
+    }
+
+    public Mono<Long> count(Book filter) {
+        StringBuilder sql = new StringBuilder("select count(*) from book");
+        where(sql, filter);
+        return bindFilter(client.execute(sql.toString()), filter)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    private static void where(StringBuilder sql, Book filter) {
+        String separator = " where ";
+        for (String column : new String[]{"title", "author", "isbn"}) {
+            if (value(filter, column) != null) {
+                sql.append(separator).append("lower(").append(column).append(") like :").append(column).append(" escape '\\'");
+                separator = " and ";
+            }
+        }
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindFilter(DatabaseClient.GenericExecuteSpec spec, Book filter) {
+        for (String column : new String[]{"title", "author", "isbn"}) {
+            String value = value(filter, column);
+            if (value != null) {
+                spec = spec.bind(column, "%" + value.toLowerCase()
+                        .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%");
+            }
+        }
+        return spec;
+    }
+
+    private static String value(Book filter, String column) {
+        switch (column) {
+            case "title":
+                return filter.getTitle();
+            case "author":
+                return filter.getAuthor();
+            default:
+                return filter.getIsbn();
+        }
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, Book book) {
+        spec = bind(spec, "title", book.getTitle());
+        spec = bind(spec, "author", book.getAuthor());
+        spec = bind(spec, "isbn", book.getIsbn());
+        return bind(spec, "normalizedIsbn", Book.normalizeIsbn(book.getIsbn()));
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, String name, String value) {
+        return value == null ? spec.bindNull(name, String.class) : spec.bind(name, value);
+    }
+
+    static Book toBook(Row row) {
+        return Book.builder()
+                .id(row.get("book_id", Long.class))
+                .title(row.get("title", String.class))
+                .author(row.get("author", String.class))
+                .isbn(row.get("isbn", String.class))
+                .version(row.get("version", Long.class))
+                .lastModified(instant(row.get("last_modified", LocalDateTime.class)))
+                .build();
+    }
+
+    /**
+     * Hibernate writes the Instant of the last modification as a timestamp in the zone of the JVM,
+     * the H2 driver has no Instant codec: both go through the local date time of that zone.
+     */
+    private static LocalDateTime timestamp(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    private static Instant instant(LocalDateTime timestamp) {
+        return timestamp == null ? null : timestamp.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
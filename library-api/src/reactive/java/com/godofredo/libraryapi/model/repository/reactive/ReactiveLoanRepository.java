@@ -0,0 +1,99 @@
+package com.godofredo.libraryapi.model.repository.reactive;
+
+import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.model.entity.Loan;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * Loan and availability table access of the {@code reactive} profile, in SQL over R2DBC.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveLoanRepository {
+
+    private final DatabaseClient client;
+    private final PooledSequence sequence;
+
+    public ReactiveLoanRepository(DatabaseClient client) {
+        this.client = client;
+        this.sequence = new PooledSequence(client, "loan_seq", 50);
+    }
+
+    public Mono<Boolean> existsActive(Long bookId) {
+        return client.execute("select count(*) from loan where book_id = :bookId and returned = false")
+                .bind("bookId", bookId)
+                .map(row -> row.get(0, Long.class) > 0)
+                .one();
+    }
+
+    public Mono<Loan> insert(Loan loan) {
+        return sequence.next().flatMap(id -> client.execute("insert into loan (id, customer, book_id, loan_date, returned) " +
+                        "values (:id, :customer, :bookId, :loanDate, :returned)")
+                .bind("id", id)
+                .bind("customer", loan.getCustomer())
+                .bind("bookId", loan.getBook().getId())
+                .bind("loanDate", loan.getLoanDate())
+                .bind("returned", loan.getReturned())
+                .fetch()
+                .rowsUpdated()
+                .then(Mono.fromSupplier(() -> {
+                    loan.setId(id);
+                    return loan;
+                })));
+    }
+
+    /**
+     * Counts the checkout in the availability of the book, creating the row of a first loan. The
+     * caller holds the row lock of the book.
+     */
+    public Mono<Void> checkout(Long bookId, LocalDate loanDate) {
+        return client.execute("update book_availability set active_loans = active_loans + 1, " +
+                        "total_checkouts = total_checkouts + 1, version = version + 1, " +
+                        "last_loan_date = case when last_loan_date is null or last_loan_date < :loanDate " +
+                        "then :loanDate else last_loan_date end where book_id = :bookId")
+                .bind("bookId", bookId)
+                .bind("loanDate", loanDate)
+                .fetch()
+                .rowsUpdated()
+                .flatMap(updated -> updated > 0 ? Mono.<Void>empty() : client.execute(
+                        "insert into book_availability (book_id, active_loans, total_checkouts, last_loan_date, version) " +
+                                "values (:bookId, 1, 1, :loanDate, 0)")
+                        .bind("bookId", bookId)
+                        .bind("loanDate", loanDate)
+                        .then());
+    }
+
+    /**
+     * Active loans taken before the date, oldest first, with the id and isbn of their book.
+     */
+    public Flux<Loan> findOverdue(LocalDate dueBefore, Pageable pageable) {
+        return client.execute("select l.id, l.customer, l.loan_date, l.returned, b.book_id, b.isbn from loan l " +
+                        "join book b on b.book_id = l.book_id where l.returned = false and l.loan_date < :dueBefore " +
+                        "order by l.loan_date, l.id limit :limit offset :offset")
+                .bind("dueBefore", dueBefore)
+                .bind("limit", pageable.getPageSize())
+                .bind("offset", pageable.getOffset())
+                .map(row -> Loan.builder()
+                        .id(row.get("id", Long.class))
+                        .customer(row.get("customer", String.class))
+                        .loanDate(row.get("loan_date", LocalDate.class))
+                        .returned(row.get("returned", Boolean.class))
+                        .book(Book.builder().id(row.get("book_id", Long.class)).isbn(row.get("isbn", String.class)).build())
+                        .build())
+                .all();
+    }
+
+    public Mono<Long> countOverdue(LocalDate dueBefore) {
+        return client.execute("select count(*) from loan where returned = false and loan_date < :dueBefore")
+                .bind("dueBefore", dueBefore)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+}
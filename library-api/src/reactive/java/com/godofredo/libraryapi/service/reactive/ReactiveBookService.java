@@ -0,0 +1,71 @@
+package com.godofredo.libraryapi.service.reactive;
+
+import com.godofredo.libraryapi.exception.BusinessException;
+import com.godofredo.libraryapi.exception.ErrorCode;
+import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.model.repository.reactive.ReactiveBookRepository;
+import com.godofredo.libraryapi.service.event.BookChangedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+/**
+ * Book service of the {@code reactive} profile. Writes publish the same {@link BookChangedEvent}s as
+ * {@code BookServiceImp}, once they are committed, so the search index and the journal follow them.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveBookService {
+
+    private final ReactiveBookRepository repository;
+    private final ApplicationEventPublisher publisher;
+    private final TransactionalOperator transactionalOperator;
+
+    public ReactiveBookService(ReactiveBookRepository repository, ApplicationEventPublisher publisher,
+                               TransactionalOperator transactionalOperator) {
+        this.repository = repository;
+        this.publisher = publisher;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    public Mono<Book> save(Book book) {
+        // the unique isbn index is the duplicate check
+        return repository.insert(book)
+                .onErrorMap(DataIntegrityViolationException.class, e -> new BusinessException(ErrorCode.DUPLICATED_ISBN))
+                .doOnNext(saved -> publisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.CREATED, saved)));
+    }
+
+    public Mono<Book> getById(Long id) {
+        return repository.findById(id);
+    }
+
+    public Mono<Book> update(Book book) {
+        if (book == null || book.getId() == null) {
+            return Mono.error(new IllegalArgumentException("Book id can't be null "));
+        }
+        return repository.update(book)
+                .doOnNext(updated -> publisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.UPDATED, updated)));
+    }
+
+    public Mono<Void> delete(Book book) {
+        if (book == null || book.getId() == null) {
+            return Mono.error(new IllegalArgumentException("Book id can't be null "));
+        }
+        // the foreign key of the loans keeps a book that was ever loaned
+        return repository.delete(book)
+                .as(transactionalOperator::transactional)
+                .onErrorMap(DataIntegrityViolationException.class, e -> new BusinessException(ErrorCode.BOOK_HAS_LOANS))
+                .doOnSuccess(done -> publisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.DELETED, book)));
+    }
+
+    public Mono<Page<Book>> find(Book filter, Pageable pageRequest) {
+        return Mono.zip(repository.find(filter, pageRequest).collectList(), repository.count(filter))
+                .map(page -> new PageImpl<>(page.getT1(), pageRequest, page.getT2()));
+    }
+}
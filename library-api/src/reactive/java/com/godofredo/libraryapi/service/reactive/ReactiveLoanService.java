@@ -0,0 +1,64 @@
+package com.godofredo.libraryapi.service.reactive;
+
+import com.godofredo.libraryapi.exception.BusinessException;
+import com.godofredo.libraryapi.exception.ErrorCode;
+import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.model.entity.Loan;
+import com.godofredo.libraryapi.model.repository.reactive.ReactiveBookRepository;
+import com.godofredo.libraryapi.model.repository.reactive.ReactiveLoanRepository;
+import com.godofredo.libraryapi.service.event.LoanChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * Loan service of the {@code reactive} profile: the same checks and writes as {@code LoanServiceImpl},
+ * availability included, in one reactive transaction.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveLoanService {
+
+    private final ReactiveLoanRepository repository;
+    private final ReactiveBookRepository bookRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final ApplicationEventPublisher publisher;
+    private final int loanDays;
+
+    public ReactiveLoanService(ReactiveLoanRepository repository, ReactiveBookRepository bookRepository,
+                               TransactionalOperator transactionalOperator, ApplicationEventPublisher publisher,
+                               @Value("${library.loans.days:14}") int loanDays) {
+        this.repository = repository;
+        this.bookRepository = bookRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.publisher = publisher;
+        this.loanDays = loanDays;
+    }
+
+    public Mono<Loan> create(String isbn, String customer, LocalDate loanDate) {
+        // the row lock on the book serializes concurrent loans of the same book until commit
+        Mono<Loan> loan = bookRepository.findByNormalizedIsbnForUpdate(Book.normalizeIsbn(isbn))
+                .switchIfEmpty(Mono.error(() -> new BusinessException(ErrorCode.ISBN_NOT_FOUND)))
+                .flatMap(book -> repository.existsActive(book.getId())
+                        .flatMap(loaned -> loaned
+                                ? Mono.<Loan>error(new BusinessException(ErrorCode.BOOK_ALREADY_LOANED))
+                                : repository.insert(Loan.builder().customer(customer).book(book).loanDate(loanDate).returned(false).build()))
+                        .flatMap(saved -> repository.checkout(book.getId(), loanDate).thenReturn(saved)));
+        return loan.as(transactionalOperator::transactional)
+                .doOnNext(saved -> publisher.publishEvent(new LoanChangedEvent(LoanChangedEvent.Type.LOANED, saved)));
+    }
+
+    public Mono<Page<Loan>> getOverdue(LocalDate today, Pageable pageable) {
+        LocalDate dueBefore = today.minusDays(loanDays);
+        return Mono.zip(repository.findOverdue(dueBefore, pageable).collectList(), repository.countOverdue(dueBefore))
+                .map(page -> new PageImpl<>(page.getT1(), pageable, page.getT2()));
+    }
+}
@@ -0,0 +1,61 @@
+package com.godofredo.libraryapi.api.admission;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class RateLimiterTest {
+
+    static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("Let a burst through, then one request per refill")
+    public void burstAndRefillTest() {
+        RateLimiter limiter = new RateLimiter(3, 2, 100);
+        long now = 1_000 * SECOND;
+
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertThat(limiter.tryAcquire("client", now)).isZero();
+        }
+        Assertions.assertThat(limiter.tryAcquire("client", now)).isEqualTo(SECOND / 2);
+        Assertions.assertThat(limiter.tryAcquire("other", now)).isZero();
+
+        Assertions.assertThat(limiter.tryAcquire("client", now + SECOND / 2)).isZero();
+        Assertions.assertThat(limiter.tryAcquire("client", now + SECOND / 2)).isEqualTo(SECOND / 2);
+        Assertions.assertThat(limiter.tryAcquire("client", now + 2 * SECOND)).isZero();
+    }
+
+    @Test
+    @DisplayName("Evict the clients whose bucket refilled")
+    public void evictIdleTest() {
+        RateLimiter limiter = new RateLimiter(2, 1, 100);
+        long now = 1_000 * SECOND;
+        limiter.tryAcquire("idle", now);
+        limiter.tryAcquire("busy", now + 5 * SECOND);
+        limiter.tryAcquire("busy", now + 5 * SECOND);
+
+        Assertions.assertThat(limiter.evictIdle(now + 5 * SECOND)).isEqualTo(1);
+        Assertions.assertThat(limiter.size()).isEqualTo(1);
+        Assertions.assertThat(limiter.tryAcquire("busy", now + 5 * SECOND)).isPositive();
+    }
+
+    @Test
+    @DisplayName("Share one bucket among the clients past the limit")
+    public void maxKeysTest() {
+        RateLimiter limiter = new RateLimiter(2, 1, 2);
+        long now = 1_000 * SECOND;
+        limiter.tryAcquire("first", now);
+        limiter.tryAcquire("second", now);
+
+        Assertions.assertThat(limiter.tryAcquire("third", now)).isZero();
+        Assertions.assertThat(limiter.tryAcquire("fourth", now)).isZero();
+        Assertions.assertThat(limiter.tryAcquire("fifth", now)).isPositive();
+        Assertions.assertThat(limiter.size()).isEqualTo(2);
+
+        limiter.evictIdle(now + 5 * SECOND);
+        Assertions.assertThat(limiter.tryAcquire("fifth", now + 5 * SECOND)).isZero();
+        Assertions.assertThat(limiter.size()).isEqualTo(1);
+    }
+}
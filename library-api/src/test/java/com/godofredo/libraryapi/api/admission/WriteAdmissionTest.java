@@ -0,0 +1,133 @@
+package com.godofredo.libraryapi.api.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.godofredo.libraryapi.api.BookDTO;
+import com.godofredo.libraryapi.api.resource.BookController;
+import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.service.BookService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@WebMvcTest(controllers = BookController.class)
+@TestPropertySource(properties = {
+        "library.writes.rate-limit.burst=2",
+        "library.writes.rate-limit.refill-per-second=0.1",
+        "library.writes.max-in-flight=1",
+        "library.writes.acquire-timeout=0ms"
+})
+public class WriteAdmissionTest {
+
+    static final String BOOK_API = "/api/books";
+
+    @Autowired
+    MockMvc mvc;
+
+    @MockBean
+    BookService service;
+
+    @Test
+    @DisplayName("Answer 429 with Retry-After to a client over its rate")
+    public void rateLimitTest() throws Exception {
+        BDDMockito.given(service.save(Mockito.any(Book.class)))
+                .willReturn(Book.builder().id(1L).title("Steve Jobs").author("Walter Isaacson").isbn("123").build());
+
+        mvc.perform(create("flooder")).andExpect(status().isCreated());
+        mvc.perform(create("flooder")).andExpect(status().isCreated());
+        mvc
+                .perform(create("flooder"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "10"))
+                .andExpect(jsonPath("errors[0]").value("Too many requests, retry later"));
+
+        mvc.perform(create("polite")).andExpect(status().isCreated());
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API + "/1").with(from("flooder")))
+                .andExpect(status().isNotFound());
+        Mockito.verify(service, Mockito.times(3)).save(Mockito.any(Book.class));
+    }
+
+    @Test
+    @DisplayName("Rate limit by address whatever api key the client sends")
+    public void apiKeyIgnoredTest() throws Exception {
+        BDDMockito.given(service.save(Mockito.any(Book.class)))
+                .willReturn(Book.builder().id(1L).title("Steve Jobs").author("Walter Isaacson").isbn("123").build());
+
+        mvc.perform(create("rotator").header("X-Api-Key", "key-1")).andExpect(status().isCreated());
+        mvc.perform(create("rotator").header("X-Api-Key", "key-2")).andExpect(status().isCreated());
+        mvc.perform(create("rotator").header("X-Api-Key", "key-3")).andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    @DisplayName("Answer 503 when every write permit is taken")
+    public void inFlightWritesTest() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BDDMockito.given(service.save(Mockito.any(Book.class))).willAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return Book.builder().id(1L).title("Steve Jobs").author("Walter Isaacson").isbn("123").build();
+        });
+
+        CompletableFuture<Integer> running = CompletableFuture.supplyAsync(() -> {
+            try {
+                return mvc.perform(create("first")).andReturn().getResponse().getStatus();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        started.await();
+
+        mvc
+                .perform(create("second"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+
+        release.countDown();
+        Assertions.assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo(201);
+        mvc.perform(create("second")).andExpect(status().isCreated());
+    }
+
+    private static MockHttpServletRequestBuilder create(String address) throws Exception {
+        BookDTO book = BookDTO.builder().title("Steve Jobs").author("Walter Isaacson").isbn("123").build();
+        return MockMvcRequestBuilders
+                .post(BOOK_API)
+                .with(from(address))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(new ObjectMapper().writeValueAsString(book));
+    }
+
+    private static RequestPostProcessor from(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+}
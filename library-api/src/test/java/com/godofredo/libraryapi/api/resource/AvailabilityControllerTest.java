@@ -0,0 +1,99 @@
+package com.godofredo.libraryapi.api.resource;
+
+import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.model.entity.BookAvailability;
+import com.godofredo.libraryapi.service.AvailabilityService;
+import com.godofredo.libraryapi.service.BookService;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@WebMvcTest(controllers = AvailabilityController.class)
+public class AvailabilityControllerTest {
+
+    static final String BOOK_API = "/api/books";
+
+    @Autowired
+    MockMvc mvc;
+
+    @MockBean
+    BookService bookService;
+    @MockBean
+    AvailabilityService availabilityService;
+
+    @Test
+    @DisplayName("Show the availability of a loaned book")
+    public void availabilityTest() throws Exception {
+        BDDMockito.given(bookService.getById(1L)).willReturn(Optional.of(Book.builder().id(1L).isbn("123").build()));
+        BDDMockito.given(availabilityService.getAvailability(1L)).willReturn(BookAvailability.builder()
+                .bookId(1L).activeLoans(1).totalCheckouts(4).lastLoanDate(LocalDate.of(2020, 1, 1)).build());
+        BDDMockito.given(availabilityService.getBorrowers(1L)).willReturn(Arrays.asList("Neo"));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(BOOK_API.concat("/1/availability"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("isbn").value("123"))
+                .andExpect(jsonPath("available").value(false))
+                .andExpect(jsonPath("activeLoans").value(1))
+                .andExpect(jsonPath("totalCheckouts").value(4))
+                .andExpect(jsonPath("lastLoanDate").value("2020-01-01"))
+                .andExpect(jsonPath("borrowers[0]").value("Neo"));
+    }
+
+    @Test
+    @DisplayName("Error to show the availability of a book not found")
+    public void availabilityOfUnknownBookTest() throws Exception {
+        BDDMockito.given(bookService.getById(1L)).willReturn(Optional.empty());
+
+        mvc
+                .perform(MockMvcRequestBuilders.get(BOOK_API.concat("/1/availability")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+        Mockito.verifyNoInteractions(availabilityService);
+    }
+
+    @Test
+    @DisplayName("Show the availability of many books in the order asked")
+    public void bulkAvailabilityTest() throws Exception {
+        BDDMockito.given(availabilityService.getAvailability(Arrays.asList("456", "123", "789")))
+                .willReturn(Collections.singletonMap("123", BookAvailability.of(1L)));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(BOOK_API.concat("/availability?isbn=456,123,789"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(3)))
+                .andExpect(jsonPath("[0].isbn").value("456"))
+                .andExpect(jsonPath("[0].error").value("Book not found"))
+                .andExpect(jsonPath("[1].bookId").value(1))
+                .andExpect(jsonPath("[1].available").value(true))
+                .andExpect(jsonPath("[2].error").value("Book not found"));
+    }
+}
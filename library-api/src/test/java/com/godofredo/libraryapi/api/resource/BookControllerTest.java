@@ -1,23 +1,34 @@
 package com.godofredo.libraryapi.api.resource;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.godofredo.libraryapi.api.BookDTO;
+import com.godofredo.libraryapi.api.PageDTOHttpMessageConverter;
+import com.godofredo.libraryapi.api.dto.BookImportDTO;
 import com.godofredo.libraryapi.exception.BusinessException;
+import com.godofredo.libraryapi.exception.ErrorCode;
 import com.godofredo.libraryapi.model.entity.Book;
 import com.godofredo.libraryapi.service.BookService;
+import org.assertj.core.api.Assertions;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.BDDMockito;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -25,11 +36,21 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -83,7 +104,9 @@ public class BookControllerTest {
 
         mvc.perform(request)
                 .andExpect(status().isBadRequest())
-                .andExpect(jsonPath("errors", hasSize(3)));
+                .andExpect(jsonPath("errors", hasSize(3)))
+                .andExpect(jsonPath("errors[0]").value("Title is required"));
+        Mockito.verifyNoInteractions(service);
     }
 
     @Test
@@ -135,6 +158,25 @@ public class BookControllerTest {
                .andExpect(jsonPath("isbn").value(createNewBook().getIsbn()));
     }
 
+    @Test
+    @DisplayName("Answer 304 when the book did not change")
+    public void getNotModifiedTest() throws Exception{
+        Book book = Book.builder().id(1L).title("Steve Jobs").author("Steve").isbn("123456").version(3L).build();
+        BDDMockito.given(service.getById(1L)).willReturn(Optional.of(book));
+
+        mvc
+                .perform(MockMvcRequestBuilders.get(BOOK_API.concat("/1")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+
+        mvc
+                .perform(MockMvcRequestBuilders.get(BOOK_API.concat("/1"))
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
     @Test
     @DisplayName("Return not found when the book does not exists")
     public void bookNotFoundTest() throws Exception {
@@ -177,6 +219,46 @@ public class BookControllerTest {
                 .andExpect(jsonPath("isbn").value(createNewBook().getIsbn()));
     }
 
+    @Test
+    @DisplayName("Reject an update based on an old version")
+    public void updateBookPreconditionFailedTest() throws Exception{
+        Book book = Book.builder().id(1L).title("Jhon").author("Wick").isbn("123456").version(2L).build();
+        BDDMockito.given(service.getById(1L)).willReturn(Optional.of(book));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .put(BOOK_API.concat("/1"))
+                .header(HttpHeaders.IF_MATCH, "\"1\"")
+                .content(new ObjectMapper().writeValueAsString(createNewBook()))
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("errors[0]").value("Book was modified"));
+        Mockito.verify(service, Mockito.never()).update(Mockito.any(Book.class));
+    }
+
+    @Test
+    @DisplayName("Answer 412 when the book changed during the update")
+    public void updateBookConcurrentlyModifiedTest() throws Exception{
+        Book book = Book.builder().id(1L).title("Jhon").author("Wick").isbn("123456").version(2L).build();
+        BDDMockito.given(service.getById(1L)).willReturn(Optional.of(book));
+        BDDMockito.given(service.update(book)).willThrow(new ObjectOptimisticLockingFailureException(Book.class, 1L));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .put(BOOK_API.concat("/1"))
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .content(new ObjectMapper().writeValueAsString(createNewBook()))
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("errors[0]").value("Book was modified"));
+    }
+
     @Test
     @DisplayName("Return 404 of book not exist")
     public void updateBook404Test() throws Exception{
@@ -207,6 +289,19 @@ public class BookControllerTest {
 
     }
 
+    @Test
+    @DisplayName("Answer 409 to the delete of a book with loans")
+    public void deleteBookWithLoansTest() throws Exception {
+        Book book = Book.builder().id(1L).build();
+        BDDMockito.given(service.getById(1L)).willReturn(Optional.of(book));
+        Mockito.doThrow(new BusinessException(ErrorCode.BOOK_HAS_LOANS)).when(service).delete(book);
+
+        mvc
+                .perform(MockMvcRequestBuilders.delete(BOOK_API.concat("/1")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("errors[0]").value("Book has loans"));
+    }
+
     @Test
     @DisplayName("Return not ok for a book deleted")
     public void deleteBookNotOkTest() throws Exception {
@@ -242,9 +337,346 @@ public class BookControllerTest {
                 .perform(request)
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("content", Matchers.hasSize(1)))
-                .andExpect(jsonPath("totalElements").value(1))
-                .andExpect(jsonPath("pageable.pageSize").value(100))
-                .andExpect(jsonPath("pageable.pageNumber").value(0));
+                .andExpect(jsonPath("total").value(1))
+                .andExpect(jsonPath("size").value(100))
+                .andExpect(jsonPath("page").value(0))
+                .andExpect(jsonPath("cursor").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Search books answering in Smile")
+    public void findBooksAsSmileTest() throws Exception {
+        Book book = Book.builder().id(1L).title("As aventuras").author("Arthur").isbn("123").build();
+        BDDMockito.given(service.find(Mockito.any(Book.class), Mockito.any(Pageable.class)))
+                .willReturn(new PageImpl<Book>(Arrays.asList(book), PageRequest.of(0,100), 1));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(BOOK_API.concat("?page=0&size=100"))
+                .accept(PageDTOHttpMessageConverter.APPLICATION_SMILE);
+        byte[] body = mvc
+                .perform(request)
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(PageDTOHttpMessageConverter.APPLICATION_SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode page = new ObjectMapper(new SmileFactory()).readTree(body);
+        Assertions.assertThat(page.get("total").asLong()).isEqualTo(1);
+        Assertions.assertThat(page.get("content").get(0).get("isbn").asText()).isEqualTo("123");
+    }
+
+    @Test
+    @DisplayName("Answer 304 when the page of books did not change")
+    public void findBooksNotModifiedTest() throws Exception {
+        Book book = Book.builder().id(1L).title("Steve Jobs").author("Steve").isbn("123456").version(0L).build();
+        BDDMockito.given(service.find(Mockito.any(Book.class), Mockito.any(Pageable.class)))
+                .willReturn(new PageImpl<Book>(Arrays.asList(book), PageRequest.of(0,100), 1));
+
+        String etag = mvc
+                .perform(MockMvcRequestBuilders.get(BOOK_API.concat("?author=Steve&page=0&size=100")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc
+                .perform(MockMvcRequestBuilders.get(BOOK_API.concat("?author=Steve&page=0&size=100"))
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        book.setVersion(1L);
+        mvc
+                .perform(MockMvcRequestBuilders.get(BOOK_API.concat("?author=Steve&page=0&size=100"))
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", hasSize(1)));
+    }
+
+    @Test
+    @DisplayName("Import books from a json array")
+    public void importBooksTest() throws Exception {
+        Book saved = Book.builder().id(10L).author("Steve").title("Steve Jobs").isbn("123456").build();
+        BDDMockito.given(service.saveAll(Mockito.anyList())).willReturn(Arrays.asList(saved));
+
+        String json = new ObjectMapper().writeValueAsString(Arrays.asList(createNewBook(), createNewBook(), new BookDTO()));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .post(BOOK_API.concat("/import"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("imported").value(1))
+                .andExpect(jsonPath("failed").value(2))
+                .andExpect(jsonPath("failures", hasSize(2)))
+                .andExpect(jsonPath("failures[0].index").value(1))
+                .andExpect(jsonPath("failures[0].error").value("Duplicated Isbn"))
+                .andExpect(jsonPath("failures[1].index").value(2));
+    }
+
+    @Test
+    @DisplayName("Import books from ndjson")
+    public void importBooksNdjsonTest() throws Exception {
+        Book saved = Book.builder().id(10L).author("Steve").title("Steve Jobs").isbn("123456").build();
+        BDDMockito.given(service.saveAll(Mockito.anyList())).willReturn(Arrays.asList(saved));
+
+        String ndjson = new ObjectMapper().writeValueAsString(createNewBook()) + "\n{\"title\":";
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .post(BOOK_API.concat("/import"))
+                .contentType("application/x-ndjson")
+                .accept(MediaType.APPLICATION_JSON)
+                .content(ndjson);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("imported").value(1))
+                .andExpect(jsonPath("failed").value(1))
+                .andExpect(jsonPath("failures", hasSize(1)))
+                .andExpect(jsonPath("failures[0].index").value(1));
+    }
+
+    @Test
+    @DisplayName("Report the count of the failed rows, and the first ones only")
+    public void importBooksFailuresTest() throws Exception {
+        List<BookDTO> rows = new ArrayList<>();
+        for (int i = 0; i <= BookImportDTO.MAX_FAILURES; i++) {
+            rows.add(new BookDTO());
+        }
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .post(BOOK_API.concat("/import"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(new ObjectMapper().writeValueAsString(rows));
+
+        mvc
+                .perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("imported").value(0))
+                .andExpect(jsonPath("failed").value(BookImportDTO.MAX_FAILURES + 1))
+                .andExpect(jsonPath("failures", hasSize(BookImportDTO.MAX_FAILURES)));
+        Mockito.verify(service, Mockito.never()).saveAll(Mockito.anyList());
+    }
+
+    @Test
+    @DisplayName("Retry a chunk with fresh books, then report its rows as failed")
+    public void importBooksRetryTest() throws Exception {
+        List<Book> attempts = new ArrayList<>();
+        BDDMockito.given(service.saveAll(Mockito.anyList())).willAnswer(invocation -> {
+            List<Book> books = invocation.getArgument(0);
+            books.forEach(book -> {
+                attempts.add(Book.builder().id(book.getId()).version(book.getVersion()).build());
+                book.setId(10L);
+                book.setVersion(0L);
+            });
+            throw new BusinessException(ErrorCode.DUPLICATED_ISBN);
+        });
+
+        String json = new ObjectMapper().writeValueAsString(Arrays.asList(createNewBook(), new BookDTO()));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .post(BOOK_API.concat("/import"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("imported").value(0))
+                .andExpect(jsonPath("failed").value(2))
+                .andExpect(jsonPath("failures[0].index").value(0))
+                .andExpect(jsonPath("failures[0].error").value("Duplicated Isbn"))
+                .andExpect(jsonPath("failures[1].error").value("Title is required"));
+        Assertions.assertThat(attempts).hasSize(2);
+        Assertions.assertThat(attempts.get(1).getId()).isNull();
+        Assertions.assertThat(attempts.get(1).getVersion()).isNull();
+    }
+
+    @Test
+    @DisplayName("Search books with a cursor")
+    public void findBooksWithCursorTest() throws Exception {
+        Book book = Book.builder().id(7L).title("Steve Jobs").author("Steve").isbn("123456").build();
+        BDDMockito.given(service.findAfter(Mockito.any(Book.class), Mockito.any(Sort.Order.class), Mockito.any(), Mockito.eq(1)))
+                .willReturn(new SliceImpl<Book>(Arrays.asList(book), PageRequest.of(0, 1), true));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(BOOK_API.concat("?author=Steve&cursor=&size=1&sort=title,desc"))
+                .accept(MediaType.APPLICATION_JSON);
+        String nextCursor = BookCursor.after(Sort.Order.desc("title"), book).encode();
+
+        mvc
+                .perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", hasSize(1)))
+                .andExpect(jsonPath("content[0].id").value(7L))
+                .andExpect(jsonPath("size").value(1))
+                .andExpect(jsonPath("cursor").value(nextCursor))
+                .andExpect(jsonPath("total").doesNotExist());
+
+        BookCursor decoded = BookCursor.decode(nextCursor);
+        Assertions.assertThat(decoded.getOrder()).isEqualTo(Sort.Order.desc("title"));
+        Assertions.assertThat(decoded.getAfter().getId()).isEqualTo(7L);
+        Assertions.assertThat(decoded.getAfter().getTitle()).isEqualTo("Steve Jobs");
+    }
+
+    @Test
+    @DisplayName("Keep a null sort key in the cursor")
+    public void cursorWithNullKeyTest() {
+        Book untitled = Book.builder().id(7L).author("Steve").isbn("123456").build();
+        Book titled = Book.builder().id(8L).title("").author("Steve").isbn("654321").build();
+
+        BookCursor decodedUntitled = BookCursor.decode(BookCursor.after(Sort.Order.asc("title"), untitled).encode());
+        BookCursor decodedTitled = BookCursor.decode(BookCursor.after(Sort.Order.asc("title"), titled).encode());
+
+        Assertions.assertThat(decodedUntitled.getAfter().getId()).isEqualTo(7L);
+        Assertions.assertThat(decodedUntitled.getAfter().getTitle()).isNull();
+        Assertions.assertThat(decodedTitled.getAfter().getTitle()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Reject a cursor that was not issued by the api")
+    public void findBooksWithInvalidCursorTest() throws Exception {
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(BOOK_API.concat("?cursor=not-a-cursor"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors[0]").value("Invalid cursor"));
+    }
+
+    @Test
+    @DisplayName("Reject a request combining the lookup, search and cursor parameters")
+    public void findBooksWithConflictingParametersTest() throws Exception {
+        for (String query : Arrays.asList("?q=steve&cursor=", "?ids=1&isbns=123", "?ids=1&q=steve&cursor=")) {
+            MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                    .get(BOOK_API.concat(query))
+                    .accept(MediaType.APPLICATION_JSON);
+
+            mvc
+                    .perform(request)
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("errors[0]").value("Pass only one of ids, isbns, q and cursor"));
+        }
+        Mockito.verifyNoInteractions(service);
+    }
+
+    @Test
+    @DisplayName("Full text search of books")
+    public void searchBooksTest() throws Exception {
+        Book book = Book.builder().id(1L).title("Steve Jobs").author("Steve").isbn("123456").build();
+        BDDMockito.given(service.search(Mockito.eq("steve jo*"), Mockito.any(Pageable.class)))
+                .willReturn(new PageImpl<Book>(Arrays.asList(book), PageRequest.of(0, 20), 1));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(BOOK_API.concat("?q=steve jo*&page=0&size=20"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", hasSize(1)))
+                .andExpect(jsonPath("content[0].title").value("Steve Jobs"))
+                .andExpect(jsonPath("total").value(1));
+    }
+
+    @Test
+    @DisplayName("Get many books by id, in the order asked, with the missing ones")
+    public void getByIdsTest() throws Exception {
+        Book first = Book.builder().id(1L).title("Steve Jobs").author("Walter Isaacson").isbn("123").build();
+        Book second = Book.builder().id(2L).title("Einstein").author("Walter Isaacson").isbn("456").build();
+        Map<Long, Book> found = new HashMap<>();
+        found.put(1L, first);
+        found.put(2L, second);
+        BDDMockito.given(service.getByIds(Arrays.asList(2L, 3L, 1L))).willReturn(found);
+
+        mvc
+                .perform(MockMvcRequestBuilders.get(BOOK_API.concat("?ids=2,3,1")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("[0].id").value(2))
+                .andExpect(jsonPath("[0].book.title").value("Einstein"))
+                .andExpect(jsonPath("[1].id").value(3))
+                .andExpect(jsonPath("[1].book").doesNotExist())
+                .andExpect(jsonPath("[1].error").value("Book not found"))
+                .andExpect(jsonPath("[2].book.isbn").value("123"));
+    }
+
+    @Test
+    @DisplayName("Get many books by isbn, whatever their formatting")
+    public void getByIsbnsTest() throws Exception {
+        Book book = Book.builder().id(1L).title("Steve Jobs").author("Walter Isaacson").isbn("978-1").build();
+        BDDMockito.given(service.getByIsbns(Arrays.asList("9781", "978-2")))
+                .willReturn(Collections.singletonMap(Book.normalizeIsbn("978-1"), book));
+
+        mvc
+                .perform(MockMvcRequestBuilders.get(BOOK_API).param("isbns", "9781", "978-2").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("[0].isbn").value("9781"))
+                .andExpect(jsonPath("[0].book.id").value(1))
+                .andExpect(jsonPath("[1].isbn").value("978-2"))
+                .andExpect(jsonPath("[1].error").value("Book not found"));
+    }
+
+    @Test
+    @DisplayName("Refuse a multi-get of too many ids")
+    public void getByTooManyIdsTest() throws Exception {
+        String ids = LongStream.rangeClosed(1, BookController.MAX_LOOKUPS + 1)
+                .mapToObj(Long::toString)
+                .collect(Collectors.joining(","));
+
+        mvc
+                .perform(MockMvcRequestBuilders.get(BOOK_API).param("ids", ids).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors[0]").value("Too many ids"));
+        Mockito.verify(service, Mockito.never()).getByIds(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Export the matching books as ndjson")
+    public void exportNdjsonTest() throws Exception {
+        givenExportedBooks(
+                Book.builder().id(1L).title("Steve Jobs").author("Walter Isaacson").isbn("123").build(),
+                Book.builder().id(2L).title("Einstein").author("Walter Isaacson").isbn("456").build());
+
+        mvc
+                .perform(MockMvcRequestBuilders.get(BOOK_API.concat("/export?author=walter")))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(content().string(
+                        "{\"id\":1,\"title\":\"Steve Jobs\",\"author\":\"Walter Isaacson\",\"isbn\":\"123\"}\n" +
+                        "{\"id\":2,\"title\":\"Einstein\",\"author\":\"Walter Isaacson\",\"isbn\":\"456\"}\n"));
+
+        ArgumentCaptor<Book> filter = ArgumentCaptor.forClass(Book.class);
+        Mockito.verify(service).export(filter.capture(), Mockito.any());
+        Assertions.assertThat(filter.getValue().getAuthor()).isEqualTo("walter");
+    }
+
+    @Test
+    @DisplayName("Export the matching books as csv")
+    public void exportCsvTest() throws Exception {
+        givenExportedBooks(Book.builder().id(1L).title("Eats, Shoots & \"Leaves\"").author("Lynne Truss").isbn("123").build());
+
+        mvc
+                .perform(MockMvcRequestBuilders.get(BOOK_API.concat("/export")).accept("text/csv"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string("id,title,author,isbn\n1,\"Eats, Shoots & \"\"Leaves\"\"\",Lynne Truss,123\n"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenExportedBooks(Book... books) {
+        BDDMockito.willAnswer(invocation -> {
+            Consumer<Book> consumer = invocation.getArgument(1);
+            Arrays.asList(books).forEach(consumer);
+            return null;
+        }).given(service).export(Mockito.any(Book.class), Mockito.any(Consumer.class));
     }
 
     public BookDTO createNewBook(){
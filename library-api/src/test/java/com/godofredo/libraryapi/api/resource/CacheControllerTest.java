@@ -0,0 +1,48 @@
+package com.godofredo.libraryapi.api.resource;
+
+import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.service.cache.BookIsbnCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.Optional;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@WebMvcTest(controllers = CacheController.class)
+public class CacheControllerTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    BookIsbnCache isbnCache;
+
+    @Test
+    @DisplayName("Show the isbn cache counters")
+    public void isbnCacheStatsTest() throws Exception {
+        isbnCache.get("123", isbn -> Optional.of(Book.builder().id(1L).isbn(isbn).build()));
+        isbnCache.get("123", isbn -> Optional.empty());
+
+        mvc
+                .perform(MockMvcRequestBuilders.get("/api/caches/isbn").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("size").value(1))
+                .andExpect(jsonPath("hitCount").value(1))
+                .andExpect(jsonPath("missCount").value(1))
+                .andExpect(jsonPath("evictionCount").value(0));
+    }
+}
@@ -0,0 +1,72 @@
+package com.godofredo.libraryapi.api.resource;
+
+import com.godofredo.libraryapi.api.dto.LoanDTO;
+import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.model.repository.BookRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class LoanControllerConcurrencyTest {
+
+    static final String LOAN_API = "/api/loans";
+    static final int REQUESTS = 16;
+
+    @Autowired
+    TestRestTemplate restTemplate;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Test
+    @DisplayName("Parallel loans of the same book let only one through")
+    public void parallelLoansTest() throws Exception {
+        Book book = bookRepository.save(Book.builder().title("Steve Jobs").author("Walter Isaacson").isbn("parallel-123").build());
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+
+        List<Future<ResponseEntity<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            LoanDTO loanDTO = LoanDTO.builder().isbn(book.getIsbn()).customer("Customer " + i).build();
+            responses.add(executor.submit(() -> {
+                start.await();
+                return restTemplate.postForEntity(LOAN_API, loanDTO, String.class);
+            }));
+        }
+        start.countDown();
+
+        int created = 0;
+        int rejected = 0;
+        for (Future<ResponseEntity<String>> response : responses) {
+            ResponseEntity<String> entity = response.get();
+            if (entity.getStatusCode() == HttpStatus.CREATED) {
+                created++;
+            } else if (entity.getStatusCode() == HttpStatus.BAD_REQUEST && entity.getBody().contains("Book already loaned")) {
+                rejected++;
+            }
+        }
+        executor.shutdown();
+
+        assertThat(created).isEqualTo(1);
+        assertThat(rejected).isEqualTo(REQUESTS - 1);
+    }
+}
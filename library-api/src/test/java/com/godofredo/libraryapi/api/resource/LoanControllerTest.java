@@ -1,11 +1,13 @@
 package com.godofredo.libraryapi.api.resource;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.godofredo.libraryapi.api.dto.LoanBasketDTO;
 import com.godofredo.libraryapi.api.dto.LoanDTO;
 import com.godofredo.libraryapi.exception.BusinessException;
 import com.godofredo.libraryapi.model.entity.Book;
 import com.godofredo.libraryapi.model.entity.Loan;
 import com.godofredo.libraryapi.service.BookService;
+import com.godofredo.libraryapi.service.LoanBatchItem;
 import com.godofredo.libraryapi.service.LoanService;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.DisplayName;
@@ -17,7 +19,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
@@ -25,6 +31,7 @@ import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilde
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.Optional;
 
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -89,6 +96,25 @@ public class LoanControllerTest {
                 .andExpect(jsonPath("errors[0]").value("Book not found for passed isbn"));
     }
 
+    @Test
+    @DisplayName("Error to loan without isbn and customer")
+    public void invalidLoanTest() throws Exception {
+        String json = new ObjectMapper().writeValueAsString(new LoanDTO());
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(LOAN_API)
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors", Matchers.hasSize(2)))
+                .andExpect(jsonPath("errors[0]").value("Isbn is required"))
+                .andExpect(jsonPath("errors[1]").value("Customer is required"));
+        Mockito.verifyNoInteractions(bookService, loanService);
+    }
+
     @Test
     @DisplayName("Loaned Book Error On Create Loan Test")
     public void loanedBookErrorOnCreateLoanTest() throws Exception {
@@ -111,4 +137,132 @@ public class LoanControllerTest {
                 .andExpect(jsonPath("errors", Matchers.hasSize(1)))
                 .andExpect(jsonPath("errors[0]").value("Book already loaded"));
     }
+
+    @Test
+    @DisplayName("Loan a basket of books")
+    public void checkoutBasketTest() throws Exception {
+        LoanBasketDTO basket = LoanBasketDTO.builder().customer("Maverick").isbns(Arrays.asList("123", "456")).build();
+        String json = new ObjectMapper().writeValueAsString(basket);
+
+        Book book = Book.builder().id(1L).isbn("123").build();
+        Loan loan = Loan.builder().id(10L).customer("Maverick").book(book).loanDate(LocalDate.now()).build();
+        BDDMockito.given(loanService.checkout(Mockito.eq("Maverick"), Mockito.eq(Arrays.asList("123", "456")), Mockito.any(LocalDate.class)))
+                .willReturn(Arrays.asList(LoanBatchItem.success("123", loan), LoanBatchItem.failure("456", "Book already loaned")));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(LOAN_API.concat("/batch"))
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("succeeded").value(1))
+                .andExpect(jsonPath("failed").value(1))
+                .andExpect(jsonPath("results[0].index").value(0))
+                .andExpect(jsonPath("results[0].id").value(10))
+                .andExpect(jsonPath("results[1].isbn").value("456"))
+                .andExpect(jsonPath("results[1].error").value("Book already loaned"));
+    }
+
+    @Test
+    @DisplayName("Error to loan a basket without customer")
+    public void checkoutBasketWithoutCustomerTest() throws Exception {
+        LoanBasketDTO basket = LoanBasketDTO.builder().isbns(Arrays.asList("123")).build();
+        String json = new ObjectMapper().writeValueAsString(basket);
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(LOAN_API.concat("/batch"))
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors[0]").value("Customer is required"));
+        Mockito.verifyNoInteractions(loanService);
+    }
+
+    @Test
+    @DisplayName("Error to return an empty basket")
+    public void giveBackEmptyBasketTest() throws Exception {
+        String json = new ObjectMapper().writeValueAsString(new LoanBasketDTO());
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(LOAN_API.concat("/batch/return"))
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors", Matchers.hasSize(1)))
+                .andExpect(jsonPath("errors[0]").value("Isbns are required"));
+        Mockito.verifyNoInteractions(loanService);
+    }
+
+    @Test
+    @DisplayName("Return a basket of books")
+    public void giveBackBasketTest() throws Exception {
+        LoanBasketDTO basket = LoanBasketDTO.builder().isbns(Arrays.asList("123", "456")).build();
+        String json = new ObjectMapper().writeValueAsString(basket);
+
+        Book book = Book.builder().id(1L).isbn("123").build();
+        Loan loan = Loan.builder().id(10L).customer("Maverick").book(book).loanDate(LocalDate.now()).returned(true).build();
+        BDDMockito.given(loanService.giveBack(Arrays.asList("123", "456")))
+                .willReturn(Arrays.asList(LoanBatchItem.success("123", loan), LoanBatchItem.failure("456", "Book not loaned")));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(LOAN_API.concat("/batch/return"))
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("succeeded").value(1))
+                .andExpect(jsonPath("results[1].error").value("Book not loaned"));
+    }
+
+    @Test
+    @DisplayName("Answer 409 when a loan changed during the return")
+    public void giveBackBasketConcurrentlyModifiedTest() throws Exception {
+        LoanBasketDTO basket = LoanBasketDTO.builder().isbns(Arrays.asList("123")).build();
+        String json = new ObjectMapper().writeValueAsString(basket);
+
+        BDDMockito.given(loanService.giveBack(Arrays.asList("123")))
+                .willThrow(new ObjectOptimisticLockingFailureException(Loan.class, 10L));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(LOAN_API.concat("/batch/return"))
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("errors[0]").value("Modified concurrently, retry"));
+    }
+
+    @Test
+    @DisplayName("Find the overdue loans")
+    public void overdueLoansTest() throws Exception {
+        Book book = Book.builder().id(1L).isbn("123").build();
+        Loan loan = Loan.builder().id(1L).customer("Maverick").book(book).loanDate(LocalDate.of(2020, 1, 1)).returned(false).build();
+        BDDMockito.given(loanService.getOverdue(Mockito.any(LocalDate.class), Mockito.any(Pageable.class)))
+                .willReturn(new PageImpl<Loan>(Arrays.asList(loan), PageRequest.of(0, 100), 1));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(LOAN_API.concat("/overdue?page=0&size=100"))
+                .accept(MediaType.APPLICATION_JSON);
+
+        mvc
+                .perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", Matchers.hasSize(1)))
+                .andExpect(jsonPath("content[0].id").value(1))
+                .andExpect(jsonPath("content[0].isbn").value("123"))
+                .andExpect(jsonPath("content[0].loanDate").value("2020-01-01"))
+                .andExpect(jsonPath("total").value(1))
+                .andExpect(jsonPath("size").value(100));
+    }
 }
@@ -0,0 +1,60 @@
+package com.godofredo.libraryapi.api.validation;
+
+import com.godofredo.libraryapi.api.BookDTO;
+import com.godofredo.libraryapi.api.dto.LoanBasketDTO;
+import com.godofredo.libraryapi.api.dto.LoanDTO;
+import com.godofredo.libraryapi.api.exception.ApiErrors;
+import com.godofredo.libraryapi.api.exception.InvalidRequestException;
+import com.godofredo.libraryapi.exception.BusinessException;
+import com.godofredo.libraryapi.exception.ErrorCode;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class RequestValidatorTest {
+
+    @Test
+    @DisplayName("Answer the same prebuilt errors for the same missing fields")
+    public void prebuiltErrorsTest() {
+        BookDTO withoutAuthor = BookDTO.builder().title("Steve Jobs").isbn("123").build();
+        BookDTO withoutAuthorAgain = BookDTO.builder().title("Other").author("").isbn("456").build();
+
+        ApiErrors errors = RequestValidator.check(withoutAuthor);
+
+        Assertions.assertThat(errors.getErrors()).containsExactly(RequestValidator.AUTHOR_REQUIRED);
+        Assertions.assertThat(RequestValidator.check(withoutAuthorAgain)).isSameAs(errors);
+        Assertions.assertThat(RequestValidator.check(LoanDTO.builder().isbn("123").build()).getErrors())
+                .containsExactly(RequestValidator.CUSTOMER_REQUIRED);
+        Assertions.assertThat(RequestValidator.check(BookDTO.builder().title("t").author("a").isbn("i").build())).isNull();
+        Assertions.assertThat(RequestValidator.check(LoanDTO.builder().isbn("123").customer("Maverick").build())).isNull();
+    }
+
+    @Test
+    @DisplayName("Check the basket of a checkout and of a return")
+    public void basketTest() {
+        LoanBasketDTO withoutCustomer = LoanBasketDTO.builder().isbns(Arrays.asList("123")).build();
+
+        Assertions.assertThat(RequestValidator.checkCheckout(withoutCustomer).getErrors())
+                .containsExactly(RequestValidator.CUSTOMER_REQUIRED);
+        Assertions.assertThat(RequestValidator.checkReturn(withoutCustomer)).isNull();
+        Assertions.assertThat(RequestValidator.checkCheckout(new LoanBasketDTO()).getErrors())
+                .containsExactly(RequestValidator.ISBNS_REQUIRED, RequestValidator.CUSTOMER_REQUIRED);
+        Assertions.assertThat(RequestValidator.checkReturn(LoanBasketDTO.builder().isbns(Collections.emptyList()).build()))
+                .isSameAs(RequestValidator.checkCheckout(LoanBasketDTO.builder().customer("Maverick").build()));
+    }
+
+    @Test
+    @DisplayName("Reject requests without filling in a stack trace")
+    public void stacklessRejectionTest() {
+        Throwable invalid = Assertions.catchThrowable(() -> RequestValidator.validate(new BookDTO()));
+
+        Assertions.assertThat(invalid).isInstanceOf(InvalidRequestException.class);
+        Assertions.assertThat(invalid.getStackTrace()).isEmpty();
+        Assertions.assertThat(new BusinessException(ErrorCode.DUPLICATED_ISBN).getStackTrace()).isEmpty();
+        Assertions.assertThat(ApiErrors.of(new BusinessException(ErrorCode.DUPLICATED_ISBN)))
+                .isSameAs(ApiErrors.of(ErrorCode.DUPLICATED_ISBN));
+    }
+}
@@ -0,0 +1,119 @@
+package com.godofredo.libraryapi.benchmark;
+
+import com.godofredo.libraryapi.model.repository.BookRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load test of the blocking and the async request modes. {@code clients} threads keep calling the slow
+ * author search while one probe thread times a cheap endpoint, with the same small Tomcat pool in both
+ * modes. Prints the search throughput, the rejected requests and the probe latency.
+ * <p>
+ * Usage: {@code AsyncLoadHarness [clients] [seconds] [tomcatThreads]}
+ */
+public class AsyncLoadHarness {
+
+    private static final int BOOKS = 50_000;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int tomcatThreads = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        for (boolean async : new boolean[]{false, true}) {
+            ConfigurableApplicationContext context = BenchmarkContext.start(WebApplicationType.SERVLET, "async_load_" + async,
+                    "server.tomcat.max-threads=" + tomcatThreads,
+                    "library.web.async.enabled=" + async);
+            try {
+                BenchmarkContext.seedBooks(context.getBean(BookRepository.class), "load-", BOOKS);
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                run(async ? "async" : "blocking", port, clients, seconds);
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    private static void run(String mode, int port, int clients, int seconds) throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong ok = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        List<Long> probes = Collections.synchronizedList(new ArrayList<>());
+
+        ExecutorService executor = Executors.newFixedThreadPool(clients + 1);
+        for (int i = 0; i < clients; i++) {
+            int client = i;
+            executor.execute(() -> {
+                while (running.get()) {
+                    int status = get(port, "/api/books?author=Author%20" + (client % 500) + "&page=0&size=20");
+                    (status == 200 ? ok : status == 503 ? rejected : failed).incrementAndGet();
+                }
+            });
+        }
+        executor.execute(() -> {
+            while (running.get()) {
+                long start = System.nanoTime();
+                get(port, "/actuator/health");
+                probes.add(System.nanoTime() - start);
+                sleep(20);
+            }
+        });
+        sleep(TimeUnit.SECONDS.toMillis(seconds));
+        running.set(false);
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        List<Long> latencies = new ArrayList<>(probes);
+        Collections.sort(latencies);
+        System.out.printf("%-8s clients=%d searches/s=%.1f rejected=%d failed=%d probe p50=%.1fms p99=%.1fms%n",
+                mode, clients, ok.get() / (double) seconds, rejected.get(), failed.get(),
+                percentile(latencies, 0.5), percentile(latencies, 0.99));
+    }
+
+    private static int get(int port, String path) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + path).openConnection();
+            connection.setReadTimeout(30_000);
+            int status = connection.getResponseCode();
+            try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                if (body != null) {
+                    while (body.read() >= 0) {
+                        // drain, so the connection is reused
+                    }
+                }
+            }
+            return status;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static double percentile(List<Long> sorted, double percentile) {
+        if (sorted.isEmpty()) {
+            return Double.NaN;
+        }
+        return sorted.get((int) Math.min(sorted.size() - 1, Math.floor(sorted.size() * percentile))) / 1_000_000.0;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.godofredo.libraryapi.benchmark;
+
+import com.godofredo.libraryapi.LibraryApiApplication;
+import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.model.repository.BookRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the application against its own in-memory H2 database for the JMH harnesses.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String database, String... properties) {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        return new SpringApplicationBuilder(LibraryApiApplication.class)
+                .web(webApplicationType)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+                .properties(properties)
+                .run();
+    }
+
+    /**
+     * Inserts {@code count} books with isbns {@code prefix + i} in batches.
+     */
+    static void seedBooks(BookRepository repository, String prefix, int count) {
+        List<Book> batch = new ArrayList<>(1000);
+        for (int i = 0; i < count; i++) {
+            batch.add(Book.builder().title("Title " + i).author("Author " + (i % 500)).isbn(prefix + i).build());
+            if (batch.size() == 1000) {
+                repository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        repository.saveAll(batch);
+    }
+}
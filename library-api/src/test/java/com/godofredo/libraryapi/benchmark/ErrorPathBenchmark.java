@@ -0,0 +1,125 @@
+package com.godofredo.libraryapi.benchmark;
+
+import com.godofredo.libraryapi.api.BookDTO;
+import com.godofredo.libraryapi.api.exception.ApiErrors;
+import com.godofredo.libraryapi.api.exception.InvalidRequestException;
+import com.godofredo.libraryapi.api.validation.RequestValidator;
+import com.godofredo.libraryapi.exception.BusinessException;
+import com.godofredo.libraryapi.exception.ErrorCode;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a rejected request, from the check to the error body, thrown {@code depth} frames below
+ * the handler as it is under the servlet and MVC stack. The legacy benchmarks reproduce the path
+ * before the fast one: Bean Validation with a new error list, and business exceptions with a stack
+ * trace answered with a new {@link ApiErrors}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorPathBenchmark {
+
+    @Param({"100"})
+    private int depth;
+
+    private Validator validator;
+    private BookDTO invalidBook;
+
+    @Setup
+    public void setUp() {
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+        invalidBook = BookDTO.builder().title("Steve Jobs").build();
+    }
+
+    @Benchmark
+    public ApiErrors legacyInvalidBook() {
+        try {
+            return below(depth, () -> {
+                Set<ConstraintViolation<BookDTO>> violations = validator.validate(invalidBook);
+                if (!violations.isEmpty()) {
+                    List<String> errors = new ArrayList<>();
+                    violations.forEach(violation -> errors.add(violation.getMessage()));
+                    throw new LegacyValidationException(errors);
+                }
+                return null;
+            });
+        } catch (LegacyValidationException e) {
+            return new ApiErrors(e.errors);
+        }
+    }
+
+    @Benchmark
+    public ApiErrors invalidBook() {
+        try {
+            return below(depth, () -> {
+                RequestValidator.validate(invalidBook);
+                return null;
+            });
+        } catch (InvalidRequestException e) {
+            return e.getErrors();
+        }
+    }
+
+    @Benchmark
+    public ApiErrors legacyDuplicatedIsbn() {
+        try {
+            return below(depth, () -> {
+                throw new LegacyBusinessException(ErrorCode.DUPLICATED_ISBN.getMessage());
+            });
+        } catch (LegacyBusinessException e) {
+            return new ApiErrors(Collections.singletonList(e.getMessage()));
+        }
+    }
+
+    @Benchmark
+    public ApiErrors duplicatedIsbn() {
+        try {
+            return below(depth, () -> {
+                throw new BusinessException(ErrorCode.DUPLICATED_ISBN);
+            });
+        } catch (BusinessException e) {
+            return ApiErrors.of(e);
+        }
+    }
+
+    private static ApiErrors below(int frames, Handler handler) {
+        return frames == 0 ? handler.handle() : below(frames - 1, handler);
+    }
+
+    private interface Handler {
+        ApiErrors handle();
+    }
+
+    private static class LegacyBusinessException extends RuntimeException {
+        LegacyBusinessException(String message) {
+            super(message);
+        }
+    }
+
+    private static class LegacyValidationException extends RuntimeException {
+        private final List<String> errors;
+
+        LegacyValidationException(List<String> errors) {
+            this.errors = errors;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ErrorPathBenchmark.class.getSimpleName()).build()).run();
+    }
+}
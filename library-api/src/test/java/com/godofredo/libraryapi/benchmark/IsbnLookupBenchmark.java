@@ -0,0 +1,97 @@
+package com.godofredo.libraryapi.benchmark;
+
+import com.godofredo.libraryapi.model.entity.Book;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Isbn lookup latency on a book table of {@code rows} rows in H2, with the schema before
+ * (no index, the lookup scans the table) and after the unique normalized isbn index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class IsbnLookupBenchmark {
+
+    @Param({"1000000"})
+    private int rows;
+
+    @Param({"false", "true"})
+    private boolean indexed;
+
+    private Connection connection;
+    private PreparedStatement findByIsbn;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:isbn_lookup_" + indexed, "sa", "");
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("create table book (book_id bigint not null primary key, author varchar(255), isbn varchar(255), " +
+                    "normalized_isbn varchar(255) not null, title varchar(255))");
+        }
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into book (book_id, author, isbn, normalized_isbn, title) values (?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                String isbn = isbn(i);
+                insert.setLong(1, i);
+                insert.setString(2, "Author " + (i % 1000));
+                insert.setString(3, isbn);
+                insert.setString(4, Book.normalizeIsbn(isbn));
+                insert.setString(5, "Title " + i);
+                insert.addBatch();
+                if (i % 1000 == 999) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+        if (indexed) {
+            try (Statement ddl = connection.createStatement()) {
+                ddl.execute("alter table book add constraint " + Book.ISBN_INDEX + " unique (normalized_isbn)");
+            }
+        }
+        findByIsbn = connection.prepareStatement("select book_id, title, author, isbn from book where normalized_isbn = ?");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("drop all objects");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public long lookup() throws SQLException {
+        findByIsbn.setString(1, Book.normalizeIsbn(isbn(ThreadLocalRandom.current().nextInt(rows))));
+        try (ResultSet resultSet = findByIsbn.executeQuery()) {
+            return resultSet.next() ? resultSet.getLong(1) : -1;
+        }
+    }
+
+    private static String isbn(int i) {
+        String digits = String.format("%013d", 9780000000000L + i);
+        return digits.substring(0, 3) + "-" + digits.substring(3, 4) + "-" + digits.substring(4, 7) + "-" + digits.substring(7);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(IsbnLookupBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,69 @@
+package com.godofredo.libraryapi.benchmark;
+
+import com.godofredo.libraryapi.service.journal.EventJournal;
+import com.godofredo.libraryapi.service.journal.FsyncPolicy;
+import com.godofredo.libraryapi.service.journal.JournalEvent;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cost of journaling a loan event per fsync policy: for the request, which only enqueues it, and for
+ * a caller waiting until it is written, or forced with {@code ALWAYS}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class JournalBenchmark {
+
+    @Param({"ALWAYS", "INTERVAL", "NEVER"})
+    private FsyncPolicy fsync;
+
+    private Path dir;
+    private EventJournal journal;
+    private JournalEvent event;
+
+    @Setup
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("journal-benchmark");
+        journal = new EventJournal(dir, 64 << 20, fsync, Duration.ofSeconds(1), 1000, 65536, Duration.ofSeconds(1));
+        event = JournalEvent.builder().type(JournalEvent.Type.BOOK_LOANED).time(System.currentTimeMillis())
+                .bookId(42L).isbn("978-1-4516-4853-9").loanId(4242L).customer("Maverick").loanDate(LocalDate.now()).build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Object append() {
+        return journal.append(event);
+    }
+
+    @Benchmark
+    public long appendAndWait() throws ExecutionException, InterruptedException {
+        return journal.append(event).get();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JournalBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,105 @@
+package com.godofredo.libraryapi.benchmark;
+
+import com.godofredo.libraryapi.api.BookDTO;
+import com.godofredo.libraryapi.api.dto.LoanDTO;
+import com.godofredo.libraryapi.api.mapper.BookMapper;
+import com.godofredo.libraryapi.api.mapper.LoanMapper;
+import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.model.entity.Loan;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the hand written mappers with the ModelMapper path the controllers used before,
+ * on single objects and on a 1,000 row page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final BookMapper bookMapper = new BookMapper();
+    private final LoanMapper loanMapper = new LoanMapper();
+
+    private Book book;
+    private BookDTO bookDTO;
+    private Loan loan;
+    private LoanDTO loanDTO;
+    private List<Book> page;
+
+    @Setup
+    public void setUp() {
+        book = Book.builder().id(1L).title("Steve Jobs").author("Walter Isaacson").isbn("9781451648539").build();
+        bookDTO = BookDTO.builder().title("Steve Jobs").author("Walter Isaacson").isbn("9781451648539").build();
+        loan = Loan.builder().id(1L).customer("Maverick").book(book).loanDate(LocalDate.now()).build();
+        loanDTO = LoanDTO.builder().isbn("9781451648539").customer("Maverick").build();
+        page = new ArrayList<>(1000);
+        for (long i = 0; i < 1000; i++) {
+            page.add(Book.builder().id(i).title("Title " + i).author("Author " + i).isbn("isbn-" + i).build());
+        }
+    }
+
+    @Benchmark
+    public BookDTO modelMapperBookToDto() {
+        return modelMapper.map(book, BookDTO.class);
+    }
+
+    @Benchmark
+    public BookDTO mapperBookToDto() {
+        return bookMapper.toDto(book);
+    }
+
+    @Benchmark
+    public Book modelMapperDtoToBook() {
+        return modelMapper.map(bookDTO, Book.class);
+    }
+
+    @Benchmark
+    public Book mapperDtoToBook() {
+        return bookMapper.toEntity(bookDTO);
+    }
+
+    @Benchmark
+    public LoanDTO modelMapperLoanToDto() {
+        return modelMapper.map(loan, LoanDTO.class);
+    }
+
+    @Benchmark
+    public LoanDTO mapperLoanToDto() {
+        return loanMapper.toDto(loan);
+    }
+
+    @Benchmark
+    public Loan mapperDtoToLoan() {
+        return loanMapper.toEntity(loanDTO, book, loan.getLoanDate());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<BookDTO> modelMapperPage() {
+        return page.stream().map(entity -> modelMapper.map(entity, BookDTO.class)).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<BookDTO> mapperPage() {
+        return bookMapper.toDto(page);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MappingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
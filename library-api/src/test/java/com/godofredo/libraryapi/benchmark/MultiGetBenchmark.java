@@ -0,0 +1,81 @@
+package com.godofredo.libraryapi.benchmark;
+
+import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.model.repository.BookRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * A shelf of {@code shelf} random books through MockMvc: one {@code GET /api/books/{id}} per book,
+ * against one {@code GET /api/books?ids=} for the whole shelf.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MultiGetBenchmark {
+
+    private static final int BOOKS = 100_000;
+
+    @Param({"50", "200"})
+    private int shelf;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mvc;
+    private long firstId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(WebApplicationType.SERVLET, "multi_get_benchmark");
+        mvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        BookRepository repository = context.getBean(BookRepository.class);
+        BenchmarkContext.seedBooks(repository, "shelf-", BOOKS);
+        firstId = repository.findByNormalizedIsbn(Book.normalizeIsbn("shelf-0")).get().getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void oneByOne(Blackhole blackhole) throws Exception {
+        for (long id : shelf()) {
+            blackhole.consume(mvc.perform(MockMvcRequestBuilders.get("/api/books/" + id)
+                    .accept(MediaType.APPLICATION_JSON)).andReturn());
+        }
+    }
+
+    @Benchmark
+    public MvcResult multiGet() throws Exception {
+        String ids = LongStream.of(shelf()).mapToObj(Long::toString).collect(Collectors.joining(","));
+        return mvc.perform(MockMvcRequestBuilders.get("/api/books").param("ids", ids)
+                .accept(MediaType.APPLICATION_JSON)).andReturn();
+    }
+
+    private long[] shelf() {
+        return ThreadLocalRandom.current().longs(shelf, firstId, firstId + BOOKS).toArray();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MultiGetBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,150 @@
+package com.godofredo.libraryapi.benchmark;
+
+import com.godofredo.libraryapi.model.entity.Loan;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overdue loan queries on a loan table of {@code rows} loans spread over three years in H2, most of
+ * them returned, with the schema before (no index) and after the (returned, loan_date, id) index:
+ * the naive run reading every overdue loan, the incremental run reading the loans that became
+ * eligible since yesterday's high-water mark, and the first page of the overdue endpoint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class OverdueScanBenchmark {
+
+    static final int DAYS = 3 * 365;
+    static final int LOAN_DAYS = 14;
+    static final int CHUNK_SIZE = 500;
+
+    @Param({"1000000"})
+    private int rows;
+
+    @Param({"false", "true"})
+    private boolean indexed;
+
+    private Connection connection;
+    private PreparedStatement fullRun;
+    private PreparedStatement incrementalRun;
+    private PreparedStatement firstPage;
+    private Date dueBefore;
+    private Date checkpointDate;
+    private long checkpointId;
+
+    @Setup
+    public void setUp() throws SQLException {
+        LocalDate today = LocalDate.of(2020, 3, 31);
+        connection = DriverManager.getConnection("jdbc:h2:mem:overdue_scan_" + indexed + ";OPTIMIZE_REUSE_RESULTS=FALSE", "sa", "");
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("create table loan (id bigint not null primary key, customer varchar(100), book_id bigint not null, " +
+                    "loan_date date, returned boolean not null)");
+        }
+        connection.setAutoCommit(false);
+        Random random = new Random(42);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into loan (id, customer, book_id, loan_date, returned) values (?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                // ids grow with the loan date, as they do when loans are created with the current date
+                int daysAgo = DAYS - (int) ((long) i * DAYS / rows);
+                boolean returned = daysAgo > 2 * LOAN_DAYS && random.nextInt(100) > 0;
+                insert.setLong(1, i);
+                insert.setString(2, "Customer " + (i % 10000));
+                insert.setLong(3, i % 50000);
+                insert.setDate(4, Date.valueOf(today.minusDays(daysAgo)));
+                insert.setBoolean(5, returned);
+                insert.addBatch();
+                if (i % 1000 == 999) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+        if (indexed) {
+            try (Statement ddl = connection.createStatement()) {
+                ddl.execute("create index " + Loan.OVERDUE_INDEX + " on loan (returned, loan_date, id)");
+            }
+        }
+
+        dueBefore = Date.valueOf(today.minusDays(LOAN_DAYS));
+        fullRun = connection.prepareStatement("select id, customer, book_id, loan_date from loan " +
+                "where returned = false and loan_date < ? order by loan_date, id");
+        incrementalRun = connection.prepareStatement("select id, customer, book_id, loan_date from loan " +
+                "where returned = false and loan_date < ? and (loan_date > ? or (loan_date = ? and id > ?)) " +
+                "order by loan_date, id limit " + CHUNK_SIZE);
+        firstPage = connection.prepareStatement("select id, customer, book_id, loan_date from loan " +
+                "where returned = false and loan_date < ? order by loan_date, id limit 20");
+
+        // yesterday's run stopped at the last loan due the day before
+        checkpointDate = Date.valueOf(today.minusDays(LOAN_DAYS + 2));
+        try (PreparedStatement last = connection.prepareStatement("select max(id) from loan where loan_date = ?")) {
+            last.setDate(1, checkpointDate);
+            try (ResultSet resultSet = last.executeQuery()) {
+                resultSet.next();
+                checkpointId = resultSet.getLong(1);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("drop all objects");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public long fullRun() throws SQLException {
+        fullRun.setDate(1, dueBefore);
+        return read(fullRun);
+    }
+
+    @Benchmark
+    public long incrementalRun() throws SQLException {
+        incrementalRun.setDate(1, dueBefore);
+        incrementalRun.setDate(2, checkpointDate);
+        incrementalRun.setDate(3, checkpointDate);
+        incrementalRun.setLong(4, checkpointId);
+        return read(incrementalRun);
+    }
+
+    @Benchmark
+    public long firstPage() throws SQLException {
+        firstPage.setDate(1, dueBefore);
+        return read(firstPage);
+    }
+
+    private static long read(PreparedStatement query) throws SQLException {
+        long sum = 0;
+        try (ResultSet resultSet = query.executeQuery()) {
+            while (resultSet.next()) {
+                sum += resultSet.getLong(1);
+            }
+        }
+        return sum;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(OverdueScanBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,80 @@
+package com.godofredo.libraryapi.benchmark;
+
+import com.godofredo.libraryapi.api.admission.RateLimiter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission decisions of 8 threads over {@code keys} distinct clients, with the lock-free
+ * {@link RateLimiter} and with the same buckets behind a single lock.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class RateLimiterBenchmark {
+
+    @Param({"1", "10000"})
+    private int keys;
+
+    private String[] clients;
+    private RateLimiter rateLimiter;
+    private LockedRateLimiter lockedRateLimiter;
+
+    @Setup
+    public void setUp() {
+        clients = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            clients[i] = "10.0." + i / 256 + "." + i % 256;
+        }
+        rateLimiter = new RateLimiter(100, 1_000_000, 100_000);
+        lockedRateLimiter = new LockedRateLimiter(100, 1_000_000);
+    }
+
+    @Benchmark
+    public long lockFree() {
+        return rateLimiter.tryAcquire(clients[ThreadLocalRandom.current().nextInt(keys)]);
+    }
+
+    @Benchmark
+    public long locked() {
+        return lockedRateLimiter.tryAcquire(clients[ThreadLocalRandom.current().nextInt(keys)]);
+    }
+
+    private static class LockedRateLimiter {
+
+        private final long emissionNanos;
+        private final long burstNanos;
+        private final Map<String, Long> arrivals = new HashMap<>();
+
+        LockedRateLimiter(int burst, double refillPerSecond) {
+            this.emissionNanos = (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond);
+            this.burstNanos = emissionNanos * burst;
+        }
+
+        synchronized long tryAcquire(String key) {
+            long now = System.nanoTime();
+            long next = Math.max(arrivals.getOrDefault(key, now), now) + emissionNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            arrivals.put(key, next);
+            return 0;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RateLimiterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,105 @@
+package com.godofredo.libraryapi.benchmark;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.godofredo.libraryapi.api.BookDTO;
+import com.godofredo.libraryapi.api.dto.LoanDTO;
+import com.godofredo.libraryapi.api.dto.PageDTO;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON costs of the request and response bodies of the book and loan endpoints. The page
+ * benchmarks compare the serialized {@link PageImpl} the list endpoints answered before with the
+ * {@link PageDTO} envelope written by prebuilt JSON, Smile and CBOR writers; run with
+ * {@code -prof gc} for the allocation per page, the setup prints the size of each body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private BookDTO book;
+    private byte[] bookJson;
+    private byte[] loanJson;
+    private PageImpl<BookDTO> page;
+    private PageDTO<BookDTO> pageDTO;
+    private ObjectWriter jsonWriter;
+    private ObjectWriter smileWriter;
+    private ObjectWriter cborWriter;
+
+    @Setup
+    public void setUp() throws IOException {
+        book = BookDTO.builder().id(1L).title("Steve Jobs").author("Walter Isaacson").isbn("9781451648539").build();
+        bookJson = objectMapper.writeValueAsBytes(book);
+        loanJson = objectMapper.writeValueAsBytes(LoanDTO.builder().isbn("9781451648539").customer("Maverick").build());
+        List<BookDTO> content = new ArrayList<>();
+        for (long i = 0; i < 20; i++) {
+            content.add(BookDTO.builder().id(i).title("Title " + i).author("Author " + i).isbn("isbn-" + i).build());
+        }
+        page = new PageImpl<>(content, PageRequest.of(0, 20), 10_000);
+        pageDTO = PageDTO.of(content, page);
+
+        JavaType pageType = objectMapper.getTypeFactory().constructParametricType(PageDTO.class, BookDTO.class);
+        jsonWriter = objectMapper.writerFor(pageType);
+        smileWriter = Jackson2ObjectMapperBuilder.smile().build().writerFor(pageType);
+        cborWriter = Jackson2ObjectMapperBuilder.cbor().build().writerFor(pageType);
+        System.out.printf("page bytes: PageImpl json %d, PageDTO json %d, smile %d, cbor %d%n",
+                writePage().length, writePageDTO().length, writePageSmile().length, writePageCbor().length);
+    }
+
+    @Benchmark
+    public BookDTO readBook() throws IOException {
+        return objectMapper.readValue(bookJson, BookDTO.class);
+    }
+
+    @Benchmark
+    public byte[] writeBook() throws IOException {
+        return objectMapper.writeValueAsBytes(book);
+    }
+
+    @Benchmark
+    public LoanDTO readLoan() throws IOException {
+        return objectMapper.readValue(loanJson, LoanDTO.class);
+    }
+
+    @Benchmark
+    public byte[] writePage() throws IOException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] writePageDTO() throws IOException {
+        return jsonWriter.writeValueAsBytes(pageDTO);
+    }
+
+    @Benchmark
+    public byte[] writePageSmile() throws IOException {
+        return smileWriter.writeValueAsBytes(pageDTO);
+    }
+
+    @Benchmark
+    public byte[] writePageCbor() throws IOException {
+        return cborWriter.writeValueAsBytes(pageDTO);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SerializationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
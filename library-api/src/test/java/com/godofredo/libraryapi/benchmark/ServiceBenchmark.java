@@ -0,0 +1,91 @@
+package com.godofredo.libraryapi.benchmark;
+
+import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.model.repository.BookRepository;
+import com.godofredo.libraryapi.service.BookService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BookService and BookRepository read paths against H2, with a catalog of {@code books} rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    @Param({"10000"})
+    private int books;
+
+    private ConfigurableApplicationContext context;
+    private BookService service;
+    private BookRepository repository;
+    private Book filter;
+    private Book deepCursor;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(WebApplicationType.NONE, "service_benchmark");
+        service = context.getBean(BookService.class);
+        repository = context.getBean(BookRepository.class);
+        BenchmarkContext.seedBooks(repository, "isbn-", books);
+        filter = Book.builder().author("author 42").build();
+        List<Book> matching = service.findAfter(filter, Sort.Order.asc("id"), null, books).getContent();
+        deepCursor = matching.get(matching.size() - 11);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Book> findFirstPage() {
+        return service.find(filter, PageRequest.of(0, 10));
+    }
+
+    @Benchmark
+    public Page<Book> findLastPage() {
+        return service.find(Book.builder().build(), PageRequest.of(books / 20 - 1, 20));
+    }
+
+    @Benchmark
+    public Slice<Book> findAfterDeepCursor() {
+        return service.findAfter(filter, Sort.Order.asc("id"), deepCursor, 10);
+    }
+
+    @Benchmark
+    public Optional<Book> getBookByIsbnCached() {
+        return service.getBookByIsbn("isbn-" + ThreadLocalRandom.current().nextInt(100));
+    }
+
+    @Benchmark
+    public Optional<Book> repositoryFindByIsbn() {
+        return repository.findByNormalizedIsbn(Book.normalizeIsbn("isbn-" + ThreadLocalRandom.current().nextInt(books)));
+    }
+
+    @Benchmark
+    public Optional<Book> repositoryFindById() {
+        return repository.findById((long) ThreadLocalRandom.current().nextInt(books) + 1);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ServiceBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,85 @@
+package com.godofredo.libraryapi.benchmark;
+
+import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.service.BookService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BookService read paths with the JPA backend (H2, second level and isbn caches) and with the
+ * {@code memory} profile's in-memory store, on a catalog of {@code books} books. The isbns are
+ * drawn from the whole catalog, larger than the isbn cache, so the JPA path mostly misses it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageBenchmark {
+
+    @Param({"100000"})
+    private int books;
+
+    @Param({"jpa", "memory"})
+    private String backend;
+
+    private ConfigurableApplicationContext context;
+    private BookService service;
+    private long firstId;
+    private Book filter;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(WebApplicationType.NONE, "storage_benchmark_" + backend,
+                "spring.profiles.active=" + ("memory".equals(backend) ? "memory" : "default"));
+        service = context.getBean(BookService.class);
+        List<Book> batch = new ArrayList<>(1000);
+        for (int i = 0; i < books; i++) {
+            batch.add(Book.builder().title("Title " + i).author("Author " + (i % 500)).isbn("isbn-" + i).build());
+            if (batch.size() == 1000) {
+                service.saveAll(batch);
+                batch.clear();
+            }
+        }
+        firstId = service.getBookByIsbn("isbn-0").get().getId();
+        filter = Book.builder().author("author 42").build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Book> getById() {
+        return service.getById(firstId + ThreadLocalRandom.current().nextInt(books));
+    }
+
+    @Benchmark
+    public Optional<Book> getBookByIsbn() {
+        return service.getBookByIsbn("isbn-" + ThreadLocalRandom.current().nextInt(books));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Page<Book> findFirstPage() {
+        return service.find(filter, PageRequest.of(0, 10));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(StorageBenchmark.class.getSimpleName()).build()).run();
+    }
+}
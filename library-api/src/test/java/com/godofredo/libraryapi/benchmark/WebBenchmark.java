@@ -0,0 +1,80 @@
+package com.godofredo.libraryapi.benchmark;
+
+import com.godofredo.libraryapi.model.repository.BookRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Full request cost of BookController and LoanController through MockMvc, from JSON parsing to JSON
+ * writing, against H2.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WebBenchmark {
+
+    private static final int LOANABLE_BOOKS = 100_000;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mvc;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong loans = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(WebApplicationType.SERVLET, "web_benchmark");
+        mvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        BenchmarkContext.seedBooks(context.getBean(BookRepository.class), "loan-", LOANABLE_BOOKS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult createBook() throws Exception {
+        long n = sequence.incrementAndGet();
+        String json = "{\"title\":\"Title " + n + "\",\"author\":\"Author\",\"isbn\":\"create-" + n + "\"}";
+        return mvc.perform(MockMvcRequestBuilders.post("/api/books")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(json)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult createLoan() throws Exception {
+        long n = loans.getAndIncrement() % LOANABLE_BOOKS;
+        String json = "{\"isbn\":\"loan-" + n + "\",\"customer\":\"Customer " + n + "\"}";
+        return mvc.perform(MockMvcRequestBuilders.post("/api/loans")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(json)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult findBooks() throws Exception {
+        return mvc.perform(MockMvcRequestBuilders.get("/api/books?author=Author 42&page=0&size=20")
+                .accept(MediaType.APPLICATION_JSON)).andReturn();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(WebBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,162 @@
+package com.godofredo.libraryapi.config;
+
+import com.godofredo.libraryapi.metrics.QueryBudgetExceededException;
+import com.godofredo.libraryapi.metrics.QueryCountInterceptor;
+import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.model.repository.BookRepository;
+import com.godofredo.libraryapi.service.BookService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "library.web.async.enabled=true",
+        "library.web.async.pool-size=1",
+        "library.web.async.queue-capacity=0"})
+@AutoConfigureMockMvc
+public class AsyncWebConfigTest {
+
+    static final String BOOK_API = "/api/books";
+
+    @Autowired
+    MockMvc mvc;
+
+    @SpyBean
+    BookService bookService;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Test
+    @DisplayName("Run the book handlers on the async executor")
+    public void asyncBookHandlersTest() throws Exception {
+        String json = "{\"title\":\"Steve Jobs\",\"author\":\"Walter Isaacson\",\"isbn\":\"async-123\"}";
+        MvcResult created = mvc
+                .perform(MockMvcRequestBuilders.post(BOOK_API).contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc
+                .perform(MockMvcRequestBuilders.asyncDispatch(created))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("isbn").value("async-123"));
+
+        MvcResult missing = mvc
+                .perform(MockMvcRequestBuilders.get(BOOK_API + "/" + Long.MAX_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc
+                .perform(MockMvcRequestBuilders.asyncDispatch(missing))
+                .andExpect(status().isNotFound());
+
+        mvc
+                .perform(MockMvcRequestBuilders.post(BOOK_API).contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Answer 503 right away when the async executor is full")
+    public void busyExecutorTest() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return Optional.empty();
+        }).when(bookService).getById(1L);
+
+        MvcResult running = mvc
+                .perform(MockMvcRequestBuilders.get(BOOK_API + "/1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        started.await();
+
+        mvc
+                .perform(MockMvcRequestBuilders.get(BOOK_API + "/2"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("errors[0]").value("Server busy, retry later"));
+
+        release.countDown();
+        mvc
+                .perform(MockMvcRequestBuilders.asyncDispatch(running))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Count the SQL statements of a handler run on the async executor")
+    public void asyncQueryCountTest() throws Exception {
+        Book book = bookRepository.save(Book.builder().title("Steve Jobs").author("Walter Isaacson").isbn("async-456").build());
+
+        for (int i = 0; i < 2; i++) {
+            entityManagerFactory.getCache().evictAll();
+            double before = queries("GET", "/api/books/{id}");
+            MvcResult started = mvc
+                    .perform(MockMvcRequestBuilders.get(BOOK_API + "/" + book.getId()))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mvc
+                    .perform(MockMvcRequestBuilders.asyncDispatch(started))
+                    .andExpect(status().isOk());
+
+            assertThat(queries("GET", "/api/books/{id}") - before).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Enforce the query budget of a handler run on the async executor")
+    public void asyncQueryBudgetTest() throws Exception {
+        Book book = bookRepository.save(Book.builder().title("Steve Jobs").author("Walter Isaacson").isbn("async-789").build());
+        Mockito.doAnswer(invocation -> {
+            bookRepository.count();
+            bookRepository.count();
+            return invocation.callRealMethod();
+        }).when(bookService).update(Mockito.any(Book.class));
+
+        MvcResult started = mvc
+                .perform(MockMvcRequestBuilders.put(BOOK_API + "/" + book.getId())
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                        .param("title", "Steve Jobs, 2nd edition")
+                        .param("author", "Walter Isaacson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertThatThrownBy(() -> mvc.perform(MockMvcRequestBuilders.asyncDispatch(started)))
+                .hasRootCauseInstanceOf(QueryBudgetExceededException.class);
+    }
+
+    private double queries(String method, String uri) {
+        DistributionSummary summary = registry.find(QueryCountInterceptor.METRIC).tag("method", method).tag("uri", uri).summary();
+        return summary == null ? 0 : summary.totalAmount();
+    }
+}
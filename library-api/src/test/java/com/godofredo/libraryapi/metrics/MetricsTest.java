@@ -0,0 +1,55 @@
+package com.godofredo.libraryapi.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+public class MetricsTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Test
+    @DisplayName("Expose request, service, query, error and cache metrics for scraping")
+    public void prometheusScrapeTest() throws Exception {
+        String json = "{\"title\":\"Steve Jobs\",\"author\":\"Walter Isaacson\",\"isbn\":\"metrics-123\"}";
+        mvc.perform(MockMvcRequestBuilders.post("/api/books").contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isCreated());
+        mvc.perform(MockMvcRequestBuilders.post("/api/books").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(MockMvcRequestBuilders.post("/api/loans").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"isbn\":\"metrics-123\",\"customer\":\"Maverick\"}"))
+                .andExpect(status().isCreated());
+
+        mvc
+                .perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket{")))
+                .andExpect(content().string(containsString("quantile=\"0.999\"")))
+                .andExpect(content().string(containsString(
+                        "library_service_seconds_count{class=\"BookServiceImp\",exception=\"none\",method=\"save\",}")))
+                .andExpect(content().string(containsString(
+                        "library_service_seconds_count{class=\"LoanServiceImpl\",exception=\"none\",method=\"save\",}")))
+                .andExpect(content().string(containsString(
+                        "library_requests_queries_count{method=\"POST\",uri=\"/api/loans\",}")))
+                .andExpect(content().string(containsString(
+                        "library_errors_total{exception=\"InvalidRequestException\",}")))
+                .andExpect(content().string(containsString("cache_gets_total{cache=\"books.isbn\"")));
+    }
+}
@@ -0,0 +1,122 @@
+package com.godofredo.libraryapi.metrics;
+
+import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.model.repository.BookRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the SQL statements of the write and multi-get endpoints, under the prod profile with the budgets enforced.
+ */
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles({"prod", "test"})
+@SpringBootTest
+@AutoConfigureMockMvc
+public class QueryBudgetTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Test
+    @DisplayName("Update a book with a select and an update, the select skipped when the book is cached")
+    public void updateBookQueriesTest() throws Exception {
+        Book book = bookRepository.save(Book.builder().title("Steve Jobs").author("Walter Isaacson").isbn("budget-123").build());
+        entityManagerFactory.getCache().evictAll();
+
+        assertThat(queries(update(book.getId(), "Steve Jobs, 2nd edition"), "PUT", "/api/books/{id}")).isEqualTo(2);
+        assertThat(queries(update(book.getId(), "Steve Jobs, 3rd edition"), "PUT", "/api/books/{id}")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Loan a book with an isbn lookup, a row lock, an active loan check, an insert and its availability")
+    public void createLoanQueriesTest() throws Exception {
+        bookRepository.save(Book.builder().title("Steve Jobs").author("Walter Isaacson").isbn("budget-456").build());
+        bookRepository.save(Book.builder().title("Steve Jobs").author("Walter Isaacson").isbn("budget-789").build());
+        // the first loan also initializes the loan sequence
+        mvc.perform(loan("budget-456")).andExpect(status().isCreated());
+
+        // a first loan of the book inserts its availability, a later one updates it
+        assertThat(queries(loan("budget-789"), "POST", "/api/loans")).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("Get books by 600 ids with two IN queries")
+    public void multiGetQueriesTest() throws Exception {
+        Book book = bookRepository.save(Book.builder().title("Steve Jobs").author("Walter Isaacson").isbn("budget-multi").build());
+        StringBuilder ids = new StringBuilder().append(book.getId());
+        for (int i = 1; i < 600; i++) {
+            ids.append(",").append(-i);
+        }
+
+        assertThat(queries(MockMvcRequestBuilders.get("/api/books").param("ids", ids.toString()), "GET", "/api/books"))
+                .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Refuse the statement over the budget")
+    public void enforceBudgetTest() {
+        QueryCountInspector inspector = new QueryCountInspector();
+        inspector.begin(2);
+        inspector.inspect("select 1");
+        inspector.inspect("select 2");
+
+        assertThatThrownBy(() -> inspector.inspect("select 3")).isInstanceOf(QueryBudgetExceededException.class);
+
+        inspector.reset();
+        inspector.inspect("select 1");
+        inspector.inspect("select 2");
+        inspector.inspect("select 3");
+        assertThat(inspector.current()).isEqualTo(3);
+    }
+
+    private double queries(MockHttpServletRequestBuilder request, String method, String uri) throws Exception {
+        double before = total(method, uri);
+        mvc.perform(request).andExpect(status().is2xxSuccessful());
+        return total(method, uri) - before;
+    }
+
+    private double total(String method, String uri) {
+        DistributionSummary summary = registry.find(QueryCountInterceptor.METRIC).tag("method", method).tag("uri", uri).summary();
+        return summary == null ? 0 : summary.totalAmount();
+    }
+
+    private static MockHttpServletRequestBuilder update(Long id, String title) {
+        return MockMvcRequestBuilders.put("/api/books/" + id)
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .param("title", title)
+                .param("author", "Walter Isaacson");
+    }
+
+    private static MockHttpServletRequestBuilder loan(String isbn) {
+        return MockMvcRequestBuilders.post("/api/loans")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"isbn\":\"" + isbn + "\",\"customer\":\"Maverick\"}");
+    }
+}
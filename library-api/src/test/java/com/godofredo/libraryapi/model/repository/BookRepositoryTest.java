@@ -1,18 +1,25 @@
 package com.godofredo.libraryapi.model.repository;
 
 import com.godofredo.libraryapi.model.entity.Book;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.assertj.core.api.InstanceOfAssertFactories.OPTIONAL;
 
 @ExtendWith(SpringExtension.class)
@@ -85,6 +92,86 @@ public class BookRepositoryTest {
         assertThat(savedBook.getId()).isNotNull();
     }
 
+    @Test
+    @DisplayName("Find the isbns already taken in one query")
+    public void findExistingIsbnsTest(){
+        entityManager.persist(createANewBook());
+
+        List<String> existing = repository.findExistingIsbns(Arrays.asList("123", "456"));
+
+        assertThat(existing).containsExactly("123");
+    }
+
+    @Test
+    @DisplayName("Seek through books by title and id")
+    public void findAfterTest(){
+        Book first = entityManager.persist(Book.builder().author("Bill").title("A").isbn("1").build());
+        Book second = entityManager.persist(Book.builder().author("Bill").title("B").isbn("2").build());
+        Book third = entityManager.persist(Book.builder().author("Bill").title("B").isbn("3").build());
+        entityManager.persist(Book.builder().author("Steve").title("C").isbn("4").build());
+        Book fifth = entityManager.persist(Book.builder().author("bill").title("D").isbn("5").build());
+        Book filter = Book.builder().author("BILL").build();
+
+        List<Book> firstPage = repository.findAfter(filter, Sort.Order.asc("title"), null, 2);
+        List<Book> secondPage = repository.findAfter(filter, Sort.Order.asc("title"), firstPage.get(1), 2);
+        List<Book> descending = repository.findAfter(filter, Sort.Order.desc("title"), third, 2);
+
+        assertThat(firstPage).containsExactly(first, second);
+        assertThat(secondPage).containsExactly(third, fifth);
+        assertThat(descending).containsExactly(second, first);
+    }
+
+    @Test
+    @DisplayName("Find a book by the normalized isbn")
+    public void findByNormalizedIsbnTest(){
+        Book book = Book.builder().author("Bill").title("Gates 3").isbn("978-0-306-40615-x").build();
+        entityManager.persist(book);
+
+        Optional<Book> foundBook = repository.findByNormalizedIsbn(Book.normalizeIsbn("978 0 306 40615 X"));
+
+        assertThat(foundBook).contains(book);
+        assertThat(book.getNormalizedIsbn()).isEqualTo("978030640615X");
+    }
+
+    @Test
+    @DisplayName("The database rejects a duplicated isbn")
+    public void duplicatedIsbnTest(){
+        repository.saveAndFlush(createANewBook());
+
+        Throwable exception = catchThrowable(() -> repository.saveAndFlush(Book.builder().author("Steve").title("Jobs").isbn("1-2-3").build()));
+
+        assertThat(exception).isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(((ConstraintViolationException) exception.getCause()).getConstraintName()).containsIgnoringCase(Book.ISBN_INDEX);
+    }
+
+    @Test
+    @DisplayName("Scroll over the matching books in id order")
+    public void scrollTest(){
+        for (int i = 0; i < 5; i++) {
+            entityManager.persist(Book.builder().title("Title " + i).author(i % 2 == 0 ? "Walter" : "Steve").isbn("scroll-" + i).build());
+        }
+        entityManager.flush();
+
+        List<String> isbns = new ArrayList<>();
+        repository.scroll(Book.builder().author("walt").build(), 2, book -> isbns.add(book.getIsbn()));
+
+        assertThat(isbns).containsExactly("scroll-0", "scroll-2", "scroll-4");
+    }
+
+    @Test
+    @DisplayName("Bump the version and the last modified time on update")
+    public void versionTest(){
+        Book book = repository.saveAndFlush(createANewBook());
+        assertThat(book.getVersion()).isEqualTo(0L);
+        assertThat(book.getLastModified()).isNotNull();
+
+        book.setTitle("Another title");
+        Book updated = repository.saveAndFlush(book);
+
+        assertThat(updated.getVersion()).isEqualTo(1L);
+        assertThat(updated.getLastModified()).isAfterOrEqualTo(book.getLastModified());
+    }
+
     public Book createANewBook() {
         return Book.builder().author("Bill").title("Gates 3").isbn("123").build();
     }
@@ -1,15 +1,22 @@
 package com.godofredo.libraryapi.model.repository;
 
 import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.model.entity.Loan;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -24,6 +31,9 @@ public class LoanRepositoryTest {
     @Autowired
     BookRepository repository;
 
+    @Autowired
+    LoanRepository loanRepository;
+
     @Test
     @DisplayName("Return true when find isbn")
     public void returnTrueWhenExistIsbn (){
@@ -84,6 +94,56 @@ public class LoanRepositoryTest {
         assertThat(savedBook.getId()).isNotNull();
     }
 
+    @Test
+    @DisplayName("Tell if a book is on loan")
+    public void existsActiveLoanTest(){
+        Book loaned = entityManager.persist(createANewBook());
+        Book returned = entityManager.persist(Book.builder().author("Steve").title("Jobs").isbn("456").build());
+        Book neverLoaned = entityManager.persist(Book.builder().author("Steve").title("Wozniak").isbn("789").build());
+        entityManager.persist(Loan.builder().book(loaned).customer("Neo").loanDate(LocalDate.now()).returned(false).build());
+        entityManager.persist(Loan.builder().book(returned).customer("Neo").loanDate(LocalDate.now()).returned(true).build());
+
+        assertThat(loanRepository.existsByBookAndReturnedFalse(loaned)).isTrue();
+        assertThat(loanRepository.existsByBookAndReturnedFalse(returned)).isFalse();
+        assertThat(loanRepository.existsByBookAndReturnedFalse(neverLoaned)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Find the loaned books and the active loans of a basket")
+    public void basketLoansTest(){
+        Book loaned = entityManager.persist(createANewBook());
+        Book returned = entityManager.persist(Book.builder().author("Steve").title("Jobs").isbn("456").build());
+        Book neverLoaned = entityManager.persist(Book.builder().author("Steve").title("Wozniak").isbn("789").build());
+        Loan active = entityManager.persist(Loan.builder().book(loaned).customer("Neo").loanDate(LocalDate.now()).returned(false).build());
+        entityManager.persist(Loan.builder().book(returned).customer("Neo").loanDate(LocalDate.now()).returned(true).build());
+
+        List<Long> loanedIds = loanRepository.findLoanedBookIds(Arrays.asList(loaned, returned, neverLoaned));
+        List<Loan> activeLoans = loanRepository.findActiveByNormalizedIsbnIn(Arrays.asList("123", "456", "789"));
+
+        assertThat(loanedIds).containsExactly(loaned.getId());
+        assertThat(activeLoans).containsExactly(active);
+        assertThat(repository.findByNormalizedIsbnInForUpdate(Arrays.asList("123", "789", "000")))
+                .containsExactly(loaned, neverLoaned);
+    }
+
+    @Test
+    @DisplayName("Find the overdue loans, oldest first, and the next chunk after a high-water mark")
+    public void overdueLoansTest(){
+        LocalDate dueBefore = LocalDate.now().minusDays(14);
+        Book book = entityManager.persist(createANewBook());
+        Loan oldest = entityManager.persist(Loan.builder().book(book).customer("Neo").loanDate(dueBefore.minusDays(10)).returned(false).build());
+        Loan overdue = entityManager.persist(Loan.builder().book(book).customer("Neo").loanDate(dueBefore.minusDays(1)).returned(false).build());
+        entityManager.persist(Loan.builder().book(book).customer("Neo").loanDate(dueBefore.minusDays(5)).returned(true).build());
+        entityManager.persist(Loan.builder().book(book).customer("Neo").loanDate(dueBefore).returned(false).build());
+
+        Page<Loan> page = loanRepository.findOverdue(dueBefore, PageRequest.of(0, 10, Sort.by("loanDate", "id")));
+        List<Loan> next = loanRepository.findOverdueAfter(dueBefore, oldest.getLoanDate(), oldest.getId(), PageRequest.of(0, 10));
+
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(page.getContent()).containsExactly(oldest, overdue);
+        assertThat(next).containsExactly(overdue);
+    }
+
     public Book createANewBook() {
         return Book.builder().author("Bill").title("Gates 3").isbn("123").build();
     }
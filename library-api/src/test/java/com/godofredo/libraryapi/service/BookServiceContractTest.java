@@ -0,0 +1,243 @@
+package com.godofredo.libraryapi.service;
+
+import com.godofredo.libraryapi.exception.BusinessException;
+import com.godofredo.libraryapi.model.entity.Book;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Behaviour every {@link BookService} implementation must have, whatever stores the books.
+ * Each test tags its books, so the implementations may share their storage between tests.
+ */
+public abstract class BookServiceContractTest {
+
+    private final String tag = "t" + Long.toString(System.nanoTime(), 36);
+
+    protected abstract BookService service();
+
+    @Test
+    @DisplayName("Save a book and find it by id and isbn")
+    public void saveAndGetTest() {
+        Book saved = service().save(book("Steve Jobs", "Walter Isaacson", "978-1"));
+
+        assertThat(saved.getId()).isNotNull();
+        assertThat(saved.getVersion()).isEqualTo(0L);
+        Book found = service().getById(saved.getId()).get();
+        assertThat(found.getTitle()).isEqualTo(tag + " Steve Jobs");
+        assertThat(found.getAuthor()).isEqualTo("Walter Isaacson");
+        assertThat(found.getIsbn()).isEqualTo(tag + "-978-1");
+        assertThat(found.getNormalizedIsbn()).isEqualTo(Book.normalizeIsbn(tag + "9781"));
+        assertThat(service().getBookByIsbn(tag + " 978 1").get().getId()).isEqualTo(saved.getId());
+        assertThat(service().getBookByIsbn(tag + "-000").isPresent()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Refuse a duplicated isbn, whatever its formatting")
+    public void duplicatedIsbnTest() {
+        service().save(book("Steve Jobs", "Walter Isaacson", "978-1"));
+
+        Throwable exception = Assertions.catchThrowable(() -> service().save(book("Einstein", "Walter Isaacson", "9781")));
+
+        assertThat(exception).isInstanceOf(BusinessException.class).hasMessage("Duplicated Isbn");
+    }
+
+    @Test
+    @DisplayName("Update a book and its isbn")
+    public void updateTest() {
+        Book saved = service().save(book("Steve Jobs", "Walter Isaacson", "978-1"));
+        Book book = service().getById(saved.getId()).get();
+        book.setTitle(tag + " Einstein");
+        book.setIsbn(tag + "-978-2");
+
+        Book updated = service().update(book);
+
+        assertThat(updated.getVersion()).isEqualTo(saved.getVersion() + 1);
+        assertThat(service().getById(saved.getId()).get().getTitle()).isEqualTo(tag + " Einstein");
+        assertThat(service().getBookByIsbn(tag + "-978-1").isPresent()).isFalse();
+        assertThat(service().getBookByIsbn(tag + "-978-2").get().getId()).isEqualTo(saved.getId());
+    }
+
+    @Test
+    @DisplayName("Refuse to update a book modified since it was read")
+    public void staleUpdateTest() {
+        Book saved = service().save(book("Steve Jobs", "Walter Isaacson", "978-1"));
+        Book first = service().getById(saved.getId()).get();
+        Book second = service().getById(saved.getId()).get();
+        first.setTitle(tag + " First");
+        service().update(first);
+        second.setTitle(tag + " Second");
+
+        Throwable exception = Assertions.catchThrowable(() -> service().update(second));
+
+        assertThat(exception).isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(service().getById(saved.getId()).get().getTitle()).isEqualTo(tag + " First");
+    }
+
+    @Test
+    @DisplayName("Refuse to update or delete a book without id")
+    public void withoutIdTest() {
+        org.junit.jupiter.api.Assertions.assertThrows(IllegalArgumentException.class, () -> service().update(new Book()));
+        org.junit.jupiter.api.Assertions.assertThrows(IllegalArgumentException.class, () -> service().delete(new Book()));
+    }
+
+    @Test
+    @DisplayName("Delete a book")
+    public void deleteTest() {
+        Book saved = service().save(book("Steve Jobs", "Walter Isaacson", "978-1"));
+
+        service().delete(saved);
+
+        assertThat(service().getById(saved.getId()).isPresent()).isFalse();
+        assertThat(service().getBookByIsbn(tag + "-978-1").isPresent()).isFalse();
+        assertThat(service().save(book("Einstein", "Walter Isaacson", "978-1")).getId()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Find books containing the filter values, ignoring case, sorted and paged")
+    public void findTest() {
+        service().save(book("Steve Jobs", "Walter Isaacson", "1"));
+        service().save(book("Einstein", "Walter Isaacson", "2"));
+        service().save(book("Benjamin Franklin", "Walter Isaacson", "3"));
+        service().save(book("Walter Benjamin", "Howard Eiland", "4"));
+
+        Book filter = Book.builder().title(tag.toUpperCase()).author("walter").build();
+        Page<Book> firstPage = service().find(filter, PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "title")));
+        Page<Book> secondPage = service().find(filter, PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "title")));
+
+        assertThat(firstPage.getTotalElements()).isEqualTo(3);
+        assertThat(firstPage.getContent()).extracting(Book::getTitle).containsExactly(tag + " Steve Jobs", tag + " Einstein");
+        assertThat(secondPage.getContent()).extracting(Book::getTitle).containsExactly(tag + " Benjamin Franklin");
+        assertThat(service().find(Book.builder().isbn(tag + "-4").build(), PageRequest.of(0, 10)).getContent())
+                .extracting(Book::getAuthor).containsExactly("Howard Eiland");
+    }
+
+    @Test
+    @DisplayName("Save the books of a list whose isbn is not taken")
+    public void saveAllTest() {
+        service().save(book("Steve Jobs", "Walter Isaacson", "1"));
+
+        List<Book> saved = service().saveAll(Arrays.asList(
+                book("Einstein", "Walter Isaacson", "2"),
+                book("Steve Jobs again", "Walter Isaacson", "1"),
+                book("Einstein again", "Walter Isaacson", "-2")));
+
+        assertThat(saved).extracting(Book::getTitle).containsExactly(tag + " Einstein");
+        assertThat(saved.get(0).getId()).isNotNull();
+        assertThat(service().getBookByIsbn(tag + "2").isPresent()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Seek the books slice after slice")
+    public void findAfterTest() {
+        for (String title : Arrays.asList("C", "A", "E", "B", "D")) {
+            service().save(book(title, "Author", title));
+        }
+        Book filter = Book.builder().title(tag).build();
+
+        List<String> titles = new ArrayList<>();
+        Book after = null;
+        Slice<Book> slice;
+        do {
+            slice = service().findAfter(filter, Sort.Order.desc("title"), after, 2);
+            slice.getContent().forEach(book -> titles.add(book.getTitle().substring(tag.length() + 1)));
+            after = slice.getContent().isEmpty() ? null : slice.getContent().get(slice.getContent().size() - 1);
+        } while (slice.hasNext());
+
+        assertThat(titles).containsExactly("E", "D", "C", "B", "A");
+        Throwable exception = Assertions.catchThrowable(() -> service().findAfter(filter, Sort.Order.asc("version"), null, 2));
+        assertThat(exception).isInstanceOf(BusinessException.class).hasMessage("Invalid sort property");
+    }
+
+    @Test
+    @DisplayName("Seek through books without a title, first ascending and last descending")
+    public void findAfterNullKeyTest() {
+        List<Long> titled = new ArrayList<>();
+        List<Long> untitled = new ArrayList<>();
+        for (String title : Arrays.asList("B", null, "A", null)) {
+            Book saved = service().save(Book.builder().title(title).author(tag).isbn(tag + "-" + titled.size() + "-" + untitled.size()).build());
+            (title == null ? untitled : titled).add(saved.getId());
+        }
+        Book filter = Book.builder().author(tag).build();
+
+        assertThat(seekAll(filter, Sort.Order.asc("title")))
+                .containsExactly(untitled.get(0), untitled.get(1), titled.get(1), titled.get(0));
+        assertThat(seekAll(filter, Sort.Order.desc("title")))
+                .containsExactly(titled.get(0), titled.get(1), untitled.get(1), untitled.get(0));
+    }
+
+    private List<Long> seekAll(Book filter, Sort.Order order) {
+        List<Long> ids = new ArrayList<>();
+        Book after = null;
+        Slice<Book> slice;
+        do {
+            slice = service().findAfter(filter, order, after, 1);
+            slice.getContent().forEach(book -> ids.add(book.getId()));
+            after = slice.getContent().isEmpty() ? null : slice.getContent().get(0);
+        } while (slice.hasNext());
+        return ids;
+    }
+
+    @Test
+    @DisplayName("Search books by the words of their title")
+    public void searchTest() {
+        Book jobs = service().save(book("Steve Jobs", "Walter Isaacson", "1"));
+        service().save(book("Einstein", "Walter Isaacson", "2"));
+
+        Page<Book> result = service().search(tag + " jobs", PageRequest.of(0, 10));
+
+        assertThat(result.getContent()).extracting(Book::getId).containsExactly(jobs.getId());
+    }
+
+    @Test
+    @DisplayName("Export the matching books in id order")
+    public void exportTest() {
+        Book first = service().save(book("Steve Jobs", "Walter Isaacson", "1"));
+        Book second = service().save(book("Einstein", "Walter Isaacson", "2"));
+        service().save(book("Walter Benjamin", "Howard Eiland", "3"));
+
+        List<Long> exported = new ArrayList<>();
+        service().export(Book.builder().title(tag).author("isaacson").build(), book -> exported.add(book.getId()));
+
+        assertThat(exported).containsExactly(first.getId(), second.getId());
+    }
+
+    @Test
+    @DisplayName("Get many books by id and by isbn, more than one chunk of them")
+    public void multiGetTest() {
+        Book first = service().save(book("Steve Jobs", "Walter Isaacson", "978-1"));
+        Book second = service().save(book("Einstein", "Walter Isaacson", "978-2"));
+        List<Long> ids = new ArrayList<>();
+        List<String> isbns = new ArrayList<>();
+        for (long i = 1; i <= 1200; i++) {
+            ids.add(-i);
+            isbns.add(tag + "-missing-" + i);
+        }
+        ids.addAll(Arrays.asList(second.getId(), first.getId(), first.getId(), null));
+        isbns.addAll(Arrays.asList(tag + " 978 2", tag + "-978-1", null));
+
+        Map<Long, Book> byId = service().getByIds(ids);
+        Map<String, Book> byIsbn = service().getByIsbns(isbns);
+
+        assertThat(byId).containsOnlyKeys(first.getId(), second.getId());
+        assertThat(byId.get(first.getId()).getTitle()).isEqualTo(tag + " Steve Jobs");
+        assertThat(byIsbn).containsOnlyKeys(Book.normalizeIsbn(tag + "9781"), Book.normalizeIsbn(tag + "9782"));
+        assertThat(byIsbn.get(Book.normalizeIsbn(tag + "9782")).getId()).isEqualTo(second.getId());
+    }
+
+    private Book book(String title, String author, String isbn) {
+        return Book.builder().title(tag + " " + title).author(author).isbn(tag + "-" + isbn).build();
+    }
+}
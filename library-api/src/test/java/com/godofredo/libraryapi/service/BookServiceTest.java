@@ -3,7 +3,10 @@ package com.godofredo.libraryapi.service;
 import com.godofredo.libraryapi.exception.BusinessException;
 import com.godofredo.libraryapi.model.entity.Book;
 import com.godofredo.libraryapi.model.repository.BookRepository;
+import com.godofredo.libraryapi.service.cache.BookIsbnCache;
+import com.godofredo.libraryapi.service.cache.SingleFlight;
 import com.godofredo.libraryapi.service.impl.BookServiceImp;
+import com.godofredo.libraryapi.service.search.BookSearchIndex;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -11,14 +14,29 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.*;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -26,6 +44,8 @@ import static org.mockito.Mockito.*;
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
 public class BookServiceTest {
+    static final int CALLERS = 16;
+
     BookService service;
 
     @MockBean
@@ -42,8 +62,7 @@ public class BookServiceTest {
     @DisplayName("Must save a book")
     public void saveBookTest(){
         Book book = createValidBook();
-        when(repository.existsByIsbn(Mockito.anyString())).thenReturn(false);
-        when(repository.save(book)).thenReturn(Book.builder().id(1L).isbn("654321").author("Bill").title("Gates 3").build());
+        when(repository.saveAndFlush(book)).thenReturn(Book.builder().id(1L).isbn("654321").author("Bill").title("Gates 3").build());
         Book bookSaved = service.save(book);
         assertThat(bookSaved.getId()).isNotNull();
         assertThat(bookSaved.getAuthor()).isEqualTo(book.getAuthor());
@@ -56,14 +75,28 @@ public class BookServiceTest {
     public void shouldNotSaveABookWithDuplicatedISBN(){
         Book book = createValidBook();
 
-        when(repository.existsByIsbn(Mockito.anyString())).thenReturn(true);
+        when(repository.saveAndFlush(book)).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("Unique index or primary key violation", null, "PUBLIC.UX_BOOK_ISBN_INDEX_1")));
 
         Throwable exception = Assertions.catchThrowable(() -> service.save(book));
         assertThat(exception)
                 .isInstanceOf(BusinessException.class)
                 .hasMessage("Duplicated Isbn");
 
-        verify(repository, Mockito.never()).save(book);
+        verify(repository, Mockito.never()).existsByIsbn(Mockito.anyString());
+    }
+
+    @Test
+    @DisplayName("Must not hide other integrity errors")
+    public void shouldKeepOtherIntegrityErrors(){
+        Book book = createValidBook();
+        DataIntegrityViolationException error = new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("NULL not allowed", null, "TITLE"));
+        when(repository.saveAndFlush(book)).thenThrow(error);
+
+        Throwable exception = Assertions.catchThrowable(() -> service.save(book));
+
+        assertThat(exception).isSameAs(error);
     }
 
     @Test
@@ -106,6 +139,19 @@ public class BookServiceTest {
         verify(repository, Mockito.times(1)).delete(book);
     }
 
+    @Test
+    @DisplayName("Must not delete a book with loans")
+    public void deleteBookWithLoansTest(){
+        Book book = Book.builder().id(1L).build();
+        when(repository.hasLoans(1L)).thenReturn(true);
+
+        Throwable exception = Assertions.catchThrowable(() -> service.delete(book));
+
+        assertThat(exception).isInstanceOf(BusinessException.class).hasMessage("Book has loans");
+        verify(repository, Mockito.never()).deleteAvailability(1L);
+        verify(repository, Mockito.never()).delete(book);
+    }
+
     @Test
     @DisplayName("Delete book By Id not found")
     public void deleteBookByIdNotFoundTest(){
@@ -165,6 +211,23 @@ public class BookServiceTest {
 
     }
 
+    @Test
+    @DisplayName("Must save only the books with a new isbn")
+    public void saveAllBooksTest(){
+        Book existing = createValidBook();
+        Book fresh = Book.builder().author("Steve").title("Jobs").isbn("123").build();
+        Book repeated = Book.builder().author("Steve").title("Jobs").isbn("123").build();
+
+        when(repository.findExistingIsbns(Mockito.anyCollection())).thenReturn(Arrays.asList("654321"));
+        when(repository.saveAll(Mockito.anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<Book> saved = service.saveAll(Arrays.asList(existing, fresh, repeated));
+
+        assertThat(saved).containsExactly(fresh);
+        verify(repository, times(1)).findExistingIsbns(Mockito.anyCollection());
+        verify(repository, never()).existsByIsbn(Mockito.anyString());
+    }
+
     public Book createValidBook() {
         return Book.builder().author("Bill").title("Gates 3").isbn("654321").build();
     }
@@ -173,7 +236,7 @@ public class BookServiceTest {
     @DisplayName("Get book by isbn Test")
     public void getBookByIsbnTest (){
         String isbn = "1230";
-        when(repository.findByIsbn(isbn)).thenReturn(Optional.of(Book.builder().id(1L).isbn(isbn).build()));
+        when(repository.findByNormalizedIsbn(isbn)).thenReturn(Optional.of(Book.builder().id(1L).isbn(isbn).build()));
 
         Optional<Book> book = service.getBookByIsbn(isbn);
 
@@ -181,7 +244,235 @@ public class BookServiceTest {
         assertThat(book.get().getId()).isEqualTo(1L);
         assertThat(book.get().getIsbn()).isEqualTo(isbn);
 
-        verify(repository, times(1)).findByIsbn(isbn);
+        verify(repository, times(1)).findByNormalizedIsbn(isbn);
+
+    }
+
+    @Test
+    @DisplayName("Get book by isbn from the cache")
+    public void getBookByIsbnCachedTest(){
+        String isbn = "1230";
+        when(repository.findByNormalizedIsbn(isbn)).thenReturn(Optional.of(Book.builder().id(1L).isbn(isbn).build()));
+        when(repository.findByNormalizedIsbn("999")).thenReturn(Optional.empty());
+
+        service.getBookByIsbn("1-23 0");
+        Optional<Book> book = service.getBookByIsbn(isbn);
+        service.getBookByIsbn("999");
+        Optional<Book> unknown = service.getBookByIsbn("999");
+
+        assertThat(book.get().getId()).isEqualTo(1L);
+        assertThat(unknown.isPresent()).isFalse();
+        verify(repository, times(1)).findByNormalizedIsbn(isbn);
+        verify(repository, times(1)).findByNormalizedIsbn("999");
+    }
+
+    @Test
+    @DisplayName("Saving a book invalidates the cached isbn")
+    public void saveInvalidatesIsbnCacheTest(){
+        Book book = createValidBook();
+        when(repository.findByNormalizedIsbn(book.getIsbn())).thenReturn(Optional.empty());
+        when(repository.saveAndFlush(book)).thenReturn(Book.builder().id(1L).isbn(book.getIsbn()).build());
+
+        service.getBookByIsbn(book.getIsbn());
+        service.save(book);
+        service.getBookByIsbn(book.getIsbn());
+
+        verify(repository, never()).existsByIsbn(Mockito.anyString());
+        verify(repository, times(2)).findByNormalizedIsbn(book.getIsbn());
+    }
+
+    @Test
+    @DisplayName("Saving books in a transaction keeps the cached isbn until the transaction is over")
+    public void saveAllInvalidatesIsbnCacheAfterCommitTest(){
+        BookIsbnCache isbnCache = new BookIsbnCache(10, Duration.ofMinutes(1));
+        BookService cached = new BookServiceImp(repository, isbnCache, new BookSearchIndex(repository), event -> { },
+                new SingleFlight<>("books.id"), new SingleFlight<>("books.isbn"));
+        Book book = Book.builder().author("Steve").title("Jobs").isbn("123").build();
+        when(repository.findByNormalizedIsbn("123")).thenReturn(Optional.empty());
+        when(repository.findExistingIsbns(Mockito.anyCollection())).thenReturn(Collections.emptyList());
+        when(repository.saveAll(Mockito.anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        cached.getBookByIsbn("123");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cached.saveAll(Arrays.asList(book));
+            assertThat(isbnCache.getIfPresent("123")).isNotNull();
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(isbnCache.getIfPresent("123")).isNull();
+    }
+
+    @Test
+    @DisplayName("Modifying a book got by isbn does not change the cached one")
+    public void getBookByIsbnCopiesTest(){
+        when(repository.findByNormalizedIsbn("123")).thenReturn(Optional.of(Book.builder().id(1L).title("Jobs").isbn("123").build()));
+
+        service.getBookByIsbn("123").get().setTitle("Gates");
+
+        assertThat(service.getBookByIsbn("123").get().getTitle()).isEqualTo("Jobs");
+        verify(repository, times(1)).findByNormalizedIsbn("123");
+    }
+
+    @Test
+    @DisplayName("Must throw error duplicated Isbn known by the cache")
+    public void shouldNotSaveABookWithCachedISBN(){
+        Book book = createValidBook();
+        when(repository.findByNormalizedIsbn(book.getIsbn())).thenReturn(Optional.of(Book.builder().id(1L).isbn(book.getIsbn()).build()));
+
+        service.getBookByIsbn(book.getIsbn());
+        Throwable exception = Assertions.catchThrowable(() -> service.save(book));
+
+        assertThat(exception).isInstanceOf(BusinessException.class).hasMessage("Duplicated Isbn");
+        verify(repository, never()).saveAndFlush(book);
+    }
+
+    @Test
+    @DisplayName("Must seek the next slice of books")
+    public void findAfterTest(){
+        Book after = Book.builder().id(3L).title("B").build();
+        List<Book> books = Arrays.asList(
+                Book.builder().id(4L).title("C").build(),
+                Book.builder().id(5L).title("D").build(),
+                Book.builder().id(6L).title("E").build());
+        when(repository.findAfter(null, Sort.Order.asc("title"), after, 3)).thenReturn(books);
+
+        Slice<Book> slice = service.findAfter(null, Sort.Order.asc("title"), after, 2);
+
+        assertThat(slice.getContent()).containsExactly(books.get(0), books.get(1));
+        assertThat(slice.hasNext()).isTrue();
+        verify(repository, never()).count();
+    }
+
+    @Test
+    @DisplayName("Must not seek by an unknown property")
+    public void findAfterInvalidSortTest(){
+        Throwable exception = Assertions.catchThrowable(() -> service.findAfter(null, Sort.Order.asc("password"), null, 2));
+
+        assertThat(exception).isInstanceOf(BusinessException.class).hasMessage("Invalid sort property");
+    }
+
+    @Test
+    @DisplayName("Must search books in relevance order")
+    public void searchBookTest(){
+        BookSearchIndex index = new BookSearchIndex(repository);
+        BookService searchService = new BookServiceImp(repository, new BookIsbnCache(10, Duration.ofMinutes(1)), index, event -> { },
+                new SingleFlight<>("books.id"), new SingleFlight<>("books.isbn"));
+        Book jobs = Book.builder().id(1L).title("Steve Jobs").author("Walter Isaacson").build();
+        Book einstein = Book.builder().id(2L).title("Einstein").author("Walter Isaacson").build();
+        Book walter = Book.builder().id(3L).title("Walter Benjamin").author("Howard Eiland").build();
+        Arrays.asList(jobs, einstein, walter).forEach(index::index);
+        when(repository.findAllById(Arrays.asList(3L, 1L))).thenReturn(Arrays.asList(jobs, walter));
+
+        Page<Book> result = searchService.search("walt*", PageRequest.of(0, 2));
+
+        assertThat(result.getContent()).containsExactly(walter, jobs);
+        assertThat(result.getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Concurrent lookups of the same id share one query")
+    public void coalescedGetByIdTest() throws Exception {
+        SingleFlight<Long, Optional<Book>> byId = new SingleFlight<>("books.id");
+        BookService coalescing = new BookServiceImp(repository, new BookIsbnCache(10, Duration.ofMinutes(1)),
+                new BookSearchIndex(repository), event -> { }, byId, new SingleFlight<>("books.isbn"));
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.findById(1L)).thenAnswer(invocation -> {
+            release.await();
+            return Optional.of(Book.builder().id(1L).title("Steve Jobs").isbn("123").build());
+        });
+
+        List<Future<Optional<Book>>> results = inParallel(() -> coalescing.getById(1L));
+        awaitCoalesced(byId, CALLERS - 1);
+        release.countDown();
+
+        Set<Book> books = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Future<Optional<Book>> result : results) {
+            assertThat(result.get().get().getTitle()).isEqualTo("Steve Jobs");
+            books.add(result.get().get());
+        }
+        verify(repository, times(1)).findById(1L);
+        assertThat(byId.loads()).isEqualTo(1);
+        assertThat(byId.coalesced()).isEqualTo(CALLERS - 1);
+        assertThat(books).as("every caller gets its own copy").hasSize(CALLERS);
+    }
+
+    @Test
+    @DisplayName("Concurrent lookups of the same isbn share one query")
+    public void coalescedGetBookByIsbnTest() throws Exception {
+        SingleFlight<String, Optional<Book>> byIsbn = new SingleFlight<>("books.isbn");
+        BookService coalescing = new BookServiceImp(repository, new BookIsbnCache(10, Duration.ofMinutes(1)),
+                new BookSearchIndex(repository), event -> { }, new SingleFlight<>("books.id"), byIsbn);
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.findByNormalizedIsbn("123")).thenAnswer(invocation -> {
+            release.await();
+            return Optional.of(Book.builder().id(1L).isbn("123").build());
+        });
+
+        List<Future<Optional<Book>>> results = inParallel(() -> coalescing.getBookByIsbn("1-23"));
+        awaitCoalesced(byIsbn, CALLERS - 1);
+        release.countDown();
+
+        for (Future<Optional<Book>> result : results) {
+            assertThat(result.get().get().getId()).isEqualTo(1L);
+        }
+        verify(repository, times(1)).findByNormalizedIsbn("123");
+        assertThat(byIsbn.coalesced()).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    @DisplayName("A lookup after an update does not share the load started before it")
+    public void updateDetachesLoadInFlightTest() throws Exception {
+        SingleFlight<Long, Optional<Book>> byId = new SingleFlight<>("books.id");
+        BookService coalescing = new BookServiceImp(repository, new BookIsbnCache(10, Duration.ofMinutes(1)),
+                new BookSearchIndex(repository), event -> { }, byId, new SingleFlight<>("books.isbn"));
+        Book before = Book.builder().id(1L).title("Before").isbn("123").build();
+        Book after = Book.builder().id(1L).title("After").isbn("123").build();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.findById(1L)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await();
+            return Optional.of(before);
+        }).thenReturn(Optional.of(after));
+        when(repository.save(after)).thenReturn(after);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<Optional<Book>> stale = executor.submit(() -> coalescing.getById(1L));
+        loading.await();
+        coalescing.update(after);
+        // would wait for the stale load, which is only released afterwards, if it were shared
+        Optional<Book> fresh = executor.submit(() -> coalescing.getById(1L)).get(5, TimeUnit.SECONDS);
+        release.countDown();
+
+        assertThat(fresh.get().getTitle()).isEqualTo("After");
+        assertThat(stale.get().get().getTitle()).isEqualTo("Before");
+        assertThat(byId.coalesced()).isZero();
+        executor.shutdown();
+    }
+
+    private static <T> List<Future<T>> inParallel(Callable<T> call) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return call.call();
+            }));
+        }
+        start.countDown();
+        executor.shutdown();
+        return results;
+    }
 
+    private static void awaitCoalesced(SingleFlight<?, ?> flight, long callers) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (flight.coalesced() < callers && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
     }
 }
@@ -0,0 +1,26 @@
+package com.godofredo.libraryapi.service;
+
+import com.godofredo.libraryapi.model.repository.BookRepository;
+import com.godofredo.libraryapi.service.event.BookChangedEvent;
+import com.godofredo.libraryapi.service.impl.InMemoryBookService;
+import com.godofredo.libraryapi.service.memory.BookStore;
+import com.godofredo.libraryapi.service.search.BookSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.mockito.Mockito;
+
+public class InMemoryBookServiceTest extends BookServiceContractTest {
+
+    BookService service;
+
+    @BeforeEach
+    public void setUp() {
+        BookSearchIndex searchIndex = new BookSearchIndex(Mockito.mock(BookRepository.class));
+        this.service = new InMemoryBookService(new BookStore(), searchIndex,
+                event -> searchIndex.onBookChanged((BookChangedEvent) event));
+    }
+
+    @Override
+    protected BookService service() {
+        return service;
+    }
+}
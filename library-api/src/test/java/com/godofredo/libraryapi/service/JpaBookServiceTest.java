@@ -0,0 +1,50 @@
+package com.godofredo.libraryapi.service;
+
+import com.godofredo.libraryapi.exception.BusinessException;
+import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.model.repository.BookAvailabilityRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest
+public class JpaBookServiceTest extends BookServiceContractTest {
+
+    @Autowired
+    BookService service;
+
+    @Autowired
+    LoanService loanService;
+
+    @Autowired
+    BookAvailabilityRepository availabilityRepository;
+
+    @Override
+    protected BookService service() {
+        return service;
+    }
+
+    @Test
+    @DisplayName("Keep a book that was loaned, with its availability")
+    public void deleteLoanedBookTest() {
+        Book book = service.save(Book.builder().title("Dune").author("Frank Herbert").isbn("jpa-delete-1").build());
+        loanService.checkout("Neo", Arrays.asList("jpa-delete-1"), LocalDate.now());
+        loanService.giveBack(Arrays.asList("jpa-delete-1"));
+
+        Throwable exception = Assertions.catchThrowable(() -> service.delete(book));
+
+        Assertions.assertThat(exception).isInstanceOf(BusinessException.class).hasMessage("Book has loans");
+        Assertions.assertThat(service.getById(book.getId())).isPresent();
+        Assertions.assertThat(availabilityRepository.findById(book.getId())).isPresent();
+    }
+}
@@ -0,0 +1,79 @@
+package com.godofredo.libraryapi.service;
+
+import com.godofredo.libraryapi.metrics.QueryCountInspector;
+import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.model.repository.BookRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest
+public class LoanBatchTest {
+
+    @Autowired
+    LoanService loanService;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    QueryCountInspector queryCount;
+
+    @Test
+    @DisplayName("Checkout and return a basket in a constant number of statements")
+    public void constantStatementsTest() {
+        // the first loan of the context initialises the pooled sequence
+        checkout(givenBooks("warmup", 1));
+        long smallCheckout = checkout(givenBooks("small", 3));
+        long largeCheckout = checkout(givenBooks("large", 30));
+        long smallReturn = giveBack(isbns("small", 3));
+        long largeReturn = giveBack(isbns("large", 30));
+
+        // at most one extra statement, when the basket drains the pooled sequence block
+        assertThat(largeCheckout).isBetween(smallCheckout - 1, smallCheckout + 1);
+        assertThat(largeReturn).isEqualTo(smallReturn);
+    }
+
+    private long checkout(List<String> isbns) {
+        queryCount.reset();
+        List<LoanBatchItem> items = loanService.checkout("Neo", isbns, LocalDate.now());
+        assertThat(items).allMatch(LoanBatchItem::isSuccess);
+        return queryCount.current();
+    }
+
+    private long giveBack(List<String> isbns) {
+        queryCount.reset();
+        List<LoanBatchItem> items = loanService.giveBack(isbns);
+        assertThat(items).allMatch(LoanBatchItem::isSuccess);
+        return queryCount.current();
+    }
+
+    private List<String> givenBooks(String prefix, int count) {
+        List<Book> books = new ArrayList<>();
+        for (String isbn : isbns(prefix, count)) {
+            books.add(Book.builder().title("Title").author("Author").isbn(isbn).build());
+        }
+        bookRepository.saveAll(books);
+        return isbns(prefix, count);
+    }
+
+    private static List<String> isbns(String prefix, int count) {
+        List<String> isbns = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            isbns.add("batch-" + prefix + "-" + i);
+        }
+        return isbns;
+    }
+}
@@ -2,7 +2,9 @@ package com.godofredo.libraryapi.service;
 
 import com.godofredo.libraryapi.exception.BusinessException;
 import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.model.entity.BookAvailability;
 import com.godofredo.libraryapi.model.entity.Loan;
+import com.godofredo.libraryapi.model.repository.BookAvailabilityRepository;
 import com.godofredo.libraryapi.model.repository.BookRepository;
 import com.godofredo.libraryapi.model.repository.LoanRepository;
 import com.godofredo.libraryapi.service.impl.BookServiceImp;
@@ -23,6 +25,7 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -35,11 +38,15 @@ public class LoanServiceTest {
 
     @MockBean
     LoanRepository repository;
+    @MockBean
+    BookRepository bookRepository;
+    @MockBean
+    BookAvailabilityRepository availabilityRepository;
     LoanService loanService;
 
     @BeforeEach
     public void setUp(){
-        this.loanService = new LoanServiceImpl(repository);
+        this.loanService = new LoanServiceImpl(repository, bookRepository, availabilityRepository);
     }
 
     @Test
@@ -48,9 +55,11 @@ public class LoanServiceTest {
         Book book = Book.builder().id(1L).build();
         String customer = "Neo";
 
-        Loan savingLoan = Loan.builder().id(1L).customer(customer).loanDate(LocalDate.now()).build();
+        Loan savingLoan = Loan.builder().id(1L).customer(customer).loanDate(LocalDate.now()).book(book).build();
 
         Loan savedLoan = Loan.builder().id(1L).customer(customer).loanDate(LocalDate.now()).book(book).build();
+        when(bookRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(book));
+        when(repository.existsByBookAndReturnedFalse(book)).thenReturn(false);
         when(repository.save(savingLoan)).thenReturn(savedLoan);
 
         Loan loan = loanService.save(savingLoan);
@@ -59,6 +68,99 @@ public class LoanServiceTest {
         assertThat(loan.getId()).isEqualTo(savedLoan.getId());
         assertThat(loan.getCustomer()).isEqualTo(savedLoan.getCustomer());
         assertThat(loan.getLoanDate()).isEqualTo(savedLoan.getLoanDate());
+        BookAvailability availability = BookAvailability.builder().bookId(1L).activeLoans(1).totalCheckouts(1).lastLoanDate(savedLoan.getLoanDate()).build();
+        verify(availabilityRepository, times(1)).saveAll(Arrays.asList(availability));
+    }
+
+    @Test
+    @DisplayName("Must count the checkout of a loan saved as returned")
+    public void saveReturnedLoanTest(){
+        Book book = Book.builder().id(1L).build();
+        LocalDate loanDate = LocalDate.now().minusDays(3);
+        Loan savingLoan = Loan.builder().customer("Neo").loanDate(loanDate).book(book).returned(true).build();
+        when(bookRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(book));
+        when(repository.existsByBookAndReturnedFalse(book)).thenReturn(false);
+        when(repository.save(savingLoan)).thenReturn(savingLoan);
+
+        loanService.save(savingLoan);
+
+        BookAvailability availability = BookAvailability.builder().bookId(1L).activeLoans(0).totalCheckouts(1).lastLoanDate(loanDate).build();
+        verify(availabilityRepository, times(1)).saveAll(Arrays.asList(availability));
+    }
+
+    @Test
+    @DisplayName("Must not loan a book already loaned")
+    public void loanedBookSaveTest(){
+        Book book = Book.builder().id(1L).build();
+        Loan savingLoan = Loan.builder().customer("Neo").loanDate(LocalDate.now()).book(book).build();
+
+        when(bookRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(book));
+        when(repository.existsByBookAndReturnedFalse(book)).thenReturn(true);
+
+        Throwable exception = Assertions.catchThrowable(() -> loanService.save(savingLoan));
+
+        assertThat(exception).isInstanceOf(BusinessException.class).hasMessage("Book already loaned");
+        verify(repository, never()).save(savingLoan);
+    }
+
+    @Test
+    @DisplayName("Must not loan without a book")
+    public void loanWithoutBookTest(){
+        Loan savingLoan = Loan.builder().customer("Neo").loanDate(LocalDate.now()).build();
+
+        org.junit.jupiter.api.Assertions.assertThrows(IllegalArgumentException.class, () -> loanService.save(savingLoan));
+
+        verify(repository, never()).save(savingLoan);
+    }
+
+    @Test
+    @DisplayName("Must loan the available books of a basket")
+    public void checkoutBasketTest(){
+        Book available = Book.builder().id(1L).isbn("123").normalizedIsbn("123").build();
+        Book loaned = Book.builder().id(2L).isbn("456").normalizedIsbn("456").build();
+        when(bookRepository.findByNormalizedIsbnInForUpdate(Mockito.anyCollection())).thenReturn(Arrays.asList(available, loaned));
+        when(repository.findLoanedBookIds(Mockito.anyCollection())).thenReturn(Arrays.asList(2L));
+
+        List<LoanBatchItem> items = loanService.checkout("Neo", Arrays.asList("123", "456", "789", "123"), LocalDate.now());
+
+        assertThat(items).extracting(LoanBatchItem::getError)
+                .containsExactly(null, "Book already loaned", "Book not found", "Duplicated Isbn");
+        assertThat(items.get(0).getLoan().getBook()).isEqualTo(available);
+        assertThat(items.get(0).getLoan().getCustomer()).isEqualTo("Neo");
+        assertThat(items.get(0).getLoan().getReturned()).isFalse();
+        verify(bookRepository, times(1)).findByNormalizedIsbnInForUpdate(Mockito.anyCollection());
+        verify(repository, times(1)).saveAll(Arrays.asList(items.get(0).getLoan()));
+    }
+
+    @Test
+    @DisplayName("Must refuse a basket over the limit without locking")
+    public void tooLargeBasketTest(){
+        List<String> isbns = Collections.nCopies(LoanServiceImpl.MAX_BASKET + 1, "123");
+
+        Throwable checkout = Assertions.catchThrowable(() -> loanService.checkout("Neo", isbns, LocalDate.now()));
+        Throwable giveBack = Assertions.catchThrowable(() -> loanService.giveBack(isbns));
+
+        assertThat(checkout).isInstanceOf(BusinessException.class).hasMessage("Too many isbns");
+        assertThat(giveBack).isInstanceOf(BusinessException.class).hasMessage("Too many isbns");
+        verifyNoInteractions(bookRepository, repository);
+    }
+
+    @Test
+    @DisplayName("Must return the loaned books of a basket")
+    public void giveBackBasketTest(){
+        Book book = Book.builder().id(1L).isbn("123").normalizedIsbn("123").build();
+        Loan loan = Loan.builder().id(1L).customer("Neo").book(book).loanDate(LocalDate.now()).returned(false).build();
+        BookAvailability availability = BookAvailability.builder().bookId(1L).activeLoans(1).totalCheckouts(3).version(2L).build();
+        when(repository.findActiveByNormalizedIsbnIn(Mockito.anyCollection())).thenReturn(Arrays.asList(loan));
+        when(availabilityRepository.findAllById(Mockito.anyCollection())).thenReturn(Arrays.asList(availability));
+
+        List<LoanBatchItem> items = loanService.giveBack(Arrays.asList("123", "456"));
 
+        assertThat(items).extracting(LoanBatchItem::getError).containsExactly(null, "Book not loaned");
+        assertThat(items.get(0).getLoan()).isEqualTo(loan);
+        assertThat(loan.getReturned()).isTrue();
+        verify(repository, times(1)).findActiveByNormalizedIsbnIn(Mockito.anyCollection());
+        assertThat(availability.getActiveLoans()).isZero();
+        assertThat(availability.getTotalCheckouts()).isEqualTo(3);
     }
 }
@@ -0,0 +1,103 @@
+package com.godofredo.libraryapi.service.availability;
+
+import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.model.entity.BookAvailability;
+import com.godofredo.libraryapi.model.entity.Loan;
+import com.godofredo.libraryapi.model.repository.BookAvailabilityRepository;
+import com.godofredo.libraryapi.model.repository.BookRepository;
+import com.godofredo.libraryapi.model.repository.LoanRepository;
+import com.godofredo.libraryapi.service.AvailabilityService;
+import com.godofredo.libraryapi.service.LoanService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = "library.loans.days=14")
+public class AvailabilityConsistencyCheckerTest {
+
+    static final LocalDate TODAY = LocalDate.of(2020, 3, 31);
+
+    @Autowired
+    AvailabilityConsistencyChecker checker;
+
+    @Autowired
+    AvailabilityService availabilityService;
+
+    @Autowired
+    LoanService loanService;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    LoanRepository loanRepository;
+
+    @Autowired
+    BookAvailabilityRepository availabilityRepository;
+
+    @Test
+    @DisplayName("Checkouts and returns keep the availability in line with the loans")
+    public void incrementalProjectionTest() {
+        Book book1 = givenBook("1");
+        Book book2 = givenBook("2");
+        givenBook("3");
+
+        loanService.checkout("Neo", Arrays.asList("1", "2"), TODAY.minusDays(2));
+        loanService.giveBack(Arrays.asList("1"));
+        loanService.checkout("Trinity", Arrays.asList("1"), TODAY);
+
+        assertThat(availabilityService.getAvailability(book1.getId()))
+                .extracting(BookAvailability::getActiveLoans, BookAvailability::getTotalCheckouts, BookAvailability::getLastLoanDate)
+                .containsExactly(1, 2L, TODAY);
+        assertThat(availabilityService.getBorrowers(book1.getId())).containsExactly("Trinity");
+
+        Map<String, BookAvailability> availability = availabilityService.getAvailability(Arrays.asList("1", "2", "3", "4"));
+        assertThat(availability).containsOnlyKeys("1", "2", "3");
+        assertThat(availability.get("2").getBookId()).isEqualTo(book2.getId());
+        assertThat(availability.get("3").isAvailable()).isTrue();
+        assertThat(availability.get("3").getTotalCheckouts()).isZero();
+
+        assertThat(checker.check()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Repair the availability drifted from the loans")
+    public void repairTest() {
+        Book drifted = givenBook("11");
+        Book missing = givenBook("12");
+        Book orphan = givenBook("13");
+        loanService.checkout("Neo", Arrays.asList("11"), TODAY);
+        BookAvailability row = availabilityRepository.findById(drifted.getId()).get();
+        row.setActiveLoans(5);
+        availabilityRepository.save(row);
+        // loans written around the service
+        loanRepository.save(Loan.builder().customer("Neo").book(missing).loanDate(TODAY).returned(false).build());
+        availabilityRepository.save(BookAvailability.builder().bookId(orphan.getId()).activeLoans(1).totalCheckouts(1).build());
+
+        assertThat(checker.check()).extracting(AvailabilityDiff::getBookId)
+                .containsExactlyInAnyOrder(drifted.getId(), missing.getId(), orphan.getId());
+
+        assertThat(checker.repair()).hasSize(3);
+
+        assertThat(checker.check()).isEmpty();
+        assertThat(availabilityRepository.findById(drifted.getId()).get().getActiveLoans()).isEqualTo(1);
+        assertThat(availabilityRepository.findById(missing.getId()).get().getTotalCheckouts()).isEqualTo(1);
+        assertThat(availabilityRepository.findById(orphan.getId())).isEmpty();
+    }
+
+    private Book givenBook(String isbn) {
+        return bookRepository.save(Book.builder().title("Title " + isbn).author("Author").isbn(isbn).build());
+    }
+}
@@ -0,0 +1,76 @@
+package com.godofredo.libraryapi.service.cache;
+
+import com.godofredo.libraryapi.LibraryApiApplication;
+import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.service.BookService;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two application contexts on the same database and the same invalidation bus, standing for two instances.
+ */
+public class BookCacheInvalidationTest {
+
+    static ConfigurableApplicationContext first;
+    static ConfigurableApplicationContext second;
+
+    @BeforeAll
+    public static void startInstances() {
+        BookCacheInvalidationBus bus = new InProcessBookCacheInvalidationBus();
+        first = start(bus, "create-drop");
+        second = start(bus, "none");
+    }
+
+    @AfterAll
+    public static void stopInstances() {
+        second.close();
+        first.close();
+    }
+
+    @Test
+    @DisplayName("A write on one instance evicts the cached book on the other")
+    public void invalidateOtherInstanceTest() {
+        BookService firstService = first.getBean(BookService.class);
+        BookService secondService = second.getBean(BookService.class);
+        Book book = firstService.save(Book.builder().title("Steve Jobs").author("Walter Isaacson").isbn("two-123").build());
+
+        secondService.getById(book.getId());
+        secondService.getBookByIsbn("two-123");
+        assertThat(isCached(second, book)).isTrue();
+
+        Book updating = firstService.getById(book.getId()).get();
+        updating.setTitle("Steve Jobs, revised");
+        firstService.update(updating);
+
+        assertThat(isCached(second, book)).isFalse();
+        assertThat(secondService.getById(book.getId()).get().getTitle()).isEqualTo("Steve Jobs, revised");
+        assertThat(secondService.getBookByIsbn("two-123").get().getTitle()).isEqualTo("Steve Jobs, revised");
+    }
+
+    private static boolean isCached(ConfigurableApplicationContext context, Book book) {
+        return context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getCache()
+                .containsEntity(Book.class, book.getId());
+    }
+
+    private static ConfigurableApplicationContext start(BookCacheInvalidationBus bus, String ddlAuto) {
+        return new SpringApplicationBuilder(LibraryApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "spring.datasource.url=jdbc:h2:mem:two_instances;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=" + ddlAuto)
+                .initializers(context -> context.getBeanFactory().registerSingleton("bookCacheInvalidationBus", bus))
+                .run();
+    }
+}
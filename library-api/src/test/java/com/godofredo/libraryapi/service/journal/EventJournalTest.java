@@ -0,0 +1,157 @@
+package com.godofredo.libraryapi.service.journal;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EventJournalTest {
+
+    static final int SEGMENT_SIZE = 1024;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Read back the appended events from an offset")
+    public void appendAndReadTest() throws Exception {
+        try (EventJournal journal = journal(FsyncPolicy.ALWAYS)) {
+            long first = journal.append(created(1)).get();
+            long second = journal.append(loaned(1, "Neo")).get();
+            long third = journal.append(created(2)).get();
+
+            assertThat(first).isZero();
+            assertThat(journal.getDurableOffset()).isEqualTo(journal.getWrittenOffset());
+
+            JournalBatch all = journal.read(0, 10);
+            assertThat(all.getEvents()).extracting(JournalEvent::getOffset).containsExactly(first, second, third);
+            assertThat(all.getEvents().get(1)).extracting(JournalEvent::getType, JournalEvent::getCustomer, JournalEvent::getLoanDate)
+                    .containsExactly(JournalEvent.Type.BOOK_LOANED, "Neo", LocalDate.of(2020, 1, 1));
+            assertThat(all.getNextOffset()).isEqualTo(journal.getWrittenOffset());
+
+            JournalBatch tail = journal.read(second, 1);
+            assertThat(tail.getEvents()).extracting(JournalEvent::getOffset).containsExactly(second);
+            assertThat(journal.read(tail.getNextOffset(), 10).getEvents()).extracting(JournalEvent::getBookId).containsExactly(2L);
+            assertThat(journal.read(all.getNextOffset(), 10).getEvents()).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("Roll to a new segment when the active one is full")
+    public void rollSegmentsTest() throws Exception {
+        List<CompletableFuture<Long>> appends = new ArrayList<>();
+        try (EventJournal journal = journal(FsyncPolicy.INTERVAL)) {
+            for (long id = 0; id < 100; id++) {
+                appends.add(journal.append(created(id)));
+            }
+            CompletableFuture.allOf(appends.toArray(new CompletableFuture[0])).get();
+
+            assertThat(segments()).hasSizeGreaterThan(3);
+            JournalBatch all = journal.read(0, 1000);
+            assertThat(all.getEvents()).extracting(JournalEvent::getBookId).hasSize(100).isSorted();
+            assertThat(all.getEvents()).extracting(JournalEvent::getOffset)
+                    .containsExactlyElementsOf(appends.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+        }
+        // each segment is named after the offset of its first event
+        JournalBatch all = new JournalReader(dir).read(0, 1000);
+        assertThat(segments()).allMatch(segment -> all.getEvents().stream()
+                .anyMatch(event -> event.getOffset() == JournalSegment.base(segment)));
+    }
+
+    @Test
+    @DisplayName("Reopen after the last event written and drop a torn record")
+    public void recoverTest() throws Exception {
+        long end;
+        try (EventJournal journal = journal(FsyncPolicy.NEVER)) {
+            journal.append(created(1));
+            journal.append(created(2)).get();
+            end = journal.getWrittenOffset();
+        }
+        // a crash in the middle of a record: a length, a checksum and garbage
+        Path segment = segments().get(segments().size() - 1);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            ByteBuffer torn = ByteBuffer.allocate(16).putInt(40).putInt(123).putLong(-1L);
+            torn.flip();
+            channel.write(torn, end - JournalSegment.base(segment));
+        }
+
+        try (EventJournal journal = journal(FsyncPolicy.ALWAYS)) {
+            assertThat(journal.getWrittenOffset()).isEqualTo(end);
+            assertThat(journal.append(created(3)).get()).isEqualTo(end);
+            assertThat(journal.read(0, 10).getEvents()).extracting(JournalEvent::getBookId).containsExactly(1L, 2L, 3L);
+        }
+    }
+
+    @Test
+    @DisplayName("Drop and count the event when the queue stays full")
+    public void dropWhenFullTest() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        JournalEvent slow = new JournalEvent() {
+            @Override
+            public String getTitle() {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "Slow";
+            }
+        };
+        slow.setType(JournalEvent.Type.BOOK_CREATED);
+        slow.setBookId(1L);
+
+        try (EventJournal journal = new EventJournal(dir, SEGMENT_SIZE, FsyncPolicy.ALWAYS, Duration.ofMillis(10),
+                16, 1, Duration.ofMillis(50))) {
+            CompletableFuture<Long> first = journal.append(slow);
+            writing.await();
+            CompletableFuture<Long> queued = journal.append(created(2));
+            CompletableFuture<Long> dropped = journal.append(created(3));
+
+            assertThat(dropped).isCompletedExceptionally();
+            assertThat(journal.getDropped()).isEqualTo(1);
+
+            release.countDown();
+            first.get();
+            queued.get();
+            assertThat(journal.read(0, 10).getEvents()).extracting(JournalEvent::getBookId).containsExactly(1L, 2L);
+        }
+    }
+
+    private EventJournal journal(FsyncPolicy fsyncPolicy) throws IOException {
+        return new EventJournal(dir, SEGMENT_SIZE, fsyncPolicy, Duration.ofMillis(10), 16, 1000, Duration.ofSeconds(1));
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(JournalSegment::isSegment).sorted().collect(Collectors.toList());
+        }
+    }
+
+    static JournalEvent created(long id) {
+        return JournalEvent.builder().type(JournalEvent.Type.BOOK_CREATED).time(1L).bookId(id)
+                .title("Title " + id).author("Author").isbn("isbn-" + id).build();
+    }
+
+    static JournalEvent loaned(long id, String customer) {
+        return JournalEvent.builder().type(JournalEvent.Type.BOOK_LOANED).time(1L).bookId(id)
+                .loanId(id).customer(customer).loanDate(LocalDate.of(2020, 1, 1)).build();
+    }
+}
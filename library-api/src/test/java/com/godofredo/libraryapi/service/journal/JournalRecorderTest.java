@@ -0,0 +1,117 @@
+package com.godofredo.libraryapi.service.journal;
+
+import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.model.entity.Loan;
+import com.godofredo.libraryapi.service.BookService;
+import com.godofredo.libraryapi.service.LoanService;
+import com.godofredo.libraryapi.service.event.BookChangedEvent;
+import com.godofredo.libraryapi.service.event.LoanChangedEvent;
+import com.godofredo.libraryapi.service.overdue.OverdueLoanScanner;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = {"library.journal.enabled=true", "library.journal.dir=target/journal-test/${random.uuid}",
+        "library.journal.fsync=ALWAYS"})
+public class JournalRecorderTest {
+
+    static final LocalDate TODAY = LocalDate.of(2020, 3, 31);
+
+    @Autowired
+    EventJournal journal;
+
+    @Autowired
+    BookService bookService;
+
+    @Autowired
+    LoanService loanService;
+
+    @Autowired
+    OverdueLoanScanner scanner;
+
+    @Test
+    @DisplayName("Journal the committed changes and replay them into the catalog")
+    public void recordAndReplayTest() throws Exception {
+        Book kept = bookService.save(Book.builder().title("Steve Jobs").author("Walter Isaacson").isbn("journal-1").build());
+        Book deleted = bookService.save(Book.builder().title("Dune").author("Frank Herbert").isbn("journal-2").build());
+        Book loaned = bookService.save(Book.builder().title("Clean Code").author("Robert Martin").isbn("journal-3").build());
+        kept.setTitle("Steve Jobs, the biography");
+        bookService.update(kept);
+        bookService.delete(deleted);
+        loanService.checkout("Neo", Arrays.asList("journal-1", "journal-3"), TODAY);
+        loanService.giveBack(Arrays.asList("journal-1"));
+        scanner.scan(TODAY.plusDays(15));
+
+        List<JournalEvent> events = awaitEvents(9);
+        assertThat(events).extracting(JournalEvent::getType).containsExactly(
+                JournalEvent.Type.BOOK_CREATED, JournalEvent.Type.BOOK_CREATED, JournalEvent.Type.BOOK_CREATED,
+                JournalEvent.Type.BOOK_UPDATED, JournalEvent.Type.BOOK_DELETED,
+                JournalEvent.Type.BOOK_LOANED, JournalEvent.Type.BOOK_LOANED, JournalEvent.Type.BOOK_RETURNED,
+                JournalEvent.Type.LOAN_OVERDUE);
+        assertThat(events.get(8).getBookId()).isEqualTo(loaned.getId());
+
+        JournalReplay replay = JournalReplay.replay(new JournalReader(journal.getDir()));
+        StringWriter csv = new StringWriter();
+        replay.writeCsv(csv);
+        assertThat(csv.toString()).isEqualTo("id,title,author,isbn,customer,loanDate\n"
+                + kept.getId() + ",\"Steve Jobs, the biography\",Walter Isaacson,journal-1,,\n"
+                + loaned.getId() + ",Clean Code,Robert Martin,journal-3,Neo,2020-03-31\n");
+        assertThat(replay.getOffset()).isEqualTo(journal.getWrittenOffset());
+    }
+
+    @Test
+    @DisplayName("Replay the newest change of a book whose appends ran in reverse order")
+    public void replayOutOfOrderTest(@TempDir Path dir) throws Exception {
+        Book book = Book.builder().id(1L).title("Refactoring").author("Martin Fowler")
+                .isbn("journal-4").version(0L).build();
+        Book first = Book.builder().id(1L).title("Refactoring, 2nd edition").author("Martin Fowler")
+                .isbn("journal-4").version(1L).build();
+        Book second = Book.builder().id(1L).title("Refactoring, 3rd edition").author("Martin Fowler")
+                .isbn("journal-4").version(2L).build();
+        Loan returned = Loan.builder().id(100L).book(book).customer("Neo").loanDate(TODAY).build();
+        Loan loaned = Loan.builder().id(101L).book(book).customer("Trinity").loanDate(TODAY.plusDays(1)).build();
+
+        // the second update and the second loan committed last but reach the journal first
+        try (EventJournal journal = new EventJournal(dir, 1 << 20, FsyncPolicy.NEVER, Duration.ofSeconds(1), 16, 16,
+                Duration.ofSeconds(1))) {
+            JournalRecorder recorder = new JournalRecorder(journal);
+            recorder.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.CREATED, book));
+            recorder.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.UPDATED, second));
+            recorder.onLoanChanged(new LoanChangedEvent(LoanChangedEvent.Type.LOANED, loaned));
+            recorder.onLoanChanged(new LoanChangedEvent(LoanChangedEvent.Type.RETURNED, returned));
+            recorder.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.UPDATED, first));
+        }
+
+        JournalReplay replay = JournalReplay.replay(new JournalReader(dir));
+        assertThat(replay.getEvents()).isEqualTo(5);
+        assertThat(replay.getBooks()).extracting(Book::getTitle).containsExactly("Refactoring, 3rd edition");
+        assertThat(replay.getLoan(book.getId())).extracting(JournalEvent::getLoanId, JournalEvent::getCustomer)
+                .containsExactly(101L, "Trinity");
+    }
+
+    private List<JournalEvent> awaitEvents(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        List<JournalEvent> events = journal.read(0, 100).getEvents();
+        while (events.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            events = journal.read(0, 100).getEvents();
+        }
+        return events;
+    }
+}
@@ -0,0 +1,48 @@
+package com.godofredo.libraryapi.service.memory;
+
+import com.godofredo.libraryapi.model.entity.Book;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BookStoreTest {
+
+    static final int BOOKS = 5000;
+
+    @Test
+    @DisplayName("Keep ids and isbns found while the store grows, loses most rows and compacts")
+    public void growAndCompactTest() {
+        BookStore store = new BookStore();
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            books.add(store.insert(Book.builder().title("Title " + i).isbn("isbn-" + i).build()));
+        }
+        Random random = new Random(7);
+        List<Long> kept = new ArrayList<>();
+        for (Book book : books) {
+            if (random.nextInt(5) == 0) {
+                kept.add(book.getId());
+            } else {
+                assertThat(store.remove(book.getId())).isPresent();
+            }
+        }
+
+        assertThat(store.size()).isEqualTo(kept.size());
+        for (int i = 0; i < BOOKS; i++) {
+            Book book = books.get(i);
+            boolean present = kept.contains(book.getId());
+            assertThat(store.get(book.getId()).isPresent()).isEqualTo(present);
+            assertThat(store.getByIsbn("ISBN" + i).isPresent()).isEqualTo(present);
+        }
+        List<Long> scanned = new ArrayList<>();
+        store.scan(0, true, Integer.MAX_VALUE, book -> true).forEach(book -> scanned.add(book.getId()));
+        assertThat(scanned).isEqualTo(kept);
+        assertThat(store.scan(kept.get(kept.size() - 1), false, 1, book -> true).get(0).getId())
+                .isEqualTo(kept.get(kept.size() - 2));
+    }
+}
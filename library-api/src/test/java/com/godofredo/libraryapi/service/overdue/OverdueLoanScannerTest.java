@@ -0,0 +1,130 @@
+package com.godofredo.libraryapi.service.overdue;
+
+import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.model.entity.Loan;
+import com.godofredo.libraryapi.model.entity.ScanCheckpoint;
+import com.godofredo.libraryapi.model.repository.BookRepository;
+import com.godofredo.libraryapi.model.repository.LoanRepository;
+import com.godofredo.libraryapi.model.repository.ScanCheckpointRepository;
+import com.godofredo.libraryapi.service.event.LoanOverdueEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.AdditionalAnswers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = {"library.loans.days=14", "library.loans.overdue.chunk-size=2"})
+public class OverdueLoanScannerTest {
+
+    static final LocalDate TODAY = LocalDate.of(2020, 3, 31);
+
+    @Autowired
+    OverdueLoanScanner scanner;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    LoanRepository loanRepository;
+
+    @Autowired
+    ScanCheckpointRepository checkpointRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    OverdueLoans overdueLoans;
+
+    @Test
+    @DisplayName("Each run publishes only the loans that became overdue since the previous one")
+    public void incrementalScanTest() {
+        Loan overdue1 = givenLoan("1", TODAY.minusDays(30), false);
+        Loan overdue2 = givenLoan("2", TODAY.minusDays(20), false);
+        Loan overdue3 = givenLoan("3", TODAY.minusDays(20), false);
+        givenLoan("4", TODAY.minusDays(20), true);
+        givenLoan("5", TODAY.minusDays(14), false);
+        Loan dueTomorrow = givenLoan("6", TODAY.minusDays(14), false);
+
+        assertThat(scanner.scan(TODAY)).isEqualTo(3);
+        assertThat(overdueLoans.ids).containsExactly(overdue1.getId(), overdue2.getId(), overdue3.getId());
+
+        assertThat(scanner.scan(TODAY)).isZero();
+
+        dueTomorrow.setReturned(true);
+        loanRepository.save(dueTomorrow);
+        assertThat(scanner.scan(TODAY.plusDays(1))).isEqualTo(1);
+        assertThat(overdueLoans.ids).hasSize(4).doesNotContain(dueTomorrow.getId());
+
+        ScanCheckpoint checkpoint = checkpointRepository.findById(OverdueLoanScanner.CHECKPOINT).get();
+        assertThat(checkpoint.getLoanDate()).isEqualTo(TODAY.minusDays(14));
+    }
+
+    @Test
+    @DisplayName("A run goes on with the checkpoint another instance created first")
+    public void concurrentCheckpointCreationTest() {
+        checkpointRepository.deleteAll();
+        ScanCheckpointRepository checkpoints = Mockito.mock(ScanCheckpointRepository.class,
+                AdditionalAnswers.delegatesTo(checkpointRepository));
+        OverdueLoanScanner scanner = new OverdueLoanScanner(loanRepository, checkpoints, event -> { },
+                transactionManager, 14, 2);
+        TransactionTemplate otherInstance = new TransactionTemplate(transactionManager);
+        otherInstance.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Mockito.doAnswer(invocation -> {
+            boolean exists = checkpointRepository.existsById(OverdueLoanScanner.CHECKPOINT);
+            otherInstance.execute(status -> jdbcTemplate.update(
+                    "insert into scan_checkpoint (name, loan_date, loan_id) values (?, ?, ?)",
+                    OverdueLoanScanner.CHECKPOINT, ScanCheckpoint.START, 0L));
+            return exists;
+        }).when(checkpoints).existsById(OverdueLoanScanner.CHECKPOINT);
+
+        assertThat(scanner.scan(ScanCheckpoint.START)).isZero();
+
+        Mockito.verify(checkpoints).insert(Mockito.any(ScanCheckpoint.class));
+        assertThat(checkpointRepository.findById(OverdueLoanScanner.CHECKPOINT)).isPresent();
+    }
+
+    private Loan givenLoan(String isbn, LocalDate loanDate, boolean returned) {
+        Book book = bookRepository.save(Book.builder().title("Title").author("Author").isbn("overdue-" + isbn).build());
+        return loanRepository.save(Loan.builder().book(book).customer("Neo").loanDate(loanDate).returned(returned).build());
+    }
+
+    @TestConfiguration
+    static class OverdueLoansConfig {
+        @Bean
+        OverdueLoans overdueLoans() {
+            return new OverdueLoans();
+        }
+    }
+
+    static class OverdueLoans {
+        final List<Long> ids = new ArrayList<>();
+
+        @EventListener
+        public void onOverdue(LoanOverdueEvent event) {
+            ids.add(event.getLoan().getId());
+        }
+    }
+}
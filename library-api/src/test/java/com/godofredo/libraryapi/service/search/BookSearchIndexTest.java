@@ -0,0 +1,119 @@
+package com.godofredo.libraryapi.service.search;
+
+import com.godofredo.libraryapi.model.entity.Book;
+import com.godofredo.libraryapi.model.repository.BookRepository;
+import com.godofredo.libraryapi.service.event.BookChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class BookSearchIndexTest {
+
+    @MockBean
+    BookRepository repository;
+
+    BookSearchIndex index;
+
+    @BeforeEach
+    public void setUp(){
+        this.index = new BookSearchIndex(repository);
+        index.index(Book.builder().id(1L).title("Steve Jobs").author("Walter Isaacson").build());
+        index.index(Book.builder().id(2L).title("Einstein: His Life and Universe").author("Walter Isaacson").build());
+        index.index(Book.builder().id(3L).title("The Life of Walter Benjamin").author("Howard Eiland").build());
+    }
+
+    @Test
+    @DisplayName("Find books by a term in any case")
+    public void termQueryTest(){
+        assertThat(index.search("ISAACSON")).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.search("jobs isaacson")).containsExactly(1L);
+        assertThat(index.search("job")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Find books by a prefix")
+    public void prefixQueryTest(){
+        assertThat(index.search("job*")).containsExactly(1L);
+        assertThat(index.search("ei*")).containsExactly(2L, 3L);
+    }
+
+    @Test
+    @DisplayName("Rank title matches above author matches")
+    public void rankingTest(){
+        assertThat(index.search("walter")).containsExactly(3L, 1L, 2L);
+    }
+
+    @Test
+    @DisplayName("Fold accents in documents and queries")
+    public void accentFoldingTest(){
+        index.index(Book.builder().id(4L).title("Memórias Póstumas de Brás Cubas").author("Machado de Assis").build());
+
+        assertThat(index.search("memorias bras")).containsExactly(4L);
+        assertThat(index.search("Pós*")).containsExactly(4L);
+    }
+
+    @Test
+    @DisplayName("Follow updates and deletes")
+    public void changesTest(){
+        index.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.UPDATED,
+                Book.builder().id(1L).title("Elon Musk").author("Walter Isaacson").build()));
+        index.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.DELETED, Book.builder().id(2L).build()));
+
+        assertThat(index.search("jobs")).isEmpty();
+        assertThat(index.search("musk")).containsExactly(1L);
+        assertThat(index.search("isaacson")).containsExactly(1L);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Rebuild the index from the database")
+    public void rebuildTest(){
+        Book book = Book.builder().id(9L).title("Clean Code").author("Robert Martin").build();
+        when(repository.findAfter(Mockito.isNull(), Mockito.eq(Sort.Order.asc("id")), Mockito.isNull(), Mockito.anyInt()))
+                .thenReturn(new ArrayList<>(Arrays.asList(book)));
+        when(repository.findAfter(Mockito.isNull(), Mockito.eq(Sort.Order.asc("id")), Mockito.eq(book), Mockito.anyInt()))
+                .thenReturn(new ArrayList<>());
+
+        index.rebuild();
+
+        assertThat(index.search("clean")).containsExactly(9L);
+        assertThat(index.search("jobs")).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Keep the changes made while the index is rebuilt")
+    public void changesDuringRebuildTest(){
+        Book book = Book.builder().id(9L).title("Clean Code").author("Robert Martin").build();
+        Book added = Book.builder().id(10L).title("Refactoring").author("Martin Fowler").build();
+        when(repository.findAfter(Mockito.isNull(), Mockito.eq(Sort.Order.asc("id")), Mockito.isNull(), Mockito.anyInt()))
+                .thenAnswer(invocation -> {
+                    // committed after the rebuild read their rows
+                    index.index(added);
+                    index.remove(9L);
+                    return new ArrayList<>(Arrays.asList(book));
+                });
+        when(repository.findAfter(Mockito.isNull(), Mockito.eq(Sort.Order.asc("id")), Mockito.eq(book), Mockito.anyInt()))
+                .thenReturn(new ArrayList<>());
+
+        index.rebuild();
+
+        assertThat(index.search("refactoring")).containsExactly(10L);
+        assertThat(index.search("clean")).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+    }
+}